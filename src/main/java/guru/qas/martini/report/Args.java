@@ -16,6 +16,8 @@ limitations under the License.
 
 package guru.qas.martini.report;
 
+import java.util.List;
+
 import com.beust.jcommander.Parameter;
 
 class Args {
@@ -33,9 +35,45 @@ class Args {
 
 	@Parameter(
 		names = {"-i", "--i", "-jsonResources", "--jsonResources"},
-		description = "JSON resources, e.g. file:///path/to/*.json"
+		description = "JSON resources, e.g. file:///path/to/*.json; separate several locations with commas"
+	)
+	List<String> jsonResources;
+
+	@Parameter(
+		names = {"-since", "--since"},
+		description = "only read JSON files modified within this long before now, e.g. 30m, 24h or 7d"
+	)
+	String since;
+
+	@Parameter(
+		names = {"-minSize", "--minSize"},
+		description = "only read JSON files of at least this size, e.g. 512, 10k or 1m"
+	)
+	String minSize;
+
+	@Parameter(
+		names = {"-maxSize", "--maxSize"},
+		description = "only read JSON files of at most this size, e.g. 512, 10k or 1m"
 	)
-	String jsonResources;
+	String maxSize;
+
+	@Parameter(
+		names = {"-discoveryThreads", "--discoveryThreads"},
+		description = "number of directories searched in parallel when -i is a file system pattern"
+	)
+	int discoveryThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+	@Parameter(
+		names = {"-prefetch", "--prefetch"},
+		description = "number of remote or classpath resources fetched concurrently ahead of parsing, 0 to disable"
+	)
+	int prefetch = 8;
+
+	@Parameter(
+		names = {"-prefetchMemory", "--prefetchMemory"},
+		description = "megabytes of prefetched content buffered ahead of parsing"
+	)
+	int prefetchMemory = 256;
 
 	@Parameter(
 		names = {"-c", "--c", "-clobber", "--clobber"},
@@ -43,6 +81,114 @@ class Args {
 	)
 	boolean clobber = true;
 
+	@Parameter(
+		names = {"-t", "--t", "-threads", "--threads"},
+		description = "number of JSON resources to parse in parallel, 1 to parse resources sequentially"
+	)
+	int threads = 1;
+
+	@Parameter(
+		names = {"-splitSize", "--splitSize"},
+		description = "with more than one thread, split JSON array files larger than this many megabytes " +
+			"into chunks parsed in parallel, 0 to parse each file as a whole"
+	)
+	int splitSize = 64;
+
+	@Parameter(
+		names = {"-follow", "--follow"},
+		description = "keep reading JSON files that are still being written, regenerating the report as records arrive"
+	)
+	boolean follow;
+
+	@Parameter(
+		names = {"-followRecords", "--followRecords"},
+		description = "in follow mode, regenerate the report once this many new records have been read"
+	)
+	int followRecords = 1000;
+
+	@Parameter(
+		names = {"-followSeconds", "--followSeconds"},
+		description = "in follow mode, regenerate the report at least this often while new records arrive"
+	)
+	int followSeconds = 60;
+
+	@Parameter(
+		names = {"-followIdle", "--followIdle"},
+		description = "in follow mode, stop after this many seconds without new records, 0 to follow until interrupted"
+	)
+	int followIdle = 0;
+
+	@Parameter(
+		names = {"-watch", "--watch"},
+		description = "watch the input directory, regenerating the report as JSON files arrive or change"
+	)
+	boolean watch;
+
+	@Parameter(
+		names = {"-watchDebounce", "--watchDebounce"},
+		description = "in watch mode, milliseconds without file events before the report is regenerated"
+	)
+	int watchDebounce = 2000;
+
+	@Parameter(
+		names = {"-watchIdle", "--watchIdle"},
+		description = "in watch mode, stop after this many seconds without changes, 0 to watch until interrupted"
+	)
+	int watchIdle = 0;
+
+	@Parameter(
+		names = {"-listen", "--listen"},
+		description = "instead of reading -i, receive records streamed by harness processes on a TCP port, " +
+			"e.g. 9000 or localhost:9000, or - to read them from standard input"
+	)
+	String listen;
+
+	@Parameter(
+		names = {"-listenConnections", "--listenConnections"},
+		description = "when listening on a port, stop once this many connections have finished, 0 to stop when idle"
+	)
+	int listenConnections = 0;
+
+	@Parameter(
+		names = {"-listenIdle", "--listenIdle"},
+		description = "when listening on a port, stop after this many seconds without an open connection, " +
+			"0 to listen until interrupted"
+	)
+	int listenIdle = 60;
+
+	@Parameter(
+		names = {"-cache", "--cache"},
+		description = "directory caching the records decoded from each input file, e.g. file:///path/to/cache; " +
+			"only new or changed files are parsed again"
+	)
+	String cacheResource;
+
+	@Parameter(
+		names = {"-store", "--store"},
+		description = "also write results to a columnar store directory for the query command, " +
+			"e.g. file:///path/to/store; without -o only the store is written"
+	)
+	String storeResource;
+
+	@Parameter(
+		names = {"-workbookRows", "--workbookRows"},
+		description = "maximum results per workbook; larger reports are split into numbered files such as " +
+			"report-1.xlsx and report-2.xlsx, 0 to write a single workbook"
+	)
+	int workbookRows = 0;
+
+	@Parameter(
+		names = {"-junit", "--junit"},
+		description = "also write results as JUnit XML, e.g. file:///path/to/TEST-martini.xml"
+	)
+	String junitResource;
+
+	@Parameter(
+		names = {"-html", "--html"},
+		description = "also write a static HTML report into a directory, e.g. file:///path/to/report"
+	)
+	String htmlResource;
+
 	@SuppressWarnings("unused")
 	@Parameter(
 		names = {"-o", "--o", "-output", "--output"},
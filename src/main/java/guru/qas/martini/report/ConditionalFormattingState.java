@@ -0,0 +1,109 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.BorderFormatting;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.PatternFormatting;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetConditionalFormatting;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+
+import com.google.common.collect.Sets;
+
+import guru.qas.martini.report.style.StyleRegistry;
+
+/**
+ * Leaves result cells unstyled and colors rows by status with one conditional formatting rule per
+ * status, so styling cost does not depend on the number of results.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ConditionalFormattingState extends StreamingState {
+
+	private final boolean highlightLongest;
+	private final Set<String> statuses;
+
+	protected ConditionalFormattingState(StyleRegistry styles, boolean highlightLongest) {
+		super(styles);
+		this.highlightLongest = highlightLongest;
+		statuses = Sets.newLinkedHashSet();
+	}
+
+	@Override
+	protected void updateStatus(Row row, String status) {
+		if (null != status) {
+			statuses.add(status);
+		}
+	}
+
+	@Override
+	protected void updateResults(Sheet sheet, int lastRowNum) {
+		colorRowsByStatus(sheet, lastRowNum);
+		super.updateResults(sheet, lastRowNum);
+	}
+
+	protected void colorRowsByStatus(Sheet sheet, int lastRowNum) {
+		Integer statusColumn = getStatusColumn();
+		if (null != statusColumn) {
+			SheetConditionalFormatting formatting = sheet.getSheetConditionalFormatting();
+			String column = CellReference.convertNumToColString(statusColumn);
+			int lastColumn = Math.max(statusColumn, getLastColumn());
+			CellRangeAddress range = new CellRangeAddress(1, lastRowNum, 0, lastColumn);
+
+			for (String status : statuses) {
+				Short color = getColor(status);
+				if (null != color) {
+					String escaped = status.replace("\"", "\"\"");
+					String formula = String.format("$%s2=\"%s\"", column, escaped);
+					ConditionalFormattingRule rule = formatting.createConditionalFormattingRule(formula);
+					setStatusFormatting(rule, color);
+					formatting.addConditionalFormatting(new CellRangeAddress[]{range}, rule);
+				}
+			}
+		}
+	}
+
+	protected void setStatusFormatting(ConditionalFormattingRule rule, short color) {
+		PatternFormatting fill = rule.createPatternFormatting();
+		fill.setFillBackgroundColor(color);
+		fill.setFillPattern(PatternFormatting.SOLID_FOREGROUND);
+
+		short black = IndexedColors.BLACK.getIndex();
+		BorderFormatting border = rule.createBorderFormatting();
+		border.setBorderLeft(BorderStyle.THIN);
+		border.setLeftBorderColor(black);
+		border.setBorderRight(BorderStyle.THIN);
+		border.setRightBorderColor(black);
+		border.setBorderTop(BorderStyle.THIN);
+		border.setTopBorderColor(black);
+		border.setBorderBottom(BorderStyle.THIN);
+		border.setBottomBorderColor(black);
+	}
+
+	@Override
+	protected void updateLongestExecutions(Sheet sheet, int lastRowNum) {
+		if (highlightLongest) {
+			super.updateLongestExecutions(sheet, lastRowNum);
+		}
+	}
+}
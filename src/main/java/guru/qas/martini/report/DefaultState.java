@@ -28,11 +28,8 @@ import java.util.TreeMap;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.CreationHelper;
-import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.FillPatternType;
@@ -46,26 +43,37 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.HostRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.SuiteRecord;
+import guru.qas.martini.report.style.ColumnWidths;
+import guru.qas.martini.report.style.FontKey;
+import guru.qas.martini.report.style.StyleKey;
+import guru.qas.martini.report.style.StyleRegistry;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 @SuppressWarnings("WeakerAccess")
 public class DefaultState implements State {
-	protected final static String KEY_FEATURE = "feature";
+	protected final static String DATE_FORMAT = "m/d/yy h:mm";
+	protected final static int DATE_WIDTH = 14;
+	protected final static int MAXIMUM_SUITE_WIDTH = 100;
 
+	private final StyleRegistry styles;
+	private final ColumnWidths columnWidths;
 	private final Multimap<String, Cell> statii;
 	private final Multimap<String, Cell> themes;
-	private final Map<String, JsonObject> suites;
-	private final Map<String, JsonObject> features;
+	private final Map<String, SuiteRecord> suites;
+	private final Map<String, FeatureRecord> features;
 
 	private List<Cell> longestExecutionCells;
 	private long longestExecution;
 
-	protected DefaultState() {
+	protected DefaultState(StyleRegistry styles) {
+		this.styles = checkNotNull(styles, "null StyleRegistry");
+		columnWidths = new ColumnWidths();
 		statii = ArrayListMultimap.create();
 		themes = ArrayListMultimap.create();
 		suites = new LinkedHashMap<>();
@@ -74,6 +82,16 @@ public class DefaultState implements State {
 		longestExecution = 0;
 	}
 
+	@Override
+	public StyleRegistry getStyleRegistry() {
+		return styles;
+	}
+
+	@Override
+	public ColumnWidths getColumnWidths() {
+		return columnWidths;
+	}
+
 	@Override
 	public void setStatus(Cell cell, String status) {
 		statii.put(status, cell);
@@ -98,6 +116,10 @@ public class DefaultState implements State {
 		}
 	}
 
+	@Override
+	public void updateResult(Row row) {
+	}
+
 	@Override
 	public void updateResults() {
 		updateLongestExecutions();
@@ -108,21 +130,15 @@ public class DefaultState implements State {
 	public void updateLongestExecutions() {
 		if (!longestExecutionCells.isEmpty()) {
 			for (Cell cell : longestExecutionCells) {
-				CellStyle original = cell.getCellStyle();
-				Sheet sheet = cell.getSheet();
-				Workbook workbook = sheet.getWorkbook();
-				CellStyle newStyle = workbook.createCellStyle();
-				newStyle.cloneStyleFrom(original);
-				int originalFontIndex = original.getFontIndexAsInt();
-				Font originalFont = workbook.getFontAt(originalFontIndex);
-
-
-				Font font = workbook.createFont();
-				font.setBold(true);
-				font.setColor(IndexedColors.DARK_RED.getIndex());
-				font.setFontHeight((short) Math.round(originalFont.getFontHeight() * 1.5));
-				newStyle.setFont(font);
-				cell.setCellStyle(newStyle);
+				StyleKey original = styles.getKey(cell.getCellStyle());
+				FontKey originalFont = original.getFont();
+				FontKey font = originalFont.toBuilder()
+					.setBold(true)
+					.setColor(IndexedColors.DARK_RED.getIndex())
+					.setHeight((short) Math.round(originalFont.getHeight() * 1.5))
+					.build();
+				StyleKey key = original.toBuilder().setFont(font).build();
+				cell.setCellStyle(styles.getStyle(key));
 
 				Row row = cell.getRow();
 				short firstCellNum = row.getFirstCellNum();
@@ -130,23 +146,21 @@ public class DefaultState implements State {
 
 				for (int i = firstCellNum; i < lastCellNum; i++) {
 					Cell rowCell = row.getCell(i);
-					original = rowCell.getCellStyle();
-					CellStyle borderStyle = workbook.createCellStyle();
-					borderStyle.cloneStyleFrom(original);
-					borderStyle.setBorderTop(BorderStyle.MEDIUM);
-					borderStyle.setBorderBottom(BorderStyle.MEDIUM);
+					StyleKey.Builder builder = styles.getKey(rowCell.getCellStyle()).toBuilder()
+						.setBorderTop(BorderStyle.MEDIUM)
+						.setBorderBottom(BorderStyle.MEDIUM);
 
 					if (i == cell.getColumnIndex()) {
-						borderStyle.setBorderLeft(BorderStyle.MEDIUM);
-						borderStyle.setBorderRight(BorderStyle.MEDIUM);
+						builder.setBorderLeft(BorderStyle.MEDIUM);
+						builder.setBorderRight(BorderStyle.MEDIUM);
 					}
 					else if (i == firstCellNum) {
-						borderStyle.setBorderLeft(BorderStyle.MEDIUM);
+						builder.setBorderLeft(BorderStyle.MEDIUM);
 					}
 					else if (i == lastCellNum - 1) {
-						borderStyle.setBorderRight(BorderStyle.MEDIUM);
+						builder.setBorderRight(BorderStyle.MEDIUM);
 					}
-					rowCell.setCellStyle(borderStyle);
+					rowCell.setCellStyle(styles.getStyle(builder.build()));
 				}
 			}
 		}
@@ -156,20 +170,7 @@ public class DefaultState implements State {
 		Map<String, Collection<Cell>> statusMap = statii.asMap();
 		for (Map.Entry<String, Collection<Cell>> mapEntry : statusMap.entrySet()) {
 			String status = mapEntry.getKey();
-
-			Short color = null;
-			switch (status) {
-				case "SKIPPED":
-					color = IndexedColors.TAN.getIndex();
-					break;
-				case "PASSED":
-					color = IndexedColors.LIME.getIndex();
-					break;
-				case "FAILED":
-					color = IndexedColors.ROSE.getIndex();
-					break;
-			}
-
+			Short color = getColor(status);
 			if (null != color) {
 				Collection<Cell> statusCells = mapEntry.getValue();
 				colorRows(color, statusCells);
@@ -177,6 +178,22 @@ public class DefaultState implements State {
 		}
 	}
 
+	protected Short getColor(String status) {
+		Short color = null;
+		switch (null == status ? "" : status) {
+			case "SKIPPED":
+				color = IndexedColors.TAN.getIndex();
+				break;
+			case "PASSED":
+				color = IndexedColors.LIME.getIndex();
+				break;
+			case "FAILED":
+				color = IndexedColors.ROSE.getIndex();
+				break;
+		}
+		return color;
+	}
+
 	protected void colorRows(short color, Iterable<Cell> cells) {
 		for (Cell cell : cells) {
 			Row row = cell.getRow();
@@ -192,37 +209,41 @@ public class DefaultState implements State {
 			Cell cell = row.getCell(i);
 			if (null != cell) {
 				CellStyle cellStyle = cell.getCellStyle();
-				Workbook workbook = cell.getSheet().getWorkbook();
-				CellStyle clone = workbook.createCellStyle();
-
-				clone.cloneStyleFrom(cellStyle);
-				clone.setFillForegroundColor(color);
-				clone.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-				BorderStyle borderStyle = cellStyle.getBorderLeftEnum();
-				clone.setBorderLeft(BorderStyle.NONE == borderStyle ? BorderStyle.THIN : borderStyle);
-				short borderColor = cellStyle.getLeftBorderColor();
-				clone.setLeftBorderColor(0 == borderColor ? IndexedColors.BLACK.getIndex() : borderColor);
-
-				borderStyle = cellStyle.getBorderRightEnum();
-				clone.setBorderRight(BorderStyle.NONE == borderStyle ? BorderStyle.THIN : borderStyle);
-				borderColor = cellStyle.getRightBorderColor();
-				clone.setRightBorderColor(0 == borderColor ? IndexedColors.BLACK.getIndex() : borderColor);
-
-				borderStyle = cellStyle.getBorderTopEnum();
-				clone.setBorderTop(BorderStyle.NONE == borderStyle ? BorderStyle.THIN : borderStyle);
-				borderColor = cellStyle.getTopBorderColor();
-				clone.setTopBorderColor(0 == borderColor ? IndexedColors.BLACK.getIndex() : borderColor);
-
-				borderStyle = cellStyle.getBorderBottomEnum();
-				clone.setBorderBottom(BorderStyle.NONE == borderStyle ? BorderStyle.THIN : borderStyle);
-				borderColor = cellStyle.getBottomBorderColor();
-				clone.setBottomBorderColor(borderColor);
-				cell.setCellStyle(clone);
+				CellStyle colored = getColoredStyle(cellStyle, color);
+				cell.setCellStyle(colored);
 			}
 		}
 	}
 
+	protected CellStyle getColoredStyle(CellStyle cellStyle, short color) {
+		StyleKey original = styles.getKey(cellStyle);
+		StyleKey.Builder builder = original.toBuilder()
+			.setFillForegroundColor(color)
+			.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+		BorderStyle borderStyle = original.getBorderLeft();
+		builder.setBorderLeft(BorderStyle.NONE == borderStyle ? BorderStyle.THIN : borderStyle);
+		short borderColor = original.getLeftBorderColor();
+		builder.setLeftBorderColor(0 == borderColor ? IndexedColors.BLACK.getIndex() : borderColor);
+
+		borderStyle = original.getBorderRight();
+		builder.setBorderRight(BorderStyle.NONE == borderStyle ? BorderStyle.THIN : borderStyle);
+		borderColor = original.getRightBorderColor();
+		builder.setRightBorderColor(0 == borderColor ? IndexedColors.BLACK.getIndex() : borderColor);
+
+		borderStyle = original.getBorderTop();
+		builder.setBorderTop(BorderStyle.NONE == borderStyle ? BorderStyle.THIN : borderStyle);
+		borderColor = original.getTopBorderColor();
+		builder.setTopBorderColor(0 == borderColor ? IndexedColors.BLACK.getIndex() : borderColor);
+
+		borderStyle = original.getBorderBottom();
+		builder.setBorderBottom(BorderStyle.NONE == borderStyle ? BorderStyle.THIN : borderStyle);
+		builder.setBottomBorderColor(original.getBottomBorderColor());
+
+		StyleKey key = builder.build();
+		return styles.getStyle(key);
+	}
+
 	protected void colorCompromisedThemes() {
 		Collection<Cell> failed = statii.get("FAILED");
 
@@ -263,72 +284,39 @@ public class DefaultState implements State {
 			for (String theme : compromisedThemes) {
 				Collection<Cell> cells = themes.get(theme);
 				for (Cell cell : cells) {
-					CellStyle cellStyle = cell.getCellStyle();
-					Sheet sheet = cell.getSheet();
-					Workbook workbook = sheet.getWorkbook();
-
-					int originalFontIndex = cellStyle.getFontIndexAsInt();
-					Font originalFont = workbook.getFontAt(originalFontIndex);
-
-					CellStyle clone = workbook.createCellStyle();
-					clone.cloneStyleFrom(cellStyle);
-
-					Font font = workbook.findFont(
-						true,
-						IndexedColors.DARK_RED.getIndex(),
-						originalFont.getFontHeight(),
-						originalFont.getFontName(),
-						originalFont.getItalic(),
-						originalFont.getStrikeout(),
-						originalFont.getTypeOffset(),
-						originalFont.getUnderline());
-
-					if (null == font) {
-						font = workbook.createFont();
-						font.setBold(true);
-						font.setColor(IndexedColors.DARK_RED.getIndex());
-						font.setFontHeight(originalFont.getFontHeight());
-						font.setFontName(originalFont.getFontName());
-						font.setItalic(originalFont.getItalic());
-						font.setStrikeout(originalFont.getStrikeout());
-						font.setTypeOffset(originalFont.getTypeOffset());
-						font.setUnderline(originalFont.getUnderline());
-					}
-					clone.setFont(font);
-					cell.setCellStyle(clone);
+					StyleKey original = styles.getKey(cell.getCellStyle());
+					FontKey font = original.getFont().toBuilder()
+						.setBold(true)
+						.setColor(IndexedColors.DARK_RED.getIndex())
+						.build();
+					StyleKey key = original.toBuilder().setFont(font).build();
+					cell.setCellStyle(styles.getStyle(key));
 				}
 			}
 		}
 	}
 
 	@Override
-	public void addSuite(JsonObject suite) {
-		checkNotNull(suite, "null JsonObject");
-		String id = getId(suite);
+	public void addSuite(SuiteRecord suite) {
+		checkNotNull(suite, "null SuiteRecord");
+		String id = suite.getId();
 		suites.put(id, suite);
 	}
 
-	protected String getId(JsonObject object) {
-		JsonPrimitive primitive = object.getAsJsonPrimitive("id");
-		return primitive.getAsString();
-	}
-
 	@Override
-	public void addFeature(JsonObject feature) {
-		checkNotNull(feature, "null JsonObject");
-		String id = getId(feature);
+	public void addFeature(FeatureRecord feature) {
+		checkNotNull(feature, "null FeatureRecord");
+		String id = feature.getId();
 		features.put(id, feature);
 	}
 
 	@Override
-	public JsonObject getFeature(JsonObject result) {
-		checkNotNull(result, "null JsonObject");
-		JsonElement element = result.get(KEY_FEATURE);
-		String featureId = element.getAsString();
-		return features.get(featureId);
+	public FeatureRecord getFeature(ResultRecord result) {
+		checkNotNull(result, "null ResultRecord");
+		String featureId = result.getFeature();
+		return null == featureId ? null : features.get(featureId);
 	}
 
-
 	@Override
 	public void updateSuites(Sheet sheet) {
 		int lastRowNum = sheet.getLastRowNum();
@@ -342,77 +330,73 @@ public class DefaultState implements State {
 		row.createCell(6, CellType.STRING).setCellValue("Profiles");
 		row.createCell(7, CellType.STRING).setCellValue("Environment Variables");
 
-		for (Map.Entry<String, JsonObject> mapEntry : suites.entrySet()) {
+		ColumnWidths widths = new ColumnWidths();
+		for (Cell headerCell : row) {
+			widths.update(headerCell, headerCell.getStringCellValue());
+		}
+
+		StyleKey dateKey = styles.getDefaultKey().toBuilder()
+			.setDataFormat(styles.getDataFormat(DATE_FORMAT))
+			.setVerticalAlignment(VerticalAlignment.TOP)
+			.build();
+		CellStyle dateStyle = styles.getStyle(dateKey);
+
+		for (Map.Entry<String, SuiteRecord> mapEntry : suites.entrySet()) {
 			row = sheet.createRow(sheet.getLastRowNum() + 1);
 
 			String id = mapEntry.getKey();
-			row.createCell(0, CellType.STRING).setCellValue(id);
+			Cell cell = row.createCell(0, CellType.STRING);
+			cell.setCellValue(id);
+			widths.update(cell, id);
 
-			JsonObject suite = mapEntry.getValue();
-			JsonPrimitive primitive = suite.getAsJsonPrimitive("startTimestamp");
-			Long timestamp = null == primitive ? null : primitive.getAsLong();
+			SuiteRecord suite = mapEntry.getValue();
+			Long timestamp = suite.getStartTimestamp();
 
-			Cell cell = row.createCell(1);
+			cell = row.createCell(1);
 			if (null != timestamp) {
-				Workbook workbook = sheet.getWorkbook();
-				CellStyle cellStyle = workbook.createCellStyle();
-				CreationHelper creationHelper = workbook.getCreationHelper();
-				cellStyle.setDataFormat(creationHelper.createDataFormat().getFormat("m/d/yy h:mm"));
-				cellStyle.setVerticalAlignment(VerticalAlignment.TOP);
 				cell.setCellValue(new Date(timestamp));
-				cell.setCellStyle(cellStyle);
+				cell.setCellStyle(dateStyle);
+				widths.update(cell.getColumnIndex(), DATE_WIDTH);
 			}
 
 			cell = row.createCell(2);
-			primitive = suite.getAsJsonPrimitive("name");
-			cell.setCellValue(null == primitive ? "" : primitive.getAsString());
+			String name = suite.getName();
+			setSuiteValue(widths, cell, null == name ? "" : name);
 
+			HostRecord host = suite.getHost();
 			cell = row.createCell(3);
-			JsonObject host = suite.getAsJsonObject("host");
-			primitive = null == host ? null : host.getAsJsonPrimitive("name");
-			cell.setCellValue(null == primitive ? "" : primitive.getAsString());
+			String hostname = null == host ? null : host.getName();
+			setSuiteValue(widths, cell, null == hostname ? "" : hostname);
 
 			cell = row.createCell(4);
-			primitive = null == host ? null : host.getAsJsonPrimitive("ip");
-			cell.setCellValue(null == primitive ? "" : primitive.getAsString());
+			String ip = null == host ? null : host.getIp();
+			setSuiteValue(widths, cell, null == ip ? "" : ip);
 
 			cell = row.createCell(5);
-			primitive = null == host ? null : host.getAsJsonPrimitive("username");
-			cell.setCellValue(null == primitive ? "" : primitive.getAsString());
+			String username = null == host ? null : host.getUsername();
+			setSuiteValue(widths, cell, null == username ? "" : username);
 
 			cell = row.createCell(6);
-			JsonArray array = suite.getAsJsonArray("profiles");
-			List<String> profiles = Lists.newArrayList();
-			if (null != array) {
-				int size = array.size();
-				for (int i = 0; i < size; i++) {
-					JsonElement element = array.get(i);
-					String profile = null == element ? null : element.getAsString();
-					profiles.add(profile);
-				}
+			List<String> profiles = suite.getProfiles();
+			if (null != profiles) {
 				String profilesValue = Joiner.on('\n').skipNulls().join(profiles);
-				cell.setCellValue(profilesValue);
+				setSuiteValue(widths, cell, profilesValue);
 			}
 
 			cell = row.createCell(7);
-			JsonObject environmentVariables = suite.getAsJsonObject("environment");
-			Map<String, String> index = new TreeMap<>();
-			if (null != environmentVariables) {
-				Set<Map.Entry<String, JsonElement>> entries = environmentVariables.entrySet();
-				for (Map.Entry<String, JsonElement> environmentEntry : entries) {
-					String key = environmentEntry.getKey();
-					JsonElement element = environmentEntry.getValue();
-					String value = null == element ? "" : element.getAsString();
-					index.put(key, value);
-				}
-
+			Map<String, String> environment = suite.getEnvironment();
+			if (null != environment) {
+				Map<String, String> index = new TreeMap<>(environment);
 				String variablesValue = Joiner.on('\n').withKeyValueSeparator('=').useForNull("").join(index);
-				cell.setCellValue(variablesValue);
+				setSuiteValue(widths, cell, variablesValue);
 			}
 		}
 
-		for (int i = 0; i < 8; i++) {
-			sheet.autoSizeColumn(i, false);
-		}
+		widths.apply(sheet);
+	}
+
+	protected void setSuiteValue(ColumnWidths widths, Cell cell, String value) {
+		cell.setCellValue(value);
+		widths.update(cell, value, MAXIMUM_SUITE_WIDTH);
 	}
 }
@@ -18,7 +18,11 @@ package guru.qas.martini.report;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
 
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
@@ -34,18 +38,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Configurable;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonToken;
 
 import guru.qas.martini.report.column.TraceabilityColumn;
-
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.SuiteRecord;
+import guru.qas.martini.report.style.ColumnWidths;
+import guru.qas.martini.report.style.FontKey;
+import guru.qas.martini.report.style.StyleKey;
+import guru.qas.martini.report.style.StyleRegistry;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static guru.qas.martini.report.JsonObjectType.*;
 
 @SuppressWarnings("WeakerAccess")
 @Configurable
@@ -55,82 +67,153 @@ public class DefaultTraceabilityMatrix implements TraceabilityMatrix {
 
 	private static final String ARIAL = "Arial";
 
+	protected static final String RESULTS = "Results";
+	protected static final int MAXIMUM_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+
 	protected final Gson gson;
 	protected final ImmutableList<TraceabilityColumn> columns;
+	protected final ResultFormatting formatting;
+	protected final boolean highlightLongest;
+	protected final int deferredLimit;
+	protected final int sheetRows;
 
 	@Autowired
-	protected DefaultTraceabilityMatrix(Gson gson, Iterable<TraceabilityColumn> columns) {
+	protected DefaultTraceabilityMatrix(
+		Gson gson,
+		Iterable<TraceabilityColumn> columns,
+		@Value("${traceability.matrix.formatting:CELL}") ResultFormatting formatting,
+		@Value("${traceability.matrix.highlight.longest:true}") boolean highlightLongest,
+		@Value("${traceability.matrix.deferred.limit:10000}") int deferredLimit,
+		@Value("${traceability.matrix.sheet.rows:1048575}") int sheetRows
+	) {
+		checkArgument(deferredLimit > 0, "deferred limit must be greater than zero, found %s", deferredLimit);
+		checkArgument(sheetRows > 0 && sheetRows <= MAXIMUM_SHEET_ROWS,
+			"sheet rows must be between 1 and %s, found %s", MAXIMUM_SHEET_ROWS, sheetRows);
 		this.gson = gson;
 		this.columns = ImmutableList.copyOf(columns);
+		this.formatting = checkNotNull(formatting, "null ResultFormatting");
+		this.highlightLongest = highlightLongest;
+		this.deferredLimit = deferredLimit;
+		this.sheetRows = sheetRows;
 	}
 
 	@Override
 	public void createReport(JsonReader reader, OutputStream outputStream) throws IOException {
 		checkNotNull(reader, "null JsonReader");
+		Iterator<ReportRecord> records = new RecordIterator(gson, reader);
+		try {
+			createReport(records, outputStream);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public void createReport(Iterator<ReportRecord> records, OutputStream outputStream) throws IOException {
+		checkNotNull(records, "null Iterator");
 		checkNotNull(outputStream, "null OutputStream");
 
-		Workbook workbook = new XSSFWorkbook();
-		Sheet sheet = workbook.createSheet("Results");
-		addHeader(sheet);
-
-		State state = new DefaultState();
-		while (reader.hasNext()) {
-			JsonToken peek = reader.peek();
-
-			JsonObject object;
-			switch (peek) {
-				case BEGIN_ARRAY:
-					reader.beginArray();
-					continue;
-				case BEGIN_OBJECT:
-					object = gson.fromJson(reader, JsonObject.class);
-					break;
-				case END_ARRAY:
-					reader.endArray();
-					continue;
-				case END_DOCUMENT:
-					reader.skipValue();
-					continue;
-				default:
-					JsonElement element = gson.fromJson(reader, JsonElement.class);
-					LOGGER.warn("skipping unhandled element {}", element);
-					continue;
-			}
+		Workbook workbook = createWorkbook();
+		try (DeferredRecordIterator ordered = new DeferredRecordIterator(records, gson, deferredLimit)) {
+			createReport(ordered, workbook);
+			workbook.write(outputStream);
+			outputStream.flush();
+		}
+		finally {
+			close(workbook);
+		}
+	}
+
+	protected Workbook createWorkbook() {
+		return new XSSFWorkbook();
+	}
+
+	protected Sheet createSheet(Workbook workbook, String name) {
+		return workbook.createSheet(name);
+	}
 
-			switch (JsonObjectType.evaluate(object)) {
-				case SUITE:
-					JsonObject suite = SUITE.get(object);
-					state.addSuite(suite);
-					break;
-				case FEATURE:
-					JsonObject feature = FEATURE.get(object);
-					state.addFeature(feature);
-					break;
-				case RESULT:
-					JsonObject result = RESULT.get(object);
-					addResult(state, sheet, result);
-					break;
-				default:
-					LOGGER.warn("skipping unrecognized JsonObject: {}", object);
+	protected State createState(StyleRegistry styles) {
+		return ResultFormatting.CONDITIONAL == formatting ?
+			new ConditionalFormattingState(styles, highlightLongest) :
+			new DefaultState(styles);
+	}
+
+	protected void close(Workbook workbook) throws IOException {
+		workbook.close();
+	}
+
+	protected void createReport(Iterator<ReportRecord> records, Workbook workbook) {
+		CellStyle defaultStyle = workbook.getCellStyleAt(0);
+		defaultStyle.setVerticalAlignment(VerticalAlignment.TOP);
+
+		StyleRegistry styles = new StyleRegistry(workbook);
+		State state = createState(styles);
+		Sheet sheet = createResultSheet(state, workbook, 1);
+		List<Sheet> sheets = Lists.newArrayList();
+		sheets.add(sheet);
+
+		while (records.hasNext()) {
+			ReportRecord record = records.next();
+			if (JsonObjectType.RESULT == record.getType() && sheet.getLastRowNum() >= sheetRows) {
+				sheet = createResultSheet(state, workbook, sheets.size() + 1);
+				sheets.add(sheet);
 			}
+			addRecord(state, sheet, record);
 		}
 
 		state.updateResults();
-		resizeColumns(sheet);
+		for (Sheet resultSheet : sheets) {
+			resizeColumns(state, resultSheet);
+		}
 
-		Sheet suiteSheet = workbook.createSheet("Suites");
+		Sheet suiteSheet = createSheet(workbook, "Suites");
 		state.updateSuites(suiteSheet);
+	}
 
-		workbook.write(outputStream);
-		outputStream.flush();
+	/**
+	 * Results past the row limit of a sheet continue on "Results (2)", "Results (3)" and so on, each with
+	 * its own header and freeze pane.
+	 */
+	protected Sheet createResultSheet(State state, Workbook workbook, int number) {
+		String name = 1 == number ? RESULTS : String.format("%s (%s)", RESULTS, number);
+		if (number > 1) {
+			LOGGER.info("continuing results on sheet {}", name);
+		}
+		Sheet sheet = createResultSheet(workbook, name);
+		addHeader(state, sheet);
+		return sheet;
 	}
 
+	protected Sheet createResultSheet(Workbook workbook, String name) {
+		return createSheet(workbook, name);
+	}
 
-	protected void addHeader(Sheet sheet) {
+	protected void addRecord(State state, Sheet sheet, ReportRecord record) {
+		switch (record.getType()) {
+			case SUITE:
+				state.addSuite(SuiteRecord.class.cast(record));
+				break;
+			case FEATURE:
+				state.addFeature(FeatureRecord.class.cast(record));
+				break;
+			case RESULT:
+				addResult(state, sheet, ResultRecord.class.cast(record));
+				break;
+			default:
+				LOGGER.warn("skipping unrecognized record: {}", record);
+		}
+	}
+
+	protected void addHeader(State state, Sheet sheet) {
 		Row row = sheet.createRow(0);
+		StyleRegistry styles = state.getStyleRegistry();
+		CellStyle style = getHeaderStyle(styles);
 
-		Workbook workbook = sheet.getWorkbook();
-		CellStyle style = getHeaderStyle(workbook);
+		ColumnWidths widths = state.getColumnWidths();
+		FontKey headerFont = styles.getKey(style).getFont();
+		FontKey defaultFont = styles.getDefaultKey().getFont();
+		double scale = (double) headerFont.getHeight() / defaultFont.getHeight();
 
 		for (int i = 0; i < columns.size(); i++) {
 			TraceabilityColumn column = columns.get(i);
@@ -138,59 +221,47 @@ public class DefaultTraceabilityMatrix implements TraceabilityMatrix {
 			String label = column.getLabel();
 			cell.setCellValue(label);
 			cell.setCellStyle(style);
+			widths.update(i, (int) Math.ceil(label.length() * scale));
 		}
 		sheet.createFreezePane(0, 1);
 	}
 
-	protected CellStyle getHeaderStyle(Workbook workbook) {
-		CellStyle style = workbook.createCellStyle();
-		style.setBorderBottom(BorderStyle.MEDIUM);
-		Font headerFont = getHeaderFont(workbook);
-		style.setFont(headerFont);
-		return style;
-	}
-
-	protected Font getHeaderFont(Workbook workbook) {
-		Font font = workbook.findFont(
-			true, // bold
-			IndexedColors.BLACK.getIndex(),
-			(short) 300,
-				ARIAL,
-			false, // italic
-			false, // strikeout
-			Font.SS_NONE,
-			Font.U_NONE);
-
-		if (null == font) {
-			font = workbook.createFont();
-			font.setBold(true);
-			font.setColor(IndexedColors.BLACK.getIndex());
-			font.setFontHeight((short) 300);
-			font.setFontName(ARIAL);
-			font.setItalic(false);
-			font.setStrikeout(false);
-			font.setTypeOffset(Font.SS_NONE);
-			font.setUnderline(Font.U_NONE);
-		}
-		return font;
+	protected CellStyle getHeaderStyle(StyleRegistry styles) {
+		StyleKey key = styles.getDefaultKey().toBuilder()
+			.setFont(getHeaderFont())
+			.setBorderBottom(BorderStyle.MEDIUM)
+			.setVerticalAlignment(VerticalAlignment.BOTTOM)
+			.build();
+		return styles.getStyle(key);
 	}
 
-	protected void addResult(State state, Sheet sheet, JsonObject object) {
+	protected FontKey getHeaderFont() {
+		return FontKey.builder()
+			.setBold(true)
+			.setColor(IndexedColors.BLACK.getIndex())
+			.setHeight((short) 300)
+			.setName(ARIAL)
+			.setItalic(false)
+			.setStrikeout(false)
+			.setTypeOffset(Font.SS_NONE)
+			.setUnderline(Font.U_NONE)
+			.build();
+	}
+
+	protected void addResult(State state, Sheet sheet, ResultRecord result) {
 		int index = sheet.getLastRowNum();
 		Row row = sheet.createRow(index + 1);
 
 		for (int i = 0; i < columns.size(); i++) {
 			Cell cell = row.createCell(i);
-			CellStyle cellStyle = cell.getCellStyle();
-			cellStyle.setVerticalAlignment(VerticalAlignment.TOP);
 			TraceabilityColumn column = columns.get(i);
-			column.addResult(state, cell, object);
+			column.addResult(state, cell, result);
 		}
+		state.updateResult(row);
 	}
 
-	protected void resizeColumns(Sheet sheet) {
-		for (int i = 0; i < columns.size(); i++) {
-			sheet.autoSizeColumn(i, false);
-		}
+	protected void resizeColumns(State state, Sheet sheet) {
+		ColumnWidths widths = state.getColumnWidths();
+		widths.apply(sheet);
 	}
 }
@@ -0,0 +1,278 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.SuiteRecord;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Reorders records so that each result follows the suite and feature it references. Results arriving ahead of
+ * their suite or feature are parked until it is seen; once more than limit results are parked, the largest
+ * group is appended to a temporary file and read back when released. Results whose references never arrive
+ * are emitted unresolved at the end of input.
+ */
+@SuppressWarnings("WeakerAccess")
+public class DeferredRecordIterator extends AbstractIterator<ReportRecord> implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DeferredRecordIterator.class);
+
+	protected static final String SUITE_KEY = "suite:";
+	protected static final String FEATURE_KEY = "feature:";
+
+	protected final Iterator<ReportRecord> records;
+	protected final TypeAdapter<ResultRecord> adapter;
+	protected final int limit;
+	protected final Set<String> suites;
+	protected final Set<String> features;
+	protected final Map<String, List<ResultRecord>> parked;
+	protected final Map<String, Path> spilled;
+	protected final Deque<ReportRecord> ready;
+	protected final Deque<Iterator<ResultRecord>> released;
+	protected final List<Closeable> readers;
+
+	private Path directory;
+	private int parkedCount;
+	private boolean exhausted;
+
+	public DeferredRecordIterator(Iterator<ReportRecord> records, Gson gson, int limit) {
+		this.records = checkNotNull(records, "null Iterator");
+		this.adapter = checkNotNull(gson, "null Gson").getAdapter(ResultRecord.class);
+		checkArgument(limit > 0, "limit must be greater than zero, found %s", limit);
+		this.limit = limit;
+		suites = Sets.newHashSet();
+		features = Sets.newHashSet();
+		parked = Maps.newLinkedHashMap();
+		spilled = Maps.newLinkedHashMap();
+		ready = new ArrayDeque<>();
+		released = new ArrayDeque<>();
+		readers = Lists.newArrayList();
+	}
+
+	@Override
+	protected ReportRecord computeNext() {
+		try {
+			return getNext();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	protected ReportRecord getNext() throws IOException {
+		while (ready.isEmpty()) {
+			Iterator<ResultRecord> batch = released.peek();
+			if (null != batch) {
+				if (batch.hasNext()) {
+					accept(batch.next());
+				}
+				else {
+					released.poll();
+				}
+			}
+			else if (records.hasNext()) {
+				accept(records.next());
+			}
+			else if (!exhausted) {
+				exhausted = true;
+				releaseUnresolved();
+			}
+			else {
+				return endOfData();
+			}
+		}
+		return ready.poll();
+	}
+
+	protected void accept(ReportRecord record) throws IOException {
+		ready.add(record);
+		switch (record.getType()) {
+			case SUITE:
+				String suite = SuiteRecord.class.cast(record).getId();
+				if (null != suite && suites.add(suite)) {
+					release(SUITE_KEY + suite);
+				}
+				break;
+			case FEATURE:
+				String feature = FeatureRecord.class.cast(record).getId();
+				if (null != feature && features.add(feature)) {
+					release(FEATURE_KEY + feature);
+				}
+				break;
+			case RESULT:
+				ResultRecord result = ResultRecord.class.cast(record);
+				String key = exhausted ? null : getMissing(result);
+				if (null != key) {
+					ready.removeLast();
+					park(key, result);
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	protected String getMissing(ResultRecord result) {
+		String feature = result.getFeature();
+		String suite = result.getSuite();
+		return null != feature && !features.contains(feature) ? FEATURE_KEY + feature :
+			null != suite && !suites.contains(suite) ? SUITE_KEY + suite : null;
+	}
+
+	protected void park(String key, ResultRecord result) throws IOException {
+		parked.computeIfAbsent(key, k -> Lists.newArrayList()).add(result);
+		parkedCount++;
+		if (parkedCount > limit) {
+			spillLargest();
+		}
+	}
+
+	/**
+	 * Queues the results waiting on key in the order they were read: those spilled to disk were parked
+	 * before those still held in memory.
+	 */
+	protected void release(String key) throws IOException {
+		Path file = spilled.remove(key);
+		if (null != file) {
+			released.add(read(file));
+		}
+		List<ResultRecord> group = parked.remove(key);
+		if (null != group) {
+			parkedCount -= group.size();
+			released.add(group.iterator());
+		}
+	}
+
+	protected void releaseUnresolved() throws IOException {
+		Set<String> keys = Sets.newLinkedHashSet(parked.keySet());
+		keys.addAll(spilled.keySet());
+		if (!keys.isEmpty()) {
+			LOGGER.warn("{} suite or feature records referenced by results were never found: {}", keys.size(), keys);
+		}
+		for (String key : keys) {
+			release(key);
+		}
+	}
+
+	protected void spillLargest() throws IOException {
+		String key = parked.entrySet().stream()
+			.max(Comparator.comparingInt(entry -> entry.getValue().size()))
+			.map(Map.Entry::getKey)
+			.orElseThrow(IllegalStateException::new);
+		List<ResultRecord> group = parked.remove(key);
+		parkedCount -= group.size();
+
+		Path file = spilled.get(key);
+		if (null == file) {
+			file = Files.createTempFile(getDirectory(), "deferred", ".json");
+			spilled.put(key, file);
+		}
+		LOGGER.debug("spilling {} results waiting on {} to {}", group.size(), key, file);
+		try (Writer writer = Files.newBufferedWriter(file, UTF_8, WRITE, APPEND);
+			 JsonWriter jsonWriter = new JsonWriter(writer)) {
+			jsonWriter.setLenient(true);
+			jsonWriter.setSerializeNulls(false);
+			for (ResultRecord result : group) {
+				adapter.write(jsonWriter, result);
+			}
+		}
+	}
+
+	protected Path getDirectory() throws IOException {
+		if (null == directory) {
+			directory = Files.createTempDirectory("martini-deferred");
+		}
+		return directory;
+	}
+
+	protected Iterator<ResultRecord> read(Path file) throws IOException {
+		JsonReader reader = new JsonReader(Files.newBufferedReader(file, UTF_8));
+		reader.setLenient(true);
+		readers.add(reader);
+		return new AbstractIterator<ResultRecord>() {
+			@Override
+			protected ResultRecord computeNext() {
+				try {
+					ResultRecord result = null;
+					while (null == result && JsonToken.END_DOCUMENT != reader.peek()) {
+						result = adapter.read(reader);
+					}
+					if (null == result) {
+						readers.remove(reader);
+						reader.close();
+						Files.deleteIfExists(file);
+						result = endOfData();
+					}
+					return result;
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		};
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Closeable reader : readers) {
+			reader.close();
+		}
+		readers.clear();
+		if (null != directory) {
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : (Iterable<Path>) files::iterator) {
+					Files.deleteIfExists(file);
+				}
+			}
+			Files.deleteIfExists(directory);
+			directory = null;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Configurable;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.google.gson.Gson;
+
+import guru.qas.martini.report.column.TraceabilityColumn;
+import guru.qas.martini.report.writer.DelimitedReportWriter;
+import guru.qas.martini.report.writer.Delimiter;
+import guru.qas.martini.report.writer.ReportWriter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streams results as UTF-8 comma or tab separated values, one line per result.
+ */
+@SuppressWarnings("WeakerAccess")
+@Configurable
+public class DelimitedTraceabilityMatrix extends WriterTraceabilityMatrix {
+
+	protected static final int BUFFER_SIZE = 64 * 1024;
+
+	protected final Delimiter delimiter;
+
+	@Autowired
+	protected DelimitedTraceabilityMatrix(
+		Gson gson,
+		Iterable<TraceabilityColumn> columns,
+		@Value("${traceability.matrix.deferred.limit:10000}") int deferredLimit,
+		@Value("${traceability.matrix.delimiter:COMMA}") Delimiter delimiter
+	) {
+		super(gson, columns, deferredLimit);
+		this.delimiter = checkNotNull(delimiter, "null Delimiter");
+	}
+
+	@Override
+	protected ReportWriter createWriter(OutputStream outputStream) throws IOException {
+		OutputStreamWriter writer = new OutputStreamWriter(outputStream, UTF_8);
+		return new DelimitedReportWriter(new BufferedWriter(writer, BUFFER_SIZE), delimiter);
+	}
+}
@@ -0,0 +1,29 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.ResultRecord;
+
+/**
+ * Locates the feature a result belongs to among the features read so far.
+ */
+@FunctionalInterface
+public interface FeatureResolver {
+
+	FeatureRecord getFeature(ResultRecord result);
+}
@@ -0,0 +1,149 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Decodes a UTF-8 file read from its FileChannel in large blocks, avoiding the platform default charset
+ * and the small buffers of an InputStreamReader. Malformed input is replaced rather than failing the report.
+ */
+@SuppressWarnings("WeakerAccess")
+public class FileChannelReader extends Reader {
+
+	public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+	public static final int MINIMUM_BUFFER_SIZE = 8; // room for a complete UTF-8 sequence and a surrogate pair
+	protected static final int CHAR_BUFFER_SIZE = 8 * 1024;
+
+	protected final FileChannel channel;
+	protected final CharsetDecoder decoder;
+	protected final ByteBuffer bytes;
+	protected final CharBuffer chars;
+	protected long remaining;
+	protected boolean underflow = true;
+	protected boolean endOfInput;
+	protected boolean flushed;
+
+	public FileChannelReader(Path path) throws IOException {
+		this(path, DEFAULT_BUFFER_SIZE);
+	}
+
+	public FileChannelReader(Path path, int bufferSize) throws IOException {
+		this(path, 0, Long.MAX_VALUE, bufferSize);
+	}
+
+	/**
+	 * Reads only the bytes in [start, end) of the file.
+	 */
+	public FileChannelReader(Path path, long start, long end, int bufferSize) throws IOException {
+		checkNotNull(path, "null Path");
+		checkArgument(0 <= start && start <= end, "invalid byte range [%s, %s)", start, end);
+		checkArgument(bufferSize >= MINIMUM_BUFFER_SIZE, "buffer size must be at least %s", MINIMUM_BUFFER_SIZE);
+		channel = FileChannel.open(path, READ);
+		channel.position(start);
+		remaining = end - start;
+		decoder = UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		bytes = ByteBuffer.allocate(bufferSize);
+		bytes.flip();
+		chars = CharBuffer.allocate(Math.min(bufferSize, CHAR_BUFFER_SIZE));
+		chars.flip();
+	}
+
+	@Override
+	public int read(char[] buffer, int offset, int length) throws IOException {
+		checkPositionIndexes(offset, offset + length, buffer.length);
+
+		int read;
+		if (0 == length) {
+			read = 0;
+		}
+		else if (chars.hasRemaining() || length < MINIMUM_BUFFER_SIZE) {
+			if (!chars.hasRemaining()) {
+				chars.clear();
+				decode(chars);
+				chars.flip();
+			}
+			read = chars.hasRemaining() ? Math.min(length, chars.remaining()) : -1;
+			if (read > 0) {
+				chars.get(buffer, offset, read);
+			}
+		}
+		else {
+			// Decode straight into the caller's array, sparing a copy.
+			int decoded = decode(CharBuffer.wrap(buffer, offset, length));
+			read = 0 == decoded ? -1 : decoded;
+		}
+		return read;
+	}
+
+	/**
+	 * @return number of characters decoded into target, zero only once input is exhausted
+	 */
+	protected int decode(CharBuffer target) throws IOException {
+		int start = target.position();
+		while (target.position() == start && !flushed) {
+			if (underflow && !endOfInput) {
+				bytes.compact();
+				if (remaining < bytes.remaining()) {
+					bytes.limit(bytes.position() + (int) remaining);
+				}
+				int read = 0 == remaining ? -1 : channel.read(bytes);
+				endOfInput = -1 == read;
+				remaining -= Math.max(0, read);
+				bytes.flip();
+			}
+			CoderResult result = decoder.decode(bytes, target, endOfInput);
+			check(result);
+			underflow = result.isUnderflow();
+			if (endOfInput && underflow) {
+				flushed = decoder.flush(target).isUnderflow();
+			}
+		}
+		return target.position() - start;
+	}
+
+	private static void check(CoderResult result) throws CharacterCodingException {
+		if (result.isError()) {
+			result.throwException();
+		}
+	}
+
+	@Override
+	public boolean ready() throws IOException {
+		return chars.hasRemaining();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
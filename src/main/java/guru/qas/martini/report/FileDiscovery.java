@@ -0,0 +1,239 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * Walks a directory tree on a pool of workers, streaming files that match an Ant-style pattern and pass a
+ * filter. Directories that cannot lead to a match are not descended into. Files are returned in path order,
+ * each directory's entries sorted by name as Spring's resolver sorts them, while the directories ahead of
+ * them are still being listed. Each directory is walked once however many symbolic links lead to it.
+ */
+@SuppressWarnings("WeakerAccess")
+public class FileDiscovery extends AbstractIterator<Resource> implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileDiscovery.class);
+
+	protected final Path root;
+	protected final String pattern;
+	protected final ResourceFilter filter;
+	protected final PathMatcher matcher;
+	protected final ForkJoinPool pool;
+	protected final AtomicInteger directories;
+	protected final Set<Object> visited;
+
+	private final Deque<Iterator<Object>> pending;
+
+	/**
+	 * @param root    directory to walk
+	 * @param pattern Ant-style pattern relative to root, e.g. **&#47;*.json
+	 * @param filter  modification time and size window
+	 * @param threads number of directories listed concurrently
+	 */
+	public FileDiscovery(Path root, String pattern, ResourceFilter filter, int threads) {
+		this.root = checkNotNull(root, "null Path");
+		this.pattern = checkNotNull(pattern, "null String");
+		this.filter = checkNotNull(filter, "null ResourceFilter");
+		checkArgument(threads > 0, "thread count must be greater than zero, found %s", threads);
+		matcher = new AntPathMatcher();
+		directories = new AtomicInteger();
+		visited = ConcurrentHashMap.newKeySet();
+
+		ForkJoinPool.ForkJoinWorkerThreadFactory factory = forkJoinPool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setName("martini-discovery-" + thread.getPoolIndex());
+			thread.setDaemon(true);
+			return thread;
+		};
+		pool = new ForkJoinPool(threads, factory, null, false);
+		try {
+			Object key = Files.readAttributes(root, BasicFileAttributes.class).fileKey();
+			if (null != key) {
+				visited.add(key);
+			}
+		}
+		catch (IOException e) {
+			LOGGER.warn("unable to read attributes of {}", root, e);
+		}
+		pending = new ArrayDeque<>();
+		pending.push(ImmutableList.<Object>of(pool.submit(new DirectoryTask(root))).iterator());
+	}
+
+	/**
+	 * Returns the next file of the directory being read, descending into subdirectories in place once
+	 * their workers have listed them.
+	 */
+	@Override
+	protected Resource computeNext() {
+		Resource next = null;
+		while (null == next && !pending.isEmpty()) {
+			Iterator<Object> entries = pending.peek();
+			if (!entries.hasNext()) {
+				pending.pop();
+			}
+			else {
+				Object entry = entries.next();
+				if (Path.class.isInstance(entry)) {
+					next = new FileSystemResource(Path.class.cast(entry));
+				}
+				else {
+					pending.push(getEntries(DirectoryTask.class.cast(entry)).iterator());
+				}
+			}
+		}
+
+		if (null == next) {
+			LOGGER.debug("searched {} directories under {}", directories.get(), root);
+		}
+		return null == next ? endOfData() : next;
+	}
+
+	protected List<Object> getEntries(ForkJoinTask<List<Object>> task) {
+		try {
+			return task.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedIOException(new InterruptedIOException("interrupted while discovering files"));
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("unable to discover files under " + root, e.getCause());
+		}
+	}
+
+	protected String getRelative(Path path) {
+		StringBuilder builder = new StringBuilder();
+		for (Path name : root.relativize(path)) {
+			builder.append(0 == builder.length() ? "" : "/").append(name);
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Lists a directory, returning its matching files and forked tasks for its subdirectories in name order.
+	 */
+	protected class DirectoryTask extends RecursiveTask<List<Object>> {
+
+		private static final long serialVersionUID = 1L;
+
+		protected final Path directory;
+
+		protected DirectoryTask(Path directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		protected List<Object> compute() {
+			directories.incrementAndGet();
+			List<Path> children = Lists.newArrayList();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+				stream.forEach(children::add);
+			}
+			catch (IOException e) {
+				LOGGER.warn("unable to search {}", directory, e);
+			}
+			children.sort(Comparator.comparing(child -> child.getFileName().toString()));
+
+			List<Object> entries = Lists.newArrayList();
+			for (Path child : children) {
+				Object entry = visit(child);
+				if (DirectoryTask.class.isInstance(entry)) {
+					DirectoryTask.class.cast(entry).fork();
+				}
+				if (null != entry) {
+					entries.add(entry);
+				}
+			}
+			return entries;
+		}
+
+		/**
+		 * @return the entry if it is a matching file, a task searching it if it is a directory not yet visited
+		 * that may hold matches, otherwise null
+		 */
+		protected Object visit(Path entry) {
+			Object visit = null;
+			try {
+				BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+				String relative = getRelative(entry);
+				if (attributes.isDirectory()) {
+					boolean candidate = matcher.matchStart(pattern, relative + '/');
+					visit = candidate && isFirstVisit(entry, attributes) ? new DirectoryTask(entry) : null;
+				}
+				else if (attributes.isRegularFile() && matcher.match(pattern, relative) && filter.test(attributes)) {
+					visit = entry;
+				}
+			}
+			catch (IOException e) {
+				LOGGER.warn("unable to read attributes of {}", entry, e);
+			}
+			return visit;
+		}
+
+		/**
+		 * Symbolic links may lead back to a directory already searched; where the file system provides no
+		 * file key to recognize it by, linked directories are not followed.
+		 */
+		protected boolean isFirstVisit(Path entry, BasicFileAttributes attributes) {
+			Object key = attributes.fileKey();
+			boolean first = null == key ? !Files.isSymbolicLink(entry) : visited.add(key);
+			if (!first) {
+				LOGGER.debug("skipping {}, already searched", entry);
+			}
+			return first;
+		}
+	}
+}
@@ -16,17 +16,59 @@ limitations under the License.
 
 package guru.qas.martini.report;
 
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import guru.qas.martini.report.column.TraceabilityColumn;
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.FeatureRecordAdapter;
+import guru.qas.martini.report.record.Projection;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.ResultRecordAdapter;
+import guru.qas.martini.report.record.SuiteRecord;
+import guru.qas.martini.report.record.SuiteRecordAdapter;
+
 @Configuration
 public class GsonConfiguration {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(GsonConfiguration.class);
+
+	@Bean
+	Gson getGson(Projection projection, Interner<String> interner) {
+		return new GsonBuilder()
+			.setLenient()
+			.serializeNulls()
+			.registerTypeAdapter(SuiteRecord.class, new SuiteRecordAdapter(interner))
+			.registerTypeAdapter(FeatureRecord.class, new FeatureRecordAdapter(interner))
+			.registerTypeAdapter(ResultRecord.class, new ResultRecordAdapter(projection, interner))
+			.create();
+	}
+
+	/**
+	 * Canonicalizes repeated values while decoding; values are released once no record holds them, so
+	 * long-running watch, follow and listen modes don't accumulate them across rebuilds.
+	 */
+	@Bean
+	Interner<String> getInterner() {
+		return Interners.newWeakInterner();
+	}
+
 	@Bean
-	Gson getGson() {
-		return new GsonBuilder().setLenient().serializeNulls().create();
+	Projection getProjection(Iterable<TraceabilityColumn> columns) {
+		List<String> paths = Lists.newArrayList();
+		columns.forEach(column -> paths.addAll(column.getPaths()));
+		Projection projection = Projection.of(paths);
+		LOGGER.debug("decoding result fields {}", projection);
+		return projection;
 	}
 }
@@ -0,0 +1,250 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Scans a JSON file, read in large blocks, for the boundaries between the elements of its top-level array,
+ * honoring strings and escapes, and returns byte ranges of roughly the requested size. Each range holds
+ * whole elements and can be parsed independently once wrapped in brackets. Should the file continue
+ * with anything other than another array, the remainder is returned as a single unwrapped range.
+ */
+@SuppressWarnings("WeakerAccess")
+public class JsonArraySplitter implements Iterator<JsonArraySplitter.Chunk>, Closeable {
+
+	protected static final int BLOCK_SIZE = 1024 * 1024;
+
+	protected final FileChannel channel;
+	protected final long size;
+	protected final long chunkSize;
+
+	private final byte[] block;
+	private long blockStart;
+	private int blockLength;
+	private long position;
+	private int depth;
+	private boolean inString;
+	private boolean escaped;
+	private long chunkStart;
+	private Chunk next;
+
+	public JsonArraySplitter(Path path, long chunkSize) throws IOException {
+		checkNotNull(path, "null Path");
+		checkArgument(chunkSize > 0, "chunk size must be greater than zero");
+		this.chunkSize = chunkSize;
+		block = new byte[BLOCK_SIZE];
+		channel = FileChannel.open(path, READ);
+		size = channel.size();
+		chunkStart = -1;
+		skipByteOrderMark();
+	}
+
+	private void skipByteOrderMark() throws IOException {
+		if (size >= 3 && (byte) 0xEF == byteAt(0) && (byte) 0xBB == byteAt(1) && (byte) 0xBF == byteAt(2)) {
+			position = 3;
+		}
+	}
+
+	/**
+	 * @return true if the first value in the file is an array
+	 */
+	public boolean isSplittable() throws IOException {
+		long i = position;
+		while (i < size && isWhitespace(byteAt(i))) {
+			i++;
+		}
+		return i < size && '[' == byteAt(i);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (null == next && position < size) {
+			try {
+				next = advance();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return null != next;
+	}
+
+	@Override
+	public Chunk next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Chunk chunk = next;
+		next = null;
+		return chunk;
+	}
+
+	protected Chunk advance() throws IOException {
+		Chunk chunk = null;
+		while (null == chunk && position < size) {
+			if (position < blockStart || position >= blockStart + blockLength) {
+				fill(position);
+			}
+			int index = (int) (position - blockStart);
+			while (null == chunk && index < blockLength) {
+				byte b = block[index++];
+
+				if (inString) {
+					if (escaped) {
+						escaped = false;
+					}
+					else if ('\\' == b) {
+						escaped = true;
+					}
+					else if ('"' == b) {
+						inString = false;
+					}
+				}
+				else if (0 == depth) {
+					if ('[' == b) {
+						depth = 1;
+						chunkStart = blockStart + index;
+					}
+					else if (!isWhitespace(b)) {
+						chunk = getRemainder(blockStart + index - 1);
+					}
+				}
+				else {
+					long offset = blockStart + index - 1;
+					switch (b) {
+						case '"':
+							inString = true;
+							break;
+						case '{':
+						case '[':
+							depth++;
+							break;
+						case '}':
+						case ']':
+							depth--;
+							if (0 == depth) {
+								chunk = new Chunk(chunkStart, offset, true);
+								chunkStart = -1;
+							}
+							break;
+						case ',':
+							if (1 == depth && offset - chunkStart >= chunkSize) {
+								chunk = new Chunk(chunkStart, offset, true);
+								chunkStart = offset + 1;
+							}
+							break;
+						default:
+							break;
+					}
+				}
+			}
+			position = null == chunk || chunk.isWrapped() ? blockStart + index : size;
+		}
+
+		if (null == chunk && -1 != chunkStart) {
+			// unterminated array; let the parser report whatever is wrong with it
+			chunk = new Chunk(chunkStart, size, true);
+			chunkStart = -1;
+		}
+		return chunk;
+	}
+
+	protected Chunk getRemainder(long offset) {
+		return new Chunk(offset, size, false);
+	}
+
+	protected byte byteAt(long offset) throws IOException {
+		if (offset < blockStart || offset >= blockStart + blockLength) {
+			fill(offset);
+		}
+		return block[(int) (offset - blockStart)];
+	}
+
+	/**
+	 * Reads the block of the file starting at the offset.
+	 */
+	protected void fill(long offset) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(block, 0, (int) Math.min(block.length, size - offset));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new IOException("unexpected end of file at " + (offset + buffer.position()));
+			}
+		}
+		blockStart = offset;
+		blockLength = buffer.position();
+	}
+
+	protected static boolean isWhitespace(byte b) {
+		return ' ' == b || '\n' == b || '\r' == b || '\t' == b;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Byte range [start, end) of a file. Wrapped chunks hold array elements without their enclosing
+	 * brackets.
+	 */
+	public static final class Chunk {
+
+		private final long start;
+		private final long end;
+		private final boolean wrapped;
+
+		protected Chunk(long start, long end, boolean wrapped) {
+			this.start = start;
+			this.end = end;
+			this.wrapped = wrapped;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		public long getEnd() {
+			return end;
+		}
+
+		public boolean isWrapped() {
+			return wrapped;
+		}
+
+		@Override
+		public String toString() {
+			return MoreObjects.toStringHelper(this)
+				.add("start", start)
+				.add("end", end)
+				.add("wrapped", wrapped)
+				.toString();
+		}
+	}
+}
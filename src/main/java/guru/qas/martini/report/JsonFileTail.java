@@ -0,0 +1,192 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Follows a JSON file another process is still appending to. Each poll reads the bytes written since the
+ * previous one and returns the records completed by them, whether the file holds newline-delimited
+ * objects or a single array being filled in. An incomplete trailing record is kept until it is finished.
+ */
+@SuppressWarnings("WeakerAccess")
+public class JsonFileTail {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(JsonFileTail.class);
+
+	protected static final int BUFFER_SIZE = 64 * 1024;
+
+	protected final Gson gson;
+	protected final Path path;
+	protected final ByteBuffer buffer;
+	protected final ByteArrayOutputStream pending;
+
+	private long position;
+	private int depth;
+	private boolean inArray;
+	private int recordDepth;
+	private boolean inRecord;
+	private boolean inString;
+	private boolean escaped;
+	private boolean truncated;
+
+	public JsonFileTail(Gson gson, Path path) {
+		this.gson = checkNotNull(gson, "null Gson");
+		this.path = checkNotNull(path, "null Path");
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		pending = new ByteArrayOutputStream();
+		recordDepth = -1;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return true if the last poll found the file truncated and read it again from the beginning, in which
+	 * case every record returned by earlier polls is stale
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * @return records completed since the previous poll, or since the file was truncated, in file order
+	 */
+	public List<ReportRecord> poll() throws IOException {
+		List<ReportRecord> records = Lists.newArrayList();
+		try (FileChannel channel = FileChannel.open(path, READ)) {
+			long size = channel.size();
+			truncated = size < position;
+			if (truncated) {
+				LOGGER.warn("{} was truncated, reading it again from the beginning", path);
+				reset();
+			}
+
+			channel.position(position);
+			while (position < size) {
+				buffer.clear();
+				int read = channel.read(buffer);
+				if (read < 0) {
+					break;
+				}
+				buffer.flip();
+				scan(records);
+			}
+		}
+		return records;
+	}
+
+	protected void scan(List<ReportRecord> records) {
+		while (buffer.hasRemaining()) {
+			byte b = buffer.get();
+			position++;
+
+			if (inRecord) {
+				pending.write(b);
+			}
+
+			if (inString) {
+				if (escaped) {
+					escaped = false;
+				}
+				else if ('\\' == b) {
+					escaped = true;
+				}
+				else if ('"' == b) {
+					inString = false;
+				}
+				continue;
+			}
+
+			switch (b) {
+				case '"':
+					inString = true;
+					break;
+				case '{':
+					if (!inRecord && (0 == depth || (1 == depth && inArray))) {
+						inRecord = true;
+						recordDepth = depth;
+						pending.write(b);
+					}
+					depth++;
+					break;
+				case '[':
+					inArray |= 0 == depth;
+					depth++;
+					break;
+				case '}':
+				case ']':
+					depth = Math.max(0, depth - 1);
+					inArray &= 0 != depth;
+					if (inRecord && depth == recordDepth) {
+						parse(records);
+					}
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	protected void parse(List<ReportRecord> records) {
+		String json = new String(pending.toByteArray(), UTF_8);
+		pending.reset();
+		inRecord = false;
+		recordDepth = -1;
+
+		try (JsonReader reader = gson.newJsonReader(new StringReader(json))) {
+			reader.setLenient(true);
+			new RecordIterator(gson, reader).forEachRemaining(records::add);
+		}
+		catch (IOException | UncheckedIOException e) {
+			LOGGER.warn("skipping malformed record ending at byte {} of {}", position, path, e);
+		}
+	}
+
+	protected void reset() {
+		position = 0;
+		depth = 0;
+		inArray = false;
+		recordDepth = -1;
+		inRecord = false;
+		inString = false;
+		escaped = false;
+		pending.reset();
+	}
+}
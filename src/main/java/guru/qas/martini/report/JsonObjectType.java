@@ -32,6 +32,10 @@ public enum JsonObjectType {
 		this.key = key;
 	}
 
+	public String getKey() {
+		return key;
+	}
+
 	public boolean is(JsonObject object) {
 		JsonElement element = object.get(key);
 		return null != element && element.isJsonObject();
@@ -56,4 +60,14 @@ public enum JsonObjectType {
 		}
 		return type;
 	}
+
+	public static JsonObjectType forKey(String key) {
+		JsonObjectType type = null;
+		for (JsonObjectType candidate : values()) {
+			if (candidate.key.equals(key)) {
+				type = candidate;
+			}
+		}
+		return type;
+	}
 }
@@ -16,36 +16,93 @@ limitations under the License.
 
 package guru.qas.martini.report;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.PrintStream;
 import java.io.Reader;
-import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.OpenOption;
-import java.util.Arrays;
-import java.util.Enumeration;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.ResourceUtils;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharSource;
+import com.google.common.io.Closer;
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
 
+import guru.qas.martini.report.column.ExceptionColumn;
+import guru.qas.martini.report.html.HtmlReport;
+import guru.qas.martini.report.html.HtmlReportWriter;
+import guru.qas.martini.report.record.Projection;
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.ResultRecordAdapter;
+import guru.qas.martini.report.store.ColumnarStore;
+import guru.qas.martini.report.store.ColumnarStoreWriter;
+import guru.qas.martini.report.store.StoreQuery;
+import guru.qas.martini.report.writer.Delimiter;
+import guru.qas.martini.report.writer.JUnitXmlWriter;
+
 import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardWatchEventKinds.*;
 import static java.nio.file.StandardOpenOption.*;
 
 @SuppressWarnings("WeakerAccess")
 public class Main {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
+
+	protected static final long FOLLOW_POLL_MILLISECONDS = 500;
+	protected static final long WATCH_POLL_MILLISECONDS = 500;
+	protected static final int BUFFER_SIZE = 64 * 1024;
+	protected static final byte[] GZIP_MAGIC = new byte[]{(byte) 0x1F, (byte) 0x8B};
+	protected static final byte[] ZIP_MAGIC = new byte[]{'P', 'K', 3, 4};
+
 	private final Args args;
 	private final JCommander jCommander;
 
@@ -58,7 +115,9 @@ public class Main {
 		try {
 			String configuration = args.springConfiguration.trim();
 			checkArgument(!configuration.isEmpty(), "no Spring configuration specified");
-			ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(configuration);
+			ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(new String[]{configuration}, false);
+			context.getEnvironment().getPropertySources().addLast(getOutputProperties());
+			context.refresh();
 			createReport(context);
 		}
 		catch (IllegalArgumentException e) {
@@ -66,57 +125,692 @@ public class Main {
 		}
 	}
 
+	/**
+	 * @return defaults implied by the output, e.g. a delimited text report for a .csv or .tsv file; system
+	 * properties take precedence
+	 */
+	protected PropertySource<?> getOutputProperties() {
+		Map<String, Object> properties = Maps.newHashMap();
+		Delimiter delimiter = null == args.outputFileResource ? null : Delimiter.forFileName(args.outputFileResource);
+		if (null != delimiter) {
+			properties.put("traceability.matrix.impl", DelimitedTraceabilityMatrix.class.getName());
+			properties.put("traceability.matrix.delimiter", delimiter.name());
+		}
+		return new MapPropertySource("output", properties);
+	}
+
 	protected void printUsageSynopsis(Exception e) {
 		e.printStackTrace();
 		jCommander.usage();
 	}
 
 	protected void createReport(ApplicationContext context) throws Exception {
-		Gson gson = context.getBean(Gson.class);
+		Gson gson = getGson(context);
 		TraceabilityMatrix matrix = context.getBean(TraceabilityMatrix.class);
 		createReport(context, gson, matrix);
 	}
 
+	/**
+	 * @return the configured Gson, widened to decode every field the columnar store, JUnit XML or HTML report
+	 * needs when any is written
+	 */
+	protected Gson getGson(ApplicationContext context) {
+		Gson gson = context.getBean(Gson.class);
+		if (null != args.storeResource || null != args.junitResource || null != args.htmlResource) {
+			Projection projection = getProjection(context);
+			@SuppressWarnings("unchecked")
+			Interner<String> interner = context.getBean(Interner.class);
+			gson = gson.newBuilder()
+				.registerTypeAdapter(ResultRecord.class, new ResultRecordAdapter(projection, interner))
+				.create();
+		}
+		return gson;
+	}
+
+	/**
+	 * @return the result fields decoded for the configured columns and, when written, the columnar store,
+	 * JUnit XML and HTML report
+	 */
+	protected Projection getProjection(ApplicationContext context) {
+		Projection projection = context.getBean(Projection.class);
+		if (null != args.storeResource) {
+			projection = projection.union(ColumnarStoreWriter.PATHS);
+		}
+		if (null != args.junitResource) {
+			projection = projection.union(JUnitXmlWriter.PATHS).union(context.getBean(ExceptionColumn.class).getPaths());
+		}
+		if (null != args.htmlResource) {
+			projection = projection.union(HtmlReport.PATHS);
+		}
+		return projection;
+	}
+
 	protected void createReport(ApplicationContext context, Gson gson, TraceabilityMatrix matrix) throws Exception {
-		try (Reader reader = getReader(context);
-			 JsonReader jsonReader = gson.newJsonReader(reader);
-			 OutputStream outputStream = getOutputStream(context)) {
+		checkArgument(args.threads > 0, "thread count must be greater than zero");
+		checkArgument(!(args.follow && args.watch), "follow and watch modes are mutually exclusive");
+		checkArgument(null == args.storeResource || !(args.follow || args.watch),
+			"a columnar store cannot be written in follow or watch mode");
+		checkArgument(null == args.cacheResource || !(args.follow || args.watch),
+			"the record cache cannot be used in follow or watch mode");
+		checkArgument(null == args.junitResource || !(args.follow || args.watch),
+			"JUnit XML cannot be written in follow or watch mode");
+		checkArgument(null == args.htmlResource || !(args.follow || args.watch),
+			"an HTML report cannot be written in follow or watch mode");
+		checkArgument(null != args.outputFileResource || null != args.storeResource ||
+			null != args.junitResource || null != args.htmlResource, "no output specified");
+		checkArgument(args.workbookRows >= 0, "workbook rows must not be negative");
+		checkArgument(0 == args.workbookRows || !(args.follow || args.watch),
+			"workbooks cannot be split in follow or watch mode");
+		if (null != args.listen) {
+			createListenReport(context, gson, matrix);
+		}
+		else if (args.follow) {
+			createFollowReport(context, gson, matrix);
+		}
+		else if (args.watch) {
+			createWatchReport(context, gson, matrix);
+		}
+		else if (args.threads > 1 || null != args.cacheResource) {
+			createParallelReport(context, gson, matrix);
+		}
+		else {
+			createSequentialReport(context, gson, matrix);
+		}
+	}
+
+	/**
+	 * Builds the report from records streamed by harness processes over TCP, or from standard input, as
+	 * they arrive; the workbook is written once every sender has finished.
+	 */
+	protected void createListenReport(
+		ApplicationContext context,
+		Gson gson,
+		TraceabilityMatrix matrix
+	) throws Exception {
+		checkArgument(null == args.jsonResources, "JSON resources cannot be read while listening");
+		checkArgument(!(args.follow || args.watch), "listening cannot be combined with follow or watch mode");
+		checkArgument(null == args.cacheResource, "the record cache cannot be used while listening");
+
+		try (RecordListener records = getRecordListener(gson)) {
+			createReport(context, gson, matrix, records);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	protected RecordListener getRecordListener(Gson gson) throws IOException {
+		String listen = args.listen.trim();
+		RecordListener listener;
+		if ("-".equals(listen)) {
+			listener = RecordListener.read(gson, System.in, "standard input");
+		}
+		else {
+			checkArgument(args.listenConnections >= 0, "listen connection count must not be negative");
+			checkArgument(args.listenIdle >= 0, "listen idle time must not be negative");
+			int separator = listen.lastIndexOf(':');
+			String host = -1 == separator ? null : listen.substring(0, separator);
+			int port;
+			try {
+				port = Integer.parseInt(listen.substring(separator + 1));
+			}
+			catch (NumberFormatException e) {
+				throw new IllegalArgumentException("invalid listen port: " + listen, e);
+			}
+			checkArgument(port >= 0 && port <= 0xFFFF, "invalid listen port: %s", listen);
+
+			ServerSocket server = new ServerSocket();
+			try {
+				server.bind(null == host ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
+			}
+			catch (IOException e) {
+				server.close();
+				throw e;
+			}
+			listener = RecordListener.listen(gson, server, args.listenConnections, args.listenIdle);
+		}
+		return listener;
+	}
+
+	protected void createParallelReport(
+		ApplicationContext context,
+		Gson gson,
+		TraceabilityMatrix matrix
+	) throws Exception {
+		RecordCache cache = null == args.cacheResource ? null : getRecordCache(context);
+		long splitSize = args.threads > 1 ? getSplitSize() : 0;
+		try (Closer closer = Closer.create()) {
+			Iterator<Resource> resources = prefetch(discover(context, closer), closer);
+			ParallelRecordIterator records = closer.register(
+				new ParallelRecordIterator(gson, () -> resources, this::getReader, args.threads, splitSize, cache));
+			createReport(context, gson, matrix, records);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	protected RecordCache getRecordCache(ApplicationContext context) throws IOException {
+		Path directory = context.getResource(args.cacheResource).getFile().toPath();
+		return new RecordCache(directory, getProjection(context));
+	}
+
+	protected long getSplitSize() {
+		checkArgument(args.splitSize >= 0, "split size must not be negative");
+		return args.splitSize * 1024L * 1024L;
+	}
+
+	protected void createSequentialReport(
+		ApplicationContext context,
+		Gson gson,
+		TraceabilityMatrix matrix
+	) throws Exception {
+		try (Closer closer = Closer.create()) {
+			Iterator<Resource> resources = prefetch(discover(context, closer), closer);
+			Reader reader = closer.register(getReader(() -> resources));
+			JsonReader jsonReader = closer.register(gson.newJsonReader(reader));
 			jsonReader.setLenient(true);
-			matrix.createReport(jsonReader, outputStream);
+			createReport(context, gson, matrix, new RecordIterator(gson, jsonReader));
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Writes the records to the report, the columnar store, JUnit XML and HTML report, whichever are
+	 * requested, in a single pass.
+	 */
+	protected void createReport(
+		ApplicationContext context,
+		Gson gson,
+		TraceabilityMatrix matrix,
+		Iterator<ReportRecord> records
+	) throws IOException {
+		try (ColumnarStoreWriter store = null == args.storeResource ? null : getStoreWriter(context);
+			 JUnitXmlWriter junit = null == args.junitResource ? null : getJUnitWriter(context);
+			 HtmlReportWriter html = null == args.htmlResource ? null : getHtmlWriter(context);
+			 DeferredRecordIterator ordered = null == store && null == junit && null == html ?
+				 null : getOrderedRecords(context, gson, records)) {
+			Iterator<ReportRecord> iterator = null == ordered ?
+				records :
+				Iterators.transform(ordered, record -> {
+					try {
+						if (null != store) {
+							store.add(record);
+						}
+						if (null != junit) {
+							junit.add(record);
+						}
+						if (null != html) {
+							html.add(record);
+						}
+					}
+					catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					return record;
+				});
+
+			if (null == args.outputFileResource) {
+				Iterators.size(iterator);
+			}
+			else if (args.workbookRows > 0) {
+				createWorkbooks(context, gson, matrix, iterator);
+			}
+			else {
+				try (OutputStream outputStream = getOutputStream(context)) {
+					matrix.createReport(iterator, outputStream);
+				}
+			}
+
+			if (null != junit) {
+				junit.finish();
+			}
+			if (null != html) {
+				html.finish();
+			}
+		}
+	}
+
+	/**
+	 * @return the records with results held back until the suite and feature they reference have been read
+	 */
+	protected DeferredRecordIterator getOrderedRecords(
+		ApplicationContext context,
+		Gson gson,
+		Iterator<ReportRecord> records
+	) {
+		Integer deferredLimit = context.getEnvironment()
+			.getProperty("traceability.matrix.deferred.limit", Integer.class, 10000);
+		return new DeferredRecordIterator(records, gson, deferredLimit);
+	}
+
+	/**
+	 * Writes numbered workbooks of at most the configured number of results each. Records are put in order
+	 * first so results are not split from the feature they reference.
+	 */
+	protected void createWorkbooks(
+		ApplicationContext context,
+		Gson gson,
+		TraceabilityMatrix matrix,
+		Iterator<ReportRecord> records
+	) throws IOException {
+		WorkbookRollover rollover = new WorkbookRollover(matrix, args.workbookRows);
+		try (DeferredRecordIterator ordered = getOrderedRecords(context, gson, records)) {
+			int workbooks = rollover.createReports(ordered, number -> getOutputStream(getOutputFile(context, number)));
+			LOGGER.info("report written to {} workbooks", workbooks);
+		}
+	}
+
+	protected JUnitXmlWriter getJUnitWriter(ApplicationContext context) throws IOException {
+		File file = context.getResource(args.junitResource).getFile();
+		return new JUnitXmlWriter(context.getBean(ExceptionColumn.class), getOutputStream(file));
+	}
+
+	protected HtmlReportWriter getHtmlWriter(ApplicationContext context) throws IOException {
+		Path directory = context.getResource(args.htmlResource).getFile().toPath();
+		return context.getAutowireCapableBeanFactory().createBean(HtmlReport.class).open(directory);
+	}
+
+	protected ColumnarStoreWriter getStoreWriter(ResourceLoader loader) throws IOException {
+		Path directory = loader.getResource(args.storeResource).getFile().toPath();
+		return new ColumnarStoreWriter(directory);
+	}
+
+	/**
+	 * Polls the input files until they have been idle for the configured time, regenerating the report
+	 * every so many records or seconds. Files matching the input pattern that appear later are followed too.
+	 */
+	protected void createFollowReport(
+		ApplicationContext context,
+		Gson gson,
+		TraceabilityMatrix matrix
+	) throws Exception {
+		checkArgument(args.followRecords > 0, "follow record count must be greater than zero");
+		checkArgument(args.followSeconds > 0, "follow interval must be greater than zero");
+		checkArgument(args.followIdle >= 0, "follow idle time must not be negative");
+
+		Map<Path, JsonFileTail> tails = Maps.newLinkedHashMap();
+		Map<Path, List<ReportRecord>> records = Maps.newLinkedHashMap();
+		Stopwatch sinceReport = Stopwatch.createStarted();
+		Stopwatch sinceRecord = Stopwatch.createStarted();
+		int unreported = 0;
+
+		boolean following = true;
+		while (following) {
+			for (Resource resource : getResources(context)) {
+				checkArgument(resource.isFile(), "only files can be followed, found %s", resource);
+				tails.computeIfAbsent(resource.getFile().toPath(), path -> new JsonFileTail(gson, path));
+			}
+
+			int polled = 0;
+			for (JsonFileTail tail : tails.values()) {
+				List<ReportRecord> added = tail.poll();
+				List<ReportRecord> tailRecords = records.computeIfAbsent(tail.getPath(), path -> Lists.newArrayList());
+				if (tail.isTruncated()) {
+					polled += tailRecords.size();
+					tailRecords.clear();
+				}
+				tailRecords.addAll(added);
+				polled += added.size();
+			}
+			unreported += polled;
+			if (polled > 0) {
+				sinceRecord.reset().start();
+			}
+
+			following = 0 == args.followIdle || sinceRecord.elapsed(TimeUnit.SECONDS) < args.followIdle;
+			boolean due = !following ||
+				unreported >= args.followRecords ||
+				sinceReport.elapsed(TimeUnit.SECONDS) >= args.followSeconds;
+			if (unreported > 0 && due) {
+				Iterable<ReportRecord> all = Iterables.concat(records.values());
+				writeReport(context, matrix, all);
+				LOGGER.info("report regenerated with {} records", Iterables.size(all));
+				unreported = 0;
+				sinceReport.reset().start();
+			}
+
+			if (following) {
+				Thread.sleep(FOLLOW_POLL_MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Watches the input directory and regenerates the report from cached per-file records whenever
+	 * matching files are added, changed or removed. Bursts of events are collapsed into one rebuild.
+	 */
+	protected void createWatchReport(
+		ApplicationContext context,
+		Gson gson,
+		TraceabilityMatrix matrix
+	) throws Exception {
+		checkArgument(args.watchDebounce >= 0, "watch debounce must not be negative");
+		checkArgument(args.watchIdle >= 0, "watch idle time must not be negative");
+
+		Path root = getWatchRoot(context);
+		ParsedResourceCache cache = new ParsedResourceCache(gson, this::getReader);
+		try (WatchService watcher = root.getFileSystem().newWatchService()) {
+			register(watcher, root);
+			if (cache.update(getResources(context))) {
+				writeReport(context, matrix, cache.getRecords());
+			}
+
+			Stopwatch sinceChange = Stopwatch.createStarted();
+			boolean watching = true;
+			while (watching) {
+				WatchKey key = watcher.poll(WATCH_POLL_MILLISECONDS, TimeUnit.MILLISECONDS);
+				if (null != key) {
+					do {
+						drain(watcher, key);
+						key = watcher.poll(args.watchDebounce, TimeUnit.MILLISECONDS);
+					}
+					while (null != key);
+
+					if (cache.update(getResources(context))) {
+						writeReport(context, matrix, cache.getRecords());
+						LOGGER.info("report regenerated from {} files", cache.size());
+						sinceChange.reset().start();
+					}
+				}
+				watching = 0 == args.watchIdle || sinceChange.elapsed(TimeUnit.SECONDS) < args.watchIdle;
+			}
+		}
+	}
+
+	protected Path getWatchRoot(ApplicationContext context) throws IOException {
+		List<String> patterns = getPatterns();
+		checkArgument(1 == patterns.size(), "only a single input location can be watched, found %s", patterns);
+		String pattern = patterns.get(0);
+		int rootLength = getRootLength(pattern);
+		String location = -1 == rootLength ? pattern : pattern.substring(0, rootLength);
+		Resource resource = context.getResource(location);
+		checkArgument(resource.isFile(), "only file system resources can be watched, found %s", pattern);
+
+		Path path = resource.getFile().toPath().toAbsolutePath();
+		return Files.isDirectory(path) ? path : path.getParent();
+	}
+
+	protected void register(WatchService watcher, Path root) throws IOException {
+		List<Path> directories;
+		try (Stream<Path> paths = Files.walk(root)) {
+			directories = paths.filter(Files::isDirectory).collect(Collectors.toList());
+		}
+		for (Path directory : directories) {
+			directory.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+		}
+	}
+
+	private void drain(WatchService watcher, WatchKey key) throws IOException {
+		Path directory = Path.class.cast(key.watchable());
+		for (WatchEvent<?> event : key.pollEvents()) {
+			Object context = event.context();
+			if (ENTRY_CREATE == event.kind() && Path.class.isInstance(context)) {
+				Path created = directory.resolve(Path.class.cast(context));
+				if (Files.isDirectory(created)) {
+					register(watcher, created);
+				}
+			}
 		}
+		key.reset();
 	}
 
-	protected Reader getReader(ApplicationContext context) throws IOException {
-		String trimmed = null == args.jsonResources ? "" : args.jsonResources.trim();
-		checkArgument(!trimmed.isEmpty(), "no JSON resources specified");
-		Resource[] resources = context.getResources(trimmed);
-		return getReader(resources);
+	/**
+	 * Writes the report to a temporary file beside the output and moves it into place, so readers never
+	 * see a partially written workbook.
+	 */
+	protected void writeReport(
+		ApplicationContext context,
+		TraceabilityMatrix matrix,
+		Iterable<ReportRecord> records
+	) throws IOException {
+		Path output = context.getResource(args.outputFileResource).getFile().toPath().toAbsolutePath();
+		checkArgument(args.clobber || !Files.exists(output), "output %s already exists", output);
+
+		Path tmp = Files.createTempFile(output.getParent(), output.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tmp)) {
+				matrix.createReport(records.iterator(), outputStream);
+			}
+			try {
+				Files.move(tmp, output, REPLACE_EXISTING, ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, output, REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tmp);
+		}
 	}
 
-	protected Reader getReader(Resource[] resources) {
-		ThrowingFunction<Resource, InputStream> inputStreamFunction = Resource::getInputStream;
-		Iterator<InputStream> iterator = Arrays.stream(resources).map(inputStreamFunction).iterator();
-		Enumeration<InputStream> enumeration = Iterators.asEnumeration(iterator);
-		SequenceInputStream sequence = new SequenceInputStream(enumeration);
-		return new InputStreamReader(sequence);
+	protected List<String> getPatterns() {
+		List<String> patterns = Lists.newArrayList();
+		if (null != args.jsonResources) {
+			args.jsonResources.stream().map(String::trim).filter(pattern -> !pattern.isEmpty()).forEach(patterns::add);
+		}
+		checkArgument(!patterns.isEmpty(), "no JSON resources specified");
+		return patterns;
+	}
+
+	/**
+	 * @return the length of the pattern up to the directory holding its first wildcard, or -1 without one
+	 */
+	protected int getRootLength(String pattern) {
+		int wildcard = CharMatcher.anyOf("*?{").indexIn(pattern);
+		return -1 == wildcard ? -1 : pattern.lastIndexOf('/', wildcard) + 1;
+	}
+
+	/**
+	 * @return matching resources sorted by location, for modes that revisit the inputs
+	 */
+	protected Resource[] getResources(ApplicationContext context) throws IOException {
+		try (Closer closer = Closer.create()) {
+			List<Resource> resources = Lists.newArrayList(discover(context, closer));
+			resources.sort(Comparator.comparing(Resource::getDescription));
+			return resources.toArray(new Resource[0]);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Streams the resources matching each input location in turn.
+	 *
+	 * @param closer closes any discovery still running once the resources are no longer needed
+	 */
+	protected Iterator<Resource> discover(ApplicationContext context, Closer closer) throws IOException {
+		ResourceFilter filter = getResourceFilter();
+		List<Iterator<Resource>> iterators = Lists.newArrayList();
+		for (String pattern : getPatterns()) {
+			iterators.add(discover(context, pattern, filter, closer));
+		}
+		return Iterators.concat(iterators.iterator());
+	}
+
+	/**
+	 * File system patterns are searched on a pool of threads and matches are streamed in path order;
+	 * other locations are resolved by the context. The modification time and size window applies to both.
+	 */
+	protected Iterator<Resource> discover(
+		ApplicationContext context,
+		String pattern,
+		ResourceFilter filter,
+		Closer closer
+	) throws IOException {
+		int rootLength = pattern.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX) ||
+			pattern.startsWith(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX) ? -1 : getRootLength(pattern);
+		Resource location = rootLength < 1 ? null : context.getResource(pattern.substring(0, rootLength));
+
+		Iterator<Resource> resources;
+		if (null != location && location.isFile() && location.getFile().isDirectory()) {
+			checkArgument(args.discoveryThreads > 0, "discovery thread count must be greater than zero");
+			Path root = location.getFile().toPath().toAbsolutePath();
+			resources = closer.register(
+				new FileDiscovery(root, pattern.substring(rootLength), filter, args.discoveryThreads));
+		}
+		else {
+			List<Resource> matches = Lists.newArrayList();
+			for (Resource resource : context.getResources(pattern)) {
+				if (filter.test(resource)) {
+					matches.add(resource);
+				}
+			}
+			resources = matches.iterator();
+		}
+		return resources;
+	}
+
+	/**
+	 * @return resources fetched ahead of parsing on background threads, unless prefetching is disabled
+	 */
+	protected Iterator<Resource> prefetch(Iterator<Resource> resources, Closer closer) {
+		checkArgument(args.prefetch >= 0, "prefetch count must not be negative");
+		checkArgument(args.prefetchMemory > 0, "prefetch memory must be greater than zero");
+		return 0 == args.prefetch ?
+			resources : closer.register(new ResourcePrefetcher(resources, args.prefetch, args.prefetchMemory * 1024L * 1024L));
+	}
+
+	protected ResourceFilter getResourceFilter() {
+		long modifiedAfter = null == args.since ?
+			Long.MIN_VALUE : System.currentTimeMillis() - ResourceFilter.parseDuration(args.since).toMillis();
+		long minimumSize = null == args.minSize ? 0 : ResourceFilter.parseSize(args.minSize);
+		long maximumSize = null == args.maxSize ? Long.MAX_VALUE : ResourceFilter.parseSize(args.maxSize);
+		return new ResourceFilter(modifiedAfter, minimumSize, maximumSize);
+	}
+
+	/**
+	 * Uncompressed files are decoded straight from their FileChannel; classpath, remote and compressed
+	 * resources fall back to a buffered stream. Input is always decoded as UTF-8.
+	 */
+	protected Reader getReader(Resource resource) throws IOException {
+		Reader reader;
+		if (isUncompressedFile(resource)) {
+			Path path = resource.getFile().toPath();
+			reader = new FileChannelReader(path, FileChannelReader.DEFAULT_BUFFER_SIZE);
+		}
+		else {
+			InputStream inputStream = getInputStream(resource);
+			reader = new InputStreamReader(inputStream, UTF_8);
+		}
+		return reader;
+	}
+
+	/**
+	 * @return a reader opening each resource lazily as the previous one is exhausted
+	 */
+	protected Reader getReader(Iterable<Resource> resources) throws IOException {
+		Iterable<CharSource> sources = Iterables.transform(resources, resource -> new CharSource() {
+			@Override
+			public Reader openStream() throws IOException {
+				return getReader(resource);
+			}
+		});
+		return CharSource.concat(sources).openStream();
+	}
+
+	protected boolean isUncompressedFile(Resource resource) throws IOException {
+		boolean uncompressed = resource.isFile();
+		if (uncompressed) {
+			try (InputStream inputStream = Files.newInputStream(resource.getFile().toPath())) {
+				byte[] header = new byte[ZIP_MAGIC.length];
+				int read = ByteStreams.read(inputStream, header, 0, header.length);
+				uncompressed = !startsWith(header, read, GZIP_MAGIC) && !startsWith(header, read, ZIP_MAGIC);
+			}
+		}
+		return uncompressed;
+	}
+
+	/**
+	 * Opens a resource, transparently decompressing gzip files and reading the .json entries of zip
+	 * archives. Compression is recognized by content rather than by file name.
+	 */
+	protected InputStream getInputStream(Resource resource) throws IOException {
+		InputStream inputStream = new BufferedInputStream(resource.getInputStream(), BUFFER_SIZE);
+		inputStream.mark(ZIP_MAGIC.length);
+		byte[] header = new byte[ZIP_MAGIC.length];
+		int read = ByteStreams.read(inputStream, header, 0, header.length);
+		inputStream.reset();
+
+		if (startsWith(header, read, GZIP_MAGIC)) {
+			inputStream = new GZIPInputStream(inputStream, BUFFER_SIZE);
+		}
+		else if (startsWith(header, read, ZIP_MAGIC)) {
+			inputStream = new ZipJsonInputStream(inputStream);
+		}
+		return inputStream;
+	}
+
+	private static boolean startsWith(byte[] header, int length, byte[] magic) {
+		boolean match = length >= magic.length;
+		for (int i = 0; match && i < magic.length; i++) {
+			match = header[i] == magic[i];
+		}
+		return match;
 	}
 
 	protected OutputStream getOutputStream(ApplicationContext context) throws IOException {
 		Resource resource = context.getResource(args.outputFileResource);
-		File file = resource.getFile();
+		return getOutputStream(resource.getFile());
+	}
+
+	/**
+	 * @return the output file with the workbook number before its extension, e.g. report-2.xlsx
+	 */
+	protected File getOutputFile(ApplicationContext context, int number) throws IOException {
+		File file = context.getResource(args.outputFileResource).getFile();
+		String name = file.getName();
+		int extension = name.lastIndexOf('.');
+		String numbered = -1 == extension ?
+			String.format("%s-%s", name, number) :
+			String.format("%s-%s%s", name.substring(0, extension), number, name.substring(extension));
+		return new File(file.getParentFile(), numbered);
+	}
+
+	protected OutputStream getOutputStream(File file) throws IOException {
 		OpenOption[] options = new OpenOption[]{args.clobber ? CREATE : CREATE_NEW, TRUNCATE_EXISTING};
 		return new OptionedFileSystemResource(file, options).getOutputStream();
 	}
 
+	/**
+	 * Runs a query command against a columnar store.
+	 */
+	protected void query(QueryArgs queryArgs, PrintStream out) throws IOException {
+		Path directory = new DefaultResourceLoader().getResource(queryArgs.storeResource).getFile().toPath();
+		StoreQuery query = StoreQuery.builder()
+			.setStatus(queryArgs.status)
+			.setTag(queryArgs.tag)
+			.setTheme(queryArgs.theme)
+			.setFeature(queryArgs.feature)
+			.setException(queryArgs.exception)
+			.setLastSuites(queryArgs.lastSuites)
+			.setGroupBy(queryArgs.groupBy)
+			.setCountOnly(queryArgs.count)
+			.setLimit(queryArgs.limit)
+			.build();
+		try (ColumnarStore store = ColumnarStore.open(directory)) {
+			query.execute(store, out);
+		}
+	}
+
 	public static void main(String[] argv) throws Exception {
 		Args args = new Args();
-		JCommander jCommander = JCommander.newBuilder().addObject(args).acceptUnknownOptions(true).build();
+		QueryArgs queryArgs = new QueryArgs();
+		JCommander jCommander = JCommander.newBuilder()
+			.addObject(args)
+			.addCommand(QueryArgs.COMMAND, queryArgs)
+			.acceptUnknownOptions(true)
+			.expandAtSign(false) // tags start with @
+			.build();
 
 		try {
 			jCommander.parse(argv);
 			List<String> unknownOptions = jCommander.getUnknownOptions();
 			checkArgument(unknownOptions.isEmpty(), "unrecognized options: %s", Joiner.on(", ").join(unknownOptions));
-			main(args, jCommander);
+			main(args, queryArgs, jCommander);
 		}
 		catch (IllegalArgumentException | ParameterException e) {
 			e.printStackTrace();
@@ -124,10 +818,13 @@ public class Main {
 		}
 	}
 
-	private static void main(Args args, JCommander jCommander) throws Exception {
+	private static void main(Args args, QueryArgs queryArgs, JCommander jCommander) throws Exception {
 		if (args.help) {
 			jCommander.usage();
 		}
+		else if (QueryArgs.COMMAND.equals(jCommander.getParsedCommand())) {
+			new Main(args, jCommander).query(queryArgs, System.out);
+		}
 		else {
 			new Main(args, jCommander).execute();
 		}
@@ -0,0 +1,346 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.io.CharSource;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Parses each resource on a fixed pool of workers while returning records in resource order. Files
+ * larger than the split size holding a top-level array are split into chunks of whole elements that
+ * are parsed in parallel as well. With a {@link RecordCache}, files with a current entry are loaded from it
+ * and every other file is added to it as it is parsed.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ParallelRecordIterator implements Iterator<ReportRecord>, Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParallelRecordIterator.class);
+
+	protected final Gson gson;
+	protected final ThrowingFunction<Resource, Reader> readerFunction;
+	protected final Iterator<Resource> resources;
+	protected final ExecutorService executor;
+	protected final int capacity;
+	protected final long splitSize;
+	protected final RecordCache cache;
+
+	private final Deque<Pending> pending;
+	private Iterator<ReportRecord> current;
+	private Iterator<Callable<List<ReportRecord>>> tasks;
+	private JsonArraySplitter splitter;
+	private RecordCache.Writer splitWriter;
+
+	public ParallelRecordIterator(
+		Gson gson,
+		Iterable<Resource> resources,
+		ThrowingFunction<Resource, Reader> readerFunction,
+		int threads
+	) {
+		this(gson, resources, readerFunction, threads, 0);
+	}
+
+	/**
+	 * @param splitSize approximate size in bytes of the chunks large array files are split into, 0 to
+	 *                  parse each resource as a whole
+	 */
+	public ParallelRecordIterator(
+		Gson gson,
+		Iterable<Resource> resources,
+		ThrowingFunction<Resource, Reader> readerFunction,
+		int threads,
+		long splitSize
+	) {
+		this(gson, resources, readerFunction, threads, splitSize, null);
+	}
+
+	/**
+	 * @param cache on-disk record cache, or null to parse every resource
+	 */
+	public ParallelRecordIterator(
+		Gson gson,
+		Iterable<Resource> resources,
+		ThrowingFunction<Resource, Reader> readerFunction,
+		int threads,
+		long splitSize,
+		RecordCache cache
+	) {
+		checkArgument(threads > 0, "thread count must be greater than zero, found %s", threads);
+		checkArgument(splitSize >= 0, "split size must not be negative, found %s", splitSize);
+		this.splitSize = splitSize;
+		this.gson = checkNotNull(gson, "null Gson");
+		this.resources = checkNotNull(resources, "null Iterable").iterator();
+		this.readerFunction = checkNotNull(readerFunction, "null ThrowingFunction");
+		this.cache = cache;
+
+		ThreadFactory threadFactory = new ThreadFactoryBuilder()
+			.setNameFormat("martini-parser-%d")
+			.setDaemon(true)
+			.build();
+		executor = Executors.newFixedThreadPool(threads, threadFactory);
+		capacity = threads * 2;
+		pending = new ArrayDeque<>(capacity);
+		current = Collections.emptyIterator();
+		tasks = Collections.emptyIterator();
+		submit();
+	}
+
+	protected void submit() {
+		try {
+			while (pending.size() < capacity && hasNextTask()) {
+				Future<List<ReportRecord>> future = executor.submit(tasks.next());
+				boolean last = !tasks.hasNext();
+				pending.add(new Pending(future, splitWriter, last));
+				if (last) {
+					splitWriter = null;
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private boolean hasNextTask() throws IOException {
+		while (!tasks.hasNext() && resources.hasNext()) {
+			closeSplitter();
+			if (null != splitWriter) {
+				closeQuietly(splitWriter);
+				splitWriter = null;
+			}
+			tasks = getTasks(resources.next());
+		}
+		return tasks.hasNext();
+	}
+
+	protected Iterator<Callable<List<ReportRecord>>> getTasks(Resource resource) throws IOException {
+		Iterator<Callable<List<ReportRecord>>> iterator = null;
+		Path cached = null != cache && resource.isFile() ? resource.getFile().toPath().toAbsolutePath() : null;
+		if (splitSize > 0 && resource.isFile() && resource.contentLength() > splitSize &&
+			(null == cached || !cache.contains(cached))) {
+			Path path = resource.getFile().toPath();
+			splitter = new JsonArraySplitter(path, splitSize);
+			if (splitter.isSplittable()) {
+				iterator = Iterators.transform(splitter, chunk -> () -> parse(path, chunk));
+				splitWriter = null == cached ? null : cache.newWriter(cached);
+			}
+			else {
+				closeSplitter();
+			}
+		}
+		if (null == iterator) {
+			Callable<List<ReportRecord>> task = null == cached ? () -> parse(resource) : () -> parse(cached, resource);
+			iterator = Iterators.singletonIterator(task);
+		}
+		return iterator;
+	}
+
+	/**
+	 * Loads the records of a file from the cache, parsing and caching them if its entry is not current.
+	 */
+	protected List<ReportRecord> parse(Path path, Resource resource) throws Exception {
+		List<ReportRecord> records = cache.get(path);
+		if (null == records) {
+			try (RecordCache.Writer writer = cache.newWriter(path)) {
+				records = parse(resource);
+				writer.write(records);
+				writer.commit();
+			}
+		}
+		return records;
+	}
+
+	protected List<ReportRecord> parse(Resource resource) throws Exception {
+		try (Reader reader = readerFunction.applyThrows(resource)) {
+			return parse(reader);
+		}
+	}
+
+	protected List<ReportRecord> parse(Path path, JsonArraySplitter.Chunk chunk) throws IOException {
+		long start = chunk.getStart();
+		long end = chunk.getEnd();
+		CharSource source = new CharSource() {
+			@Override
+			public Reader openStream() throws IOException {
+				return new FileChannelReader(path, start, end, FileChannelReader.DEFAULT_BUFFER_SIZE);
+			}
+		};
+		if (chunk.isWrapped()) {
+			source = CharSource.concat(CharSource.wrap("["), source, CharSource.wrap("]"));
+		}
+		try (Reader reader = source.openStream()) {
+			return parse(reader);
+		}
+	}
+
+	protected List<ReportRecord> parse(Reader reader) throws IOException {
+		try (JsonReader jsonReader = gson.newJsonReader(reader)) {
+			jsonReader.setLenient(true);
+			List<ReportRecord> records = Lists.newArrayList();
+			new RecordIterator(gson, jsonReader).forEachRemaining(records::add);
+			return records;
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private void closeSplitter() throws IOException {
+		if (null != splitter) {
+			splitter.close();
+			splitter = null;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!current.hasNext() && !pending.isEmpty()) {
+			Pending next = pending.remove();
+			submit();
+			List<ReportRecord> records;
+			try {
+				records = get(next.future);
+			}
+			catch (RuntimeException e) {
+				if (null != next.writer) {
+					closeQuietly(next.writer);
+				}
+				throw e;
+			}
+			if (null != next.writer) {
+				cache(next, records);
+			}
+			current = records.iterator();
+		}
+		return current.hasNext();
+	}
+
+	protected List<ReportRecord> get(Future<List<ReportRecord>> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while parsing JSON resources", e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (IOException.class.isInstance(cause)) {
+				throw new UncheckedIOException(IOException.class.cast(cause));
+			}
+			if (RuntimeException.class.isInstance(cause)) {
+				throw RuntimeException.class.cast(cause);
+			}
+			throw new IllegalStateException("unable to parse JSON resource", cause);
+		}
+	}
+
+	/**
+	 * Appends the records of a chunk to the cache entry of its file, committing it after the last chunk.
+	 */
+	protected void cache(Pending chunk, List<ReportRecord> records) {
+		try {
+			chunk.writer.write(records);
+			if (chunk.last) {
+				chunk.writer.commit();
+				chunk.writer.close();
+			}
+		}
+		catch (IOException e) {
+			LOGGER.warn("unable to cache {}", chunk.writer.file, e);
+			closeQuietly(chunk.writer);
+		}
+	}
+
+	@Override
+	public ReportRecord next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return current.next();
+	}
+
+	@Override
+	public void close() throws IOException {
+		pending.forEach(chunk -> {
+			chunk.future.cancel(true);
+			if (null != chunk.writer) {
+				closeQuietly(chunk.writer);
+			}
+		});
+		pending.clear();
+		executor.shutdownNow();
+		closeSplitter();
+		if (null != splitWriter) {
+			closeQuietly(splitWriter);
+			splitWriter = null;
+		}
+	}
+
+	private static void closeQuietly(RecordCache.Writer writer) {
+		try {
+			writer.close();
+		}
+		catch (IOException e) {
+			LOGGER.warn("unable to discard cache entry for {}", writer.file, e);
+		}
+	}
+
+	protected static final class Pending {
+
+		protected final Future<List<ReportRecord>> future;
+		protected final RecordCache.Writer writer;
+		protected final boolean last;
+
+		protected Pending(Future<List<ReportRecord>> future, RecordCache.Writer writer, boolean last) {
+			this.future = future;
+			this.writer = writer;
+			this.last = last;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the records parsed from each input file, keyed by path, so that only files whose size or
+ * modification time changed are parsed again. Records are returned in path order.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ParsedResourceCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParsedResourceCache.class);
+
+	protected final Gson gson;
+	protected final ThrowingFunction<Resource, Reader> readerFunction;
+	protected final Map<Path, Entry> entries;
+
+	public ParsedResourceCache(Gson gson, ThrowingFunction<Resource, Reader> readerFunction) {
+		this.gson = checkNotNull(gson, "null Gson");
+		this.readerFunction = checkNotNull(readerFunction, "null ThrowingFunction");
+		entries = Maps.newTreeMap();
+	}
+
+	/**
+	 * Parses new and changed files and forgets files no longer present.
+	 *
+	 * @return true if the cached records changed
+	 */
+	public boolean update(Resource[] resources) throws IOException {
+		checkNotNull(resources, "null Resource[]");
+
+		boolean changed = false;
+		Set<Path> present = Sets.newHashSetWithExpectedSize(resources.length);
+		for (Resource resource : resources) {
+			Path path = resource.getFile().toPath().toAbsolutePath();
+			present.add(path);
+			changed |= update(path, resource);
+		}
+		changed |= entries.keySet().retainAll(present);
+		return changed;
+	}
+
+	protected boolean update(Path path, Resource resource) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		long size = attributes.size();
+		FileTime modified = attributes.lastModifiedTime();
+
+		Entry cached = entries.get(path);
+		boolean stale = null == cached || cached.size != size || !Objects.equals(cached.modified, modified);
+		if (stale) {
+			try {
+				List<ReportRecord> records = parse(resource);
+				entries.put(path, new Entry(size, modified, records));
+				LOGGER.info("parsed {} records from {}", records.size(), path);
+			}
+			catch (Exception e) {
+				// Most likely still being written; it is parsed again once it changes.
+				LOGGER.warn("unable to parse {}", path, e);
+				stale = false;
+			}
+		}
+		return stale;
+	}
+
+	protected List<ReportRecord> parse(Resource resource) throws Exception {
+		try (Reader reader = readerFunction.applyThrows(resource);
+			 JsonReader jsonReader = gson.newJsonReader(reader)) {
+			jsonReader.setLenient(true);
+			ImmutableList.Builder<ReportRecord> records = ImmutableList.builder();
+			new RecordIterator(gson, jsonReader).forEachRemaining(records::add);
+			return records.build();
+		}
+	}
+
+	public Iterable<ReportRecord> getRecords() {
+		Collection<Entry> values = entries.values();
+		return Iterables.concat(Iterables.transform(values, entry -> entry.records));
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	protected static final class Entry {
+
+		private final long size;
+		private final FileTime modified;
+		private final List<ReportRecord> records;
+
+		private Entry(long size, FileTime modified, List<ReportRecord> records) {
+			this.size = size;
+			this.modified = modified;
+			this.records = records;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+import guru.qas.martini.report.store.StoreQuery;
+
+@Parameters(commandDescription = "filter and aggregate the results of a columnar store written with -store")
+class QueryArgs {
+
+	static final String COMMAND = "query";
+
+	@Parameter(
+		names = {"-store", "--store"},
+		description = "columnar store resource, e.g. file:///path/to/store",
+		required = true
+	)
+	String storeResource;
+
+	@Parameter(names = {"-status", "--status"}, description = "only results with this status, e.g. FAILED")
+	String status;
+
+	@Parameter(names = {"-tag", "--tag"}, description = "only results carrying this tag, e.g. @Smoke")
+	String tag;
+
+	@Parameter(names = {"-theme", "--theme"}, description = "only results in this theme (category)")
+	String theme;
+
+	@Parameter(names = {"-feature", "--feature"}, description = "only results of the feature with this name")
+	String feature;
+
+	@Parameter(names = {"-exception", "--exception"}, description = "only results with a step exception containing this text")
+	String exception;
+
+	@Parameter(names = {"-suites", "--suites"}, description = "only results of the most recently started suites")
+	int lastSuites;
+
+	@Parameter(names = {"-groupBy", "--groupBy"}, description = "count matching results per value of this field")
+	StoreQuery.GroupBy groupBy;
+
+	@Parameter(names = {"-count", "--count"}, description = "print only the number of matching results")
+	boolean count;
+
+	@Parameter(names = {"-limit", "--limit"}, description = "print at most this many results, 0 for all")
+	int limit = 100;
+}
@@ -0,0 +1,249 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import guru.qas.martini.report.record.Projection;
+import guru.qas.martini.report.record.RecordDecoder;
+import guru.qas.martini.report.record.RecordEncoder;
+import guru.qas.martini.report.record.ReportRecord;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Keeps the records decoded from each input file on disk, one entry per file. An entry is current when the
+ * file has the recorded size and either the recorded modification time or, failing that, the recorded
+ * content hash. Entries also record the decoded result fields, so changing the configured columns
+ * invalidates them.
+ */
+@SuppressWarnings("WeakerAccess")
+public class RecordCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RecordCache.class);
+
+	protected static final int MAGIC = 0x4D524331;
+	protected static final int VERSION = 1;
+	protected static final long MODIFIED_OFFSET = 16;
+	protected static final long HASH_OFFSET = 24;
+	protected static final int HASH_LENGTH = 16;
+	protected static final int BUFFER_SIZE = 64 * 1024;
+	protected static final String SUFFIX = ".records";
+
+	protected final Path directory;
+	protected final String fingerprint;
+	protected final HashFunction hashFunction;
+
+	public RecordCache(Path directory, Projection projection) throws IOException {
+		this.directory = checkNotNull(directory, "null Path");
+		checkNotNull(projection, "null Projection");
+		fingerprint = projection.isAll() ? "*" : Joiner.on(',').join(new TreeSet<>(projection.getPaths()));
+		hashFunction = Hashing.murmur3_128();
+		Files.createDirectories(directory);
+	}
+
+	/**
+	 * @return the cached records of file, or null if there is no current entry
+	 */
+	public List<ReportRecord> get(Path file) throws IOException {
+		Path entry = getEntry(file);
+		List<ReportRecord> records = null;
+		try (FileChannel channel = FileChannel.open(entry, READ, WRITE)) {
+			InputStream inputStream = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+			DataInputStream input = new DataInputStream(inputStream);
+			if (isCurrent(file, channel, input)) {
+				records = Lists.newArrayList();
+				RecordDecoder decoder = new RecordDecoder(input);
+				for (ReportRecord record = decoder.read(); null != record; record = decoder.read()) {
+					records.add(record);
+				}
+			}
+		}
+		catch (NoSuchFileException e) {
+			LOGGER.debug("no cache entry for {}", file);
+		}
+		catch (IOException e) {
+			LOGGER.warn("ignoring unreadable cache entry {} for {}", entry, file, e);
+			records = null;
+		}
+		return records;
+	}
+
+	/**
+	 * @return true if file has a current entry, without decoding it
+	 */
+	public boolean contains(Path file) throws IOException {
+		Path entry = getEntry(file);
+		boolean current = false;
+		try (FileChannel channel = FileChannel.open(entry, READ, WRITE)) {
+			InputStream inputStream = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+			current = isCurrent(file, channel, new DataInputStream(inputStream));
+		}
+		catch (NoSuchFileException e) {
+			LOGGER.debug("no cache entry for {}", file);
+		}
+		catch (IOException e) {
+			LOGGER.warn("ignoring unreadable cache entry {} for {}", entry, file, e);
+		}
+		return current;
+	}
+
+	/**
+	 * Leaves input positioned at the first record when the entry is current.
+	 */
+	protected boolean isCurrent(Path file, FileChannel channel, DataInputStream input) throws IOException {
+		boolean current = MAGIC == input.readInt() && VERSION == input.readInt();
+		if (current) {
+			long size = input.readLong();
+			long modified = input.readLong();
+			byte[] hash = new byte[HASH_LENGTH];
+			input.readFully(hash);
+			current = fingerprint.equals(input.readUTF()) && file.toString().equals(input.readUTF());
+
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			current = current && size == attributes.size();
+			long lastModified = attributes.lastModifiedTime().toMillis();
+			if (current && modified != lastModified) {
+				current = Arrays.equals(hash, hash(file));
+				if (current) {
+					LOGGER.debug("{} was modified but its content is unchanged", file);
+					ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, lastModified);
+					channel.write(buffer, MODIFIED_OFFSET);
+				}
+			}
+		}
+		return current;
+	}
+
+	protected byte[] hash(Path file) throws IOException {
+		return com.google.common.io.Files.asByteSource(file.toFile()).hash(hashFunction).asBytes();
+	}
+
+	protected Path getEntry(Path file) {
+		String name = hashFunction.hashString(file.toString(), UTF_8).toString();
+		return directory.resolve(name + SUFFIX);
+	}
+
+	/**
+	 * @return a writer replacing the entry of file once committed
+	 */
+	public Writer newWriter(Path file) throws IOException {
+		return new Writer(file);
+	}
+
+	/**
+	 * Collects the records of one file into a temporary entry that replaces the current one on commit. The
+	 * entry is discarded if the file changed while it was being read.
+	 */
+	public class Writer implements Closeable {
+
+		protected final Path file;
+		protected final Path tmp;
+		protected final BasicFileAttributes attributes;
+		protected final DataOutputStream output;
+		protected final RecordEncoder encoder;
+
+		private boolean committed;
+
+		protected Writer(Path file) throws IOException {
+			this.file = checkNotNull(file, "null Path");
+			attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			tmp = Files.createTempFile(directory, null, ".tmp");
+			OutputStream outputStream = Files.newOutputStream(tmp);
+			output = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(attributes.size());
+			output.writeLong(attributes.lastModifiedTime().toMillis());
+			output.write(new byte[HASH_LENGTH]);
+			output.writeUTF(fingerprint);
+			output.writeUTF(file.toString());
+			encoder = new RecordEncoder(output);
+		}
+
+		public void write(Iterable<ReportRecord> records) throws IOException {
+			checkState(!committed, "already committed");
+			for (ReportRecord record : records) {
+				encoder.write(record);
+			}
+		}
+
+		public void commit() throws IOException {
+			checkState(!committed, "already committed");
+			committed = true;
+			encoder.finish();
+			output.close();
+
+			BasicFileAttributes current = Files.readAttributes(file, BasicFileAttributes.class);
+			if (current.size() == attributes.size() && current.lastModifiedTime().equals(attributes.lastModifiedTime())) {
+				try (FileChannel channel = FileChannel.open(tmp, WRITE)) {
+					channel.write(ByteBuffer.wrap(hash(file)), HASH_OFFSET);
+				}
+				Path entry = getEntry(file);
+				try {
+					Files.move(tmp, entry, REPLACE_EXISTING, ATOMIC_MOVE);
+				}
+				catch (AtomicMoveNotSupportedException e) {
+					Files.move(tmp, entry, REPLACE_EXISTING);
+				}
+			}
+			else {
+				LOGGER.debug("not caching {} as it changed while being read", file);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				output.close();
+			}
+			finally {
+				Files.deleteIfExists(tmp);
+			}
+		}
+	}
+}
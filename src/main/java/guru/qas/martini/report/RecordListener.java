@@ -0,0 +1,238 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Receives suite, feature and martini records streamed by harness processes, over TCP connections or a
+ * single input stream such as stdin, and returns them as one sequence in arrival order. Each connection is
+ * parsed on its own thread with its own reader, so a connection sending malformed JSON is dropped without
+ * affecting the others. Records are handed over through a bounded queue; while the consumer is behind,
+ * connections are not read and TCP flow control holds the senders back.
+ */
+@SuppressWarnings("WeakerAccess")
+public class RecordListener extends AbstractIterator<ReportRecord> implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RecordListener.class);
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	protected static final int ACCEPT_TIMEOUT_MILLISECONDS = 250;
+	private static final Object END = new Object();
+
+	protected final Gson gson;
+	protected final BlockingQueue<Object> queue;
+	protected final ExecutorService executor;
+	protected final Set<Closeable> connections;
+	protected final AtomicInteger open;
+	protected final AtomicInteger finished;
+
+	private volatile boolean closed;
+
+	protected RecordListener(Gson gson, int capacity) {
+		this.gson = checkNotNull(gson, "null Gson");
+		checkArgument(capacity > 0, "capacity must be greater than zero, found %s", capacity);
+		queue = new ArrayBlockingQueue<>(capacity);
+		ThreadFactory threadFactory = new ThreadFactoryBuilder()
+			.setNameFormat("martini-listener-%d")
+			.setDaemon(true)
+			.build();
+		executor = Executors.newCachedThreadPool(threadFactory);
+		connections = ConcurrentHashMap.newKeySet();
+		open = new AtomicInteger();
+		finished = new AtomicInteger();
+	}
+
+	/**
+	 * Accepts connections until the expected number have finished or, when none is expected, until no
+	 * connection has been open for the idle time.
+	 *
+	 * @param expected    connections to wait for, 0 to stop on idle instead
+	 * @param idleSeconds seconds without an open connection before listening stops, 0 to listen until closed
+	 */
+	public static RecordListener listen(Gson gson, ServerSocket server, int expected, long idleSeconds) {
+		checkNotNull(server, "null ServerSocket");
+		checkArgument(expected >= 0, "expected connections must not be negative, found %s", expected);
+		checkArgument(idleSeconds >= 0, "idle time must not be negative, found %s", idleSeconds);
+		RecordListener listener = new RecordListener(gson, DEFAULT_CAPACITY);
+		listener.connections.add(server);
+		listener.executor.execute(() -> listener.accept(server, expected, idleSeconds));
+		return listener;
+	}
+
+	/**
+	 * Reads records from the stream until it ends; the stream is closed afterwards.
+	 */
+	public static RecordListener read(Gson gson, InputStream inputStream, String name) {
+		checkNotNull(inputStream, "null InputStream");
+		RecordListener listener = new RecordListener(gson, DEFAULT_CAPACITY);
+		listener.executor.execute(() -> {
+			listener.read(inputStream, name);
+			listener.put(END);
+		});
+		return listener;
+	}
+
+	protected void accept(ServerSocket server, int expected, long idleSeconds) {
+		LOGGER.info("listening for results on {}", server.getLocalSocketAddress());
+		Stopwatch idle = Stopwatch.createStarted();
+		try {
+			server.setSoTimeout(ACCEPT_TIMEOUT_MILLISECONDS);
+			while (!closed && !isDone(expected, idleSeconds, idle)) {
+				try {
+					Socket socket = server.accept();
+					open.incrementAndGet();
+					connections.add(socket);
+					executor.execute(() -> {
+						String name = String.valueOf(socket.getRemoteSocketAddress());
+						try {
+							read(socket.getInputStream(), name);
+						}
+						catch (IOException e) {
+							LOGGER.warn("unable to read from {}", name, e);
+						}
+						finally {
+							connections.remove(socket);
+							closeQuietly(socket);
+							finished.incrementAndGet();
+							open.decrementAndGet();
+						}
+					});
+				}
+				catch (SocketTimeoutException e) {
+					if (open.get() > 0) {
+						idle.reset().start();
+					}
+				}
+			}
+			put(END);
+		}
+		catch (IOException e) {
+			put(closed ? END : e);
+		}
+		finally {
+			connections.remove(server);
+			closeQuietly(server);
+		}
+	}
+
+	protected boolean isDone(int expected, long idleSeconds, Stopwatch idle) {
+		return expected > 0 ?
+			finished.get() >= expected :
+			idleSeconds > 0 && 0 == open.get() && idle.elapsed(TimeUnit.SECONDS) >= idleSeconds;
+	}
+
+	protected void read(InputStream inputStream, String name) {
+		LOGGER.info("receiving results from {}", name);
+		int count = 0;
+		try (Reader reader = new InputStreamReader(new BufferedInputStream(inputStream), UTF_8);
+			 JsonReader jsonReader = gson.newJsonReader(reader)) {
+			jsonReader.setLenient(true);
+			RecordIterator records = new RecordIterator(gson, jsonReader);
+			while (!closed && records.hasNext()) {
+				put(records.next());
+				count++;
+			}
+			LOGGER.info("received {} records from {}", count, name);
+		}
+		catch (IOException | UncheckedIOException | JsonParseException e) {
+			if (!closed) {
+				LOGGER.warn("dropping {} after {} records", name, count, e);
+			}
+		}
+	}
+
+	protected void put(Object element) {
+		try {
+			queue.put(element);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	protected ReportRecord computeNext() {
+		Object element;
+		try {
+			element = queue.take();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for records", e);
+		}
+
+		if (END == element) {
+			return endOfData();
+		}
+		else if (IOException.class.isInstance(element)) {
+			throw new UncheckedIOException(IOException.class.cast(element));
+		}
+		return ReportRecord.class.cast(element);
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		connections.forEach(RecordListener::closeQuietly);
+		executor.shutdownNow();
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (IOException e) {
+			LOGGER.debug("unable to close {}", closeable, e);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.springframework.core.io.Resource;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * Accepts input whose modification time and size fall within a window.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ResourceFilter implements Predicate<BasicFileAttributes> {
+
+	protected static final ResourceFilter ALL = new ResourceFilter(Long.MIN_VALUE, 0, Long.MAX_VALUE);
+
+	protected final long modifiedAfter;
+	protected final long minimumSize;
+	protected final long maximumSize;
+
+	/**
+	 * @param modifiedAfter epoch milliseconds a file must have been modified at or after
+	 * @param minimumSize   smallest size in bytes accepted
+	 * @param maximumSize   largest size in bytes accepted
+	 */
+	public ResourceFilter(long modifiedAfter, long minimumSize, long maximumSize) {
+		checkArgument(minimumSize >= 0, "minimum size must not be negative, found %s", minimumSize);
+		checkArgument(maximumSize >= minimumSize,
+			"maximum size %s must not be less than minimum size %s", maximumSize, minimumSize);
+		this.modifiedAfter = modifiedAfter;
+		this.minimumSize = minimumSize;
+		this.maximumSize = maximumSize;
+	}
+
+	public static ResourceFilter all() {
+		return ALL;
+	}
+
+	@Override
+	public boolean test(BasicFileAttributes attributes) {
+		return test(attributes.lastModifiedTime().toMillis(), attributes.size());
+	}
+
+	/**
+	 * Only asks the resource for the attributes the window constrains, as each may be a remote request.
+	 */
+	public boolean test(Resource resource) throws IOException {
+		boolean accepted = Long.MIN_VALUE == modifiedAfter || resource.lastModified() >= modifiedAfter;
+		if (accepted && (0 != minimumSize || Long.MAX_VALUE != maximumSize)) {
+			long size = resource.contentLength();
+			accepted = size >= minimumSize && size <= maximumSize;
+		}
+		return accepted;
+	}
+
+	public boolean test(long lastModified, long size) {
+		return lastModified >= modifiedAfter && size >= minimumSize && size <= maximumSize;
+	}
+
+	/**
+	 * @param value a number followed by s, m, h or d, e.g. 24h; a bare number is read as seconds
+	 */
+	public static Duration parseDuration(String value) {
+		String trimmed = checkNotNull(value, "null String").trim().toLowerCase(Locale.ROOT);
+		checkArgument(!trimmed.isEmpty(), "empty duration");
+
+		TimeUnit unit = TimeUnit.SECONDS;
+		char suffix = trimmed.charAt(trimmed.length() - 1);
+		switch (suffix) {
+			case 's':
+				break;
+			case 'm':
+				unit = TimeUnit.MINUTES;
+				break;
+			case 'h':
+				unit = TimeUnit.HOURS;
+				break;
+			case 'd':
+				unit = TimeUnit.DAYS;
+				break;
+			default:
+				checkArgument(Character.isDigit(suffix), "unrecognized duration unit in '%s'", value);
+		}
+		String number = Character.isDigit(suffix) ? trimmed : trimmed.substring(0, trimmed.length() - 1);
+		long amount = parseLong(number, value);
+		checkArgument(amount >= 0, "duration must not be negative, found '%s'", value);
+		return Duration.ofSeconds(unit.toSeconds(amount));
+	}
+
+	/**
+	 * @param value a number optionally followed by k, m or g for binary kilo-, mega- or gigabytes, e.g. 10m
+	 */
+	public static long parseSize(String value) {
+		String trimmed = checkNotNull(value, "null String").trim().toLowerCase(Locale.ROOT);
+		checkArgument(!trimmed.isEmpty(), "empty size");
+
+		int shift = 0;
+		char suffix = trimmed.charAt(trimmed.length() - 1);
+		switch (suffix) {
+			case 'k':
+				shift = 10;
+				break;
+			case 'm':
+				shift = 20;
+				break;
+			case 'g':
+				shift = 30;
+				break;
+			default:
+				checkArgument(Character.isDigit(suffix), "unrecognized size unit in '%s'", value);
+		}
+		String number = 0 == shift ? trimmed : trimmed.substring(0, trimmed.length() - 1);
+		long amount = parseLong(number, value);
+		checkArgument(amount >= 0, "size must not be negative, found '%s'", value);
+		return amount << shift;
+	}
+
+	private static long parseLong(String number, String value) {
+		try {
+			return Long.parseLong(number.trim());
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("unable to parse '%s'", value), e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("modified at or after %s, size %s to %s bytes", modifiedAfter, minimumSize, maximumSize);
+	}
+}
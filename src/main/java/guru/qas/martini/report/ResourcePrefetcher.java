@@ -0,0 +1,329 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * Fetches up to a fixed number of resources ahead of the consumer, buffering their content in memory.
+ * Unclaimed resources stop fetching once the buffered total reaches the memory cap; resources already
+ * returned keep streaming whatever the total, a few chunks ahead of their reader, so a resource larger than
+ * the cap is read straight through without being held in memory. Files
+ * are local and passed through unchanged. Fetches run on virtual threads when the runtime provides them.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ResourcePrefetcher implements Iterator<Resource>, Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResourcePrefetcher.class);
+
+	protected static final int CHUNK_SIZE = 64 * 1024;
+	protected static final int CLAIMED_CHUNKS = 4;
+	private static final byte[] EOF = new byte[0];
+
+	protected final Iterator<Resource> resources;
+	protected final int concurrency;
+	protected final long memoryCap;
+	protected final ExecutorService executor;
+	protected final Deque<Resource> window;
+
+	private long buffered;
+
+	/**
+	 * @param concurrency number of resources fetched ahead of the consumer
+	 * @param memoryCap   bytes buffered across resources not yet returned
+	 */
+	public ResourcePrefetcher(Iterator<Resource> resources, int concurrency, long memoryCap) {
+		this.resources = checkNotNull(resources, "null Iterator");
+		checkArgument(concurrency > 0, "concurrency must be greater than zero, found %s", concurrency);
+		checkArgument(memoryCap >= CHUNK_SIZE, "memory cap must be at least %s bytes, found %s", CHUNK_SIZE, memoryCap);
+		this.concurrency = concurrency;
+		this.memoryCap = memoryCap;
+		executor = createExecutor(concurrency);
+		window = new ArrayDeque<>(concurrency);
+		fill();
+	}
+
+	/**
+	 * @return a virtual thread per task executor when available, otherwise a fixed pool of daemon threads
+	 */
+	protected static ExecutorService createExecutor(int concurrency) {
+		ExecutorService executor = null;
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			executor = ExecutorService.class.cast(method.invoke(null));
+		}
+		catch (ReflectiveOperationException e) {
+			LOGGER.debug("virtual threads unavailable, prefetching on platform threads");
+		}
+		if (null == executor) {
+			ThreadFactory threadFactory = new ThreadFactoryBuilder()
+				.setNameFormat("martini-prefetch-%d")
+				.setDaemon(true)
+				.build();
+			executor = Executors.newFixedThreadPool(concurrency, threadFactory);
+		}
+		return executor;
+	}
+
+	protected void fill() {
+		while (window.size() < concurrency && resources.hasNext()) {
+			Resource resource = resources.next();
+			window.add(resource.isFile() ? resource : new PrefetchedResource(resource));
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !window.isEmpty();
+	}
+
+	@Override
+	public Resource next() {
+		if (window.isEmpty()) {
+			throw new NoSuchElementException();
+		}
+		Resource resource = window.remove();
+		if (PrefetchedResource.class.isInstance(resource)) {
+			PrefetchedResource.class.cast(resource).claim();
+		}
+		fill();
+		return resource;
+	}
+
+	/**
+	 * Waits for room under the memory cap or, once the resource has been returned, for its reader to fall
+	 * fewer than {@link #CLAIMED_CHUNKS} chunks behind.
+	 */
+	protected synchronized void acquire(PrefetchedResource resource, int bytes) throws InterruptedException {
+		while (resource.claimed ? resource.chunks.size() >= CLAIMED_CHUNKS : buffered + bytes > memoryCap) {
+			wait();
+		}
+		buffered += bytes;
+	}
+
+	protected synchronized long getBuffered() {
+		return buffered;
+	}
+
+	protected synchronized void release(int bytes) {
+		buffered -= bytes;
+		notifyAll();
+	}
+
+	protected synchronized void wake() {
+		notifyAll();
+	}
+
+	@Override
+	public void close() {
+		window.forEach(resource -> {
+			if (PrefetchedResource.class.isInstance(resource)) {
+				PrefetchedResource.class.cast(resource).cancel();
+			}
+		});
+		window.clear();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Content of a resource fetched in the background; it can be read once.
+	 */
+	protected class PrefetchedResource extends AbstractResource {
+
+		protected final Resource delegate;
+		protected final BlockingQueue<byte[]> chunks;
+		protected final Future<?> future;
+
+		private volatile boolean claimed;
+		private volatile IOException failure;
+		private boolean opened;
+		private boolean cancelled;
+
+		protected PrefetchedResource(Resource delegate) {
+			this.delegate = delegate;
+			chunks = new LinkedBlockingQueue<>();
+			future = executor.submit(this::fetch);
+		}
+
+		protected void fetch() {
+			try (InputStream inputStream = delegate.getInputStream()) {
+				int read;
+				do {
+					acquire(this, CHUNK_SIZE);
+					byte[] chunk = new byte[CHUNK_SIZE];
+					read = ByteStreams.read(inputStream, chunk, 0, CHUNK_SIZE);
+					release(CHUNK_SIZE - read);
+					if (read > 0) {
+						add(read == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, read));
+					}
+				}
+				while (CHUNK_SIZE == read);
+			}
+			catch (IOException e) {
+				failure = e;
+			}
+			catch (InterruptedException e) {
+				failure = new InterruptedIOException("prefetch of " + delegate + " interrupted");
+			}
+			finally {
+				chunks.add(EOF);
+			}
+		}
+
+		protected void claim() {
+			claimed = true;
+			wake();
+		}
+
+		/**
+		 * Chunks fetched after the resource was cancelled are released rather than buffered.
+		 */
+		protected synchronized void add(byte[] chunk) {
+			if (cancelled) {
+				release(chunk.length);
+			}
+			else {
+				chunks.add(chunk);
+			}
+		}
+
+		protected synchronized void cancel() {
+			cancelled = true;
+			future.cancel(true);
+			for (byte[] chunk = chunks.poll(); null != chunk; chunk = chunks.poll()) {
+				release(chunk.length);
+			}
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public synchronized InputStream getInputStream() throws IOException {
+			checkState(!opened, "%s has already been read", delegate);
+			opened = true;
+			return new ChunkInputStream();
+		}
+
+		@Override
+		public long contentLength() throws IOException {
+			return delegate.contentLength();
+		}
+
+		@Override
+		public long lastModified() throws IOException {
+			return delegate.lastModified();
+		}
+
+		@Override
+		public String getFilename() {
+			return delegate.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return delegate.getDescription();
+		}
+
+		protected class ChunkInputStream extends InputStream {
+
+			private byte[] chunk = new byte[0];
+			private int position;
+			private boolean closed;
+
+			@Override
+			public int read() throws IOException {
+				byte[] single = new byte[1];
+				return -1 == read(single, 0, 1) ? -1 : single[0] & 0xFF;
+			}
+
+			@Override
+			public int read(byte[] buffer, int offset, int length) throws IOException {
+				checkPositionIndexes(offset, offset + length, buffer.length);
+				checkState(!closed, "stream closed");
+				if (0 == length) {
+					return 0;
+				}
+				if (position == chunk.length && EOF != chunk) {
+					release(chunk.length);
+					chunk = take();
+					position = 0;
+				}
+				if (EOF == chunk) {
+					if (null != failure) {
+						throw failure;
+					}
+					return -1;
+				}
+				int count = Math.min(length, chunk.length - position);
+				System.arraycopy(chunk, position, buffer, offset, count);
+				position += count;
+				return count;
+			}
+
+			private byte[] take() throws IOException {
+				try {
+					byte[] next = chunks.take();
+					wake();
+					return next;
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("interrupted while reading " + delegate);
+				}
+			}
+
+			@Override
+			public void close() {
+				if (!closed) {
+					closed = true;
+					if (EOF != chunk) {
+						release(chunk.length);
+					}
+					cancel();
+				}
+			}
+		}
+	}
+}
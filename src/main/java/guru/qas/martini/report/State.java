@@ -16,11 +16,20 @@ limitations under the License.
 
 package guru.qas.martini.report;
 
-import com.google.gson.JsonObject;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 
-public interface State {
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.SuiteRecord;
+import guru.qas.martini.report.style.ColumnWidths;
+import guru.qas.martini.report.style.StyleRegistry;
+
+public interface State extends FeatureResolver {
+
+	StyleRegistry getStyleRegistry();
+
+	ColumnWidths getColumnWidths();
 
 	void setStatus(Cell cell, String status);
 
@@ -28,13 +37,13 @@ public interface State {
 
 	void setExecutionTime(Cell cell, long executionTime);
 
-	void addSuite(JsonObject suite);
+	void addSuite(SuiteRecord suite);
 
-	void addFeature(JsonObject feature);
+	void addFeature(FeatureRecord feature);
+
+	void updateResult(Row row);
 
 	void updateResults();
 
 	void updateSuites(Sheet sheet);
-
-	JsonObject getFeature(JsonObject result);
 }
@@ -0,0 +1,221 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.BorderFormatting;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.ComparisonOperator;
+import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
+import org.apache.poi.ss.usermodel.FontFormatting;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetConditionalFormatting;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
+import guru.qas.martini.report.style.StyleRegistry;
+
+/**
+ * State for streaming workbooks, where rows are flushed to disk once they leave the row window.
+ * Status colors are applied as each row completes; longest execution and compromised themes are
+ * only known once all results have been read and are expressed as conditional formatting rules on every
+ * sheet holding results.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StreamingState extends DefaultState {
+
+	protected static final String STATUS_FAILED = "FAILED";
+	protected static final int MAXIMUM_FORMULA_LENGTH = 8000;
+	protected static final int MAXIMUM_FORMULA_ARGUMENTS = 255;
+
+	private final SetMultimap<String, String> relatedThemes;
+	private final Set<String> failedThemes;
+	private final Set<Sheet> sheets;
+
+	private String rowStatus;
+	private Set<String> rowThemes;
+	private Integer statusColumn;
+	private Integer themeColumn;
+	private Integer executionColumn;
+	private Long longestExecution;
+	private int lastColumn;
+
+	protected StreamingState(StyleRegistry styles) {
+		super(styles);
+		relatedThemes = LinkedHashMultimap.create();
+		failedThemes = Sets.newLinkedHashSet();
+		sheets = Sets.newLinkedHashSet();
+		rowThemes = ImmutableSet.of();
+	}
+
+	@Override
+	public void setStatus(Cell cell, String status) {
+		statusColumn = cell.getColumnIndex();
+		rowStatus = status;
+	}
+
+	@Override
+	public void setThemes(Cell cell, Iterable<String> i) {
+		themeColumn = cell.getColumnIndex();
+		rowThemes = ImmutableSet.copyOf(i);
+	}
+
+	@Override
+	public void setExecutionTime(Cell cell, long executionTime) {
+		executionColumn = cell.getColumnIndex();
+		if (null == longestExecution || executionTime > longestExecution) {
+			longestExecution = executionTime;
+		}
+	}
+
+	@Override
+	public void updateResult(Row row) {
+		sheets.add(row.getSheet());
+		lastColumn = Math.max(lastColumn, row.getLastCellNum() - 1);
+
+		updateStatus(row, rowStatus);
+
+		if (STATUS_FAILED.equals(rowStatus)) {
+			failedThemes.addAll(rowThemes);
+		}
+		for (String theme : rowThemes) {
+			relatedThemes.putAll(theme, rowThemes);
+		}
+
+		rowStatus = null;
+		rowThemes = ImmutableSet.of();
+	}
+
+	protected void updateStatus(Row row, String status) {
+		Short color = getColor(status);
+		if (null != color) {
+			colorRow(color, row);
+		}
+	}
+
+	protected Collection<Sheet> getSheets() {
+		return sheets;
+	}
+
+	protected Integer getStatusColumn() {
+		return statusColumn;
+	}
+
+	protected int getLastColumn() {
+		return lastColumn;
+	}
+
+	@Override
+	public void updateResults() {
+		for (Sheet sheet : sheets) {
+			int lastRowNum = sheet.getLastRowNum();
+			if (lastRowNum > 0) {
+				updateResults(sheet, lastRowNum);
+			}
+		}
+	}
+
+	protected void updateResults(Sheet sheet, int lastRowNum) {
+		updateLongestExecutions(sheet, lastRowNum);
+		colorCompromisedThemes(sheet, lastRowNum);
+	}
+
+	protected void updateLongestExecutions(Sheet sheet, int lastRowNum) {
+		if (null != executionColumn && null != longestExecution) {
+			SheetConditionalFormatting formatting = sheet.getSheetConditionalFormatting();
+
+			String value = String.valueOf(longestExecution);
+			ConditionalFormattingRule cellRule =
+				formatting.createConditionalFormattingRule(ComparisonOperator.EQUAL, value);
+			setHighlightFont(cellRule);
+			CellRangeAddress cellRange = new CellRangeAddress(1, lastRowNum, executionColumn, executionColumn);
+			formatting.addConditionalFormatting(new CellRangeAddress[]{cellRange}, cellRule);
+
+			String column = CellReference.convertNumToColString(executionColumn);
+			String formula = String.format("$%s2=%s", column, value);
+			ConditionalFormattingRule rowRule = formatting.createConditionalFormattingRule(formula);
+			BorderFormatting border = rowRule.createBorderFormatting();
+			border.setBorderTop(BorderStyle.MEDIUM);
+			border.setBorderBottom(BorderStyle.MEDIUM);
+			CellRangeAddress rowRange = new CellRangeAddress(1, lastRowNum, 0, Math.max(executionColumn, lastColumn));
+			formatting.addConditionalFormatting(new CellRangeAddress[]{rowRange}, rowRule);
+		}
+	}
+
+	protected void colorCompromisedThemes(Sheet sheet, int lastRowNum) {
+		if (null != themeColumn && !failedThemes.isEmpty()) {
+			Set<String> compromised = new LinkedHashSet<>(failedThemes);
+			for (String theme : failedThemes) {
+				compromised.addAll(relatedThemes.get(theme));
+			}
+
+			SheetConditionalFormatting formatting = sheet.getSheetConditionalFormatting();
+			CellRangeAddress range = new CellRangeAddress(1, lastRowNum, themeColumn, themeColumn);
+			String reference = CellReference.convertNumToColString(themeColumn) + "2";
+			for (String formula : getThemeFormulas(reference, compromised)) {
+				ConditionalFormattingRule rule = formatting.createConditionalFormattingRule(formula);
+				setHighlightFont(rule);
+				formatting.addConditionalFormatting(new CellRangeAddress[]{range}, rule);
+			}
+		}
+	}
+
+	protected List<String> getThemeFormulas(String reference, Collection<String> themes) {
+		List<String> formulas = Lists.newArrayList();
+
+		List<String> terms = Lists.newArrayList();
+		int length = 0;
+		for (String theme : themes) {
+			String escaped = theme.replace("\"", "\"\"");
+			String term = String.format(
+				"ISNUMBER(FIND(CHAR(10)&\"%s\"&CHAR(10),CHAR(10)&%s&CHAR(10)))", escaped, reference);
+
+			if (!terms.isEmpty() &&
+				(terms.size() == MAXIMUM_FORMULA_ARGUMENTS || length + term.length() > MAXIMUM_FORMULA_LENGTH)) {
+				formulas.add(String.format("OR(%s)", String.join(",", terms)));
+				terms.clear();
+				length = 0;
+			}
+			terms.add(term);
+			length += term.length() + 1;
+		}
+
+		if (!terms.isEmpty()) {
+			formulas.add(String.format("OR(%s)", String.join(",", terms)));
+		}
+		return formulas;
+	}
+
+	protected void setHighlightFont(ConditionalFormattingRule rule) {
+		FontFormatting font = rule.createFontFormatting();
+		font.setFontStyle(false, true);
+		font.setFontColorIndex(IndexedColors.DARK_RED.getIndex());
+	}
+}
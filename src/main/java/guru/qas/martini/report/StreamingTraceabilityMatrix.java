@@ -0,0 +1,91 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Configurable;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+
+import guru.qas.martini.report.column.StringStorage;
+import guru.qas.martini.report.column.TraceabilityColumn;
+import guru.qas.martini.report.style.StyleRegistry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+@SuppressWarnings("WeakerAccess")
+@Configurable
+public class StreamingTraceabilityMatrix extends DefaultTraceabilityMatrix {
+
+	protected final int windowSize;
+
+	@Autowired
+	protected StreamingTraceabilityMatrix(
+		Gson gson,
+		Iterable<TraceabilityColumn> columns,
+		@Value("${traceability.matrix.formatting:CELL}") ResultFormatting formatting,
+		@Value("${traceability.matrix.highlight.longest:true}") boolean highlightLongest,
+		@Value("${traceability.matrix.deferred.limit:10000}") int deferredLimit,
+		@Value("${traceability.matrix.sheet.rows:1048575}") int sheetRows,
+		@Value("${traceability.matrix.window:100}") int windowSize
+	) {
+		super(gson, columns, formatting, highlightLongest, deferredLimit, sheetRows);
+		checkArgument(windowSize > 0, "window size must be greater than zero, found %s", windowSize);
+		this.windowSize = windowSize;
+	}
+
+	@Override
+	protected Workbook createWorkbook() {
+		return new StringStorageWorkbook(windowSize);
+	}
+
+	@Override
+	protected Sheet createResultSheet(Workbook workbook, String name) {
+		Set<Integer> inlineColumns = Sets.newHashSet();
+		for (int i = 0; i < columns.size(); i++) {
+			if (StringStorage.INLINE == columns.get(i).getStringStorage()) {
+				inlineColumns.add(i);
+			}
+		}
+		return StringStorageWorkbook.class.cast(workbook).createSheet(name, inlineColumns);
+	}
+
+	@Override
+	protected State createState(StyleRegistry styles) {
+		return ResultFormatting.CONDITIONAL == formatting ?
+			new ConditionalFormattingState(styles, highlightLongest) :
+			new StreamingState(styles);
+	}
+
+	@Override
+	protected void close(Workbook workbook) throws IOException {
+		try {
+			SXSSFWorkbook.class.cast(workbook).dispose();
+		}
+		finally {
+			super.close(workbook);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.streaming.GZIPSheetDataWriter;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+
+import com.google.common.collect.ImmutableSet;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Streaming workbook that shares strings through the workbook's shared strings table except in the columns
+ * a sheet is created to write inline. Temporary sheet files are compressed.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StringStorageWorkbook extends SXSSFWorkbook {
+
+	private Set<Integer> inlineColumns = ImmutableSet.of();
+
+	public StringStorageWorkbook(int windowSize) {
+		super(null, windowSize, true, true);
+	}
+
+	/**
+	 * @param inlineColumns indexes of the columns whose text is written into each cell rather than shared
+	 */
+	public SXSSFSheet createSheet(String name, Set<Integer> inlineColumns) {
+		this.inlineColumns = ImmutableSet.copyOf(checkNotNull(inlineColumns, "null Set"));
+		try {
+			return createSheet(name);
+		}
+		finally {
+			this.inlineColumns = ImmutableSet.of();
+		}
+	}
+
+	@Override
+	protected SheetDataWriter createSheetDataWriter() throws IOException {
+		return new DataWriter(getSharedStringSource(), inlineColumns);
+	}
+
+	protected static class DataWriter extends GZIPSheetDataWriter {
+
+		protected final ImmutableSet<Integer> inlineColumns;
+
+		// Assigned from createWriter while the superclass constructs, so it must not have an initializer.
+		private Writer out;
+
+		protected DataWriter(SharedStringsTable sharedStrings, Set<Integer> inlineColumns) throws IOException {
+			super(sharedStrings);
+			this.inlineColumns = ImmutableSet.copyOf(inlineColumns);
+		}
+
+		@Override
+		public Writer createWriter(File file) throws IOException {
+			out = super.createWriter(file);
+			return out;
+		}
+
+		@Override
+		public void writeCell(int columnIndex, Cell cell) throws IOException {
+			if (CellType.STRING == cell.getCellType() && inlineColumns.contains(columnIndex)) {
+				writeInlineString(columnIndex, cell);
+			}
+			else {
+				super.writeCell(columnIndex, cell);
+			}
+		}
+
+		protected void writeInlineString(int columnIndex, Cell cell) throws IOException {
+			String reference = new CellReference(cell.getRowIndex(), columnIndex).formatAsString();
+			out.write("<c r=\"");
+			out.write(reference);
+			out.write('"');
+
+			int style = cell.getCellStyle().getIndex() & 0xffff;
+			if (0 != style) {
+				out.write(" s=\"");
+				out.write(Integer.toString(style));
+				out.write('"');
+			}
+
+			String value = cell.getStringCellValue();
+			out.write(" t=\"inlineStr\"><is><t");
+			if (!value.isEmpty() &&
+				(Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)))) {
+				out.write(" xml:space=\"preserve\"");
+			}
+			out.write('>');
+			outputQuotedString(value);
+			out.write("</t></is></c>");
+		}
+	}
+}
@@ -18,10 +18,15 @@ package guru.qas.martini.report;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Iterator;
 
 import com.google.gson.stream.JsonReader;
 
+import guru.qas.martini.report.record.ReportRecord;
+
 public interface TraceabilityMatrix {
 
 	void createReport(JsonReader reader, OutputStream outputStream) throws IOException;
+
+	void createReport(Iterator<ReportRecord> records, OutputStream outputStream) throws IOException;
 }
@@ -0,0 +1,213 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+
+import com.google.common.collect.AbstractIterator;
+
+import guru.qas.martini.report.record.ReportRecord;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * Builds a report from suite, feature and result records published in-process, without writing or parsing
+ * JSON. Records are buffered up to the requested demand and handed to the matrix on a dedicated thread, so a
+ * slow workbook applies backpressure to the publisher rather than growing memory. The report is written to
+ * the output stream once the publisher completes; the stream is left open.
+ *
+ * <pre>
+ * TraceabilityMatrixSubscriber subscriber = TraceabilityMatrixSubscriber.create(context, outputStream);
+ * publisher.subscribe(subscriber);
+ * ...
+ * subscriber.getReport().get();
+ * </pre>
+ */
+@SuppressWarnings("WeakerAccess")
+public class TraceabilityMatrixSubscriber implements Flow.Subscriber<ReportRecord> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TraceabilityMatrixSubscriber.class);
+
+	public static final int DEFAULT_BUFFER_SIZE = 256;
+
+	private static final Object COMPLETE = new Object();
+	private static final Object WAKE = new Object();
+	private static final long POLL_MILLISECONDS = 100;
+
+	protected final TraceabilityMatrix matrix;
+	protected final OutputStream outputStream;
+	protected final int bufferSize;
+	protected final BlockingQueue<Object> signals;
+	protected final AtomicReference<Object> terminal;
+	protected final CompletableFuture<Void> report;
+
+	private volatile Flow.Subscription subscription;
+
+	public TraceabilityMatrixSubscriber(TraceabilityMatrix matrix, OutputStream outputStream) {
+		this(matrix, outputStream, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param bufferSize records requested from the publisher ahead of the matrix
+	 */
+	public TraceabilityMatrixSubscriber(TraceabilityMatrix matrix, OutputStream outputStream, int bufferSize) {
+		this.matrix = checkNotNull(matrix, "null TraceabilityMatrix");
+		this.outputStream = checkNotNull(outputStream, "null OutputStream");
+		checkArgument(bufferSize > 0, "buffer size must be greater than zero, found %s", bufferSize);
+		this.bufferSize = bufferSize;
+		signals = new ArrayBlockingQueue<>(bufferSize);
+		terminal = new AtomicReference<>();
+		report = new CompletableFuture<>();
+	}
+
+	/**
+	 * @return a subscriber writing the report configured by the context, e.g. one loaded from
+	 * classpath*:/martiniContext.xml
+	 */
+	public static TraceabilityMatrixSubscriber create(ApplicationContext context, OutputStream outputStream) {
+		checkNotNull(context, "null ApplicationContext");
+		return new TraceabilityMatrixSubscriber(context.getBean(TraceabilityMatrix.class), outputStream);
+	}
+
+	/**
+	 * @return completes once the report has been written, or exceptionally if the publisher or the matrix failed
+	 */
+	public CompletableFuture<Void> getReport() {
+		return report;
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		checkNotNull(subscription, "null Subscription");
+		if (null != this.subscription) {
+			subscription.cancel();
+		}
+		else {
+			this.subscription = subscription;
+			Thread thread = new Thread(this::createReport, "martini-report");
+			thread.setDaemon(true);
+			thread.start();
+			subscription.request(bufferSize);
+		}
+	}
+
+	@Override
+	public void onNext(ReportRecord record) {
+		checkNotNull(record, "null ReportRecord");
+		if (!signals.offer(record)) {
+			subscription.cancel();
+			signal(new IllegalStateException("publisher exceeded the requested demand of " + bufferSize));
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		checkNotNull(throwable, "null Throwable");
+		signal(throwable);
+	}
+
+	@Override
+	public void onComplete() {
+		signal(COMPLETE);
+	}
+
+	/**
+	 * Terminal signals are held apart from the records so a full buffer can't drop them; the first one wins.
+	 */
+	private void signal(Object signal) {
+		if (terminal.compareAndSet(null, signal)) {
+			signals.offer(WAKE);
+		}
+		else {
+			LOGGER.debug("ignoring terminal signal {} after {}", signal, terminal.get());
+		}
+	}
+
+	protected void createReport() {
+		try {
+			matrix.createReport(new Records(), outputStream);
+			report.complete(null);
+		}
+		catch (Throwable e) {
+			subscription.cancel();
+			report.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Hands signals to the matrix, requesting more records once half the buffer has been consumed.
+	 */
+	protected class Records extends AbstractIterator<ReportRecord> {
+
+		private final int batch = Math.max(1, bufferSize / 2);
+		private int consumed;
+
+		@Override
+		protected ReportRecord computeNext() {
+			Object signal = take();
+			ReportRecord record = null;
+			if (COMPLETE == signal) {
+				record = endOfData();
+			}
+			else if (Throwable.class.isInstance(signal)) {
+				throw new IllegalStateException("publisher failed", Throwable.class.cast(signal));
+			}
+			else {
+				record = ReportRecord.class.cast(signal);
+				if (++consumed == batch) {
+					subscription.request(consumed);
+					consumed = 0;
+				}
+			}
+			return record;
+		}
+
+		/**
+		 * @return the next record, or the terminal signal once every record before it has been taken
+		 */
+		private Object take() {
+			try {
+				Object signal = null;
+				while (null == signal) {
+					Object next = signals.poll(POLL_MILLISECONDS, TimeUnit.MILLISECONDS);
+					if (null != next && WAKE != next) {
+						signal = next;
+					}
+					else if (signals.isEmpty()) {
+						signal = terminal.get();
+					}
+				}
+				return signal;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while waiting for records", e);
+			}
+		}
+	}
+}
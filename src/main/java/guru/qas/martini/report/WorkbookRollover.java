@@ -0,0 +1,191 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+
+import guru.qas.martini.report.record.ReportRecord;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * Splits one report into numbered workbooks of at most a fixed number of results. Every suite and feature
+ * read so far is repeated in each workbook so its results are located and its Suites sheet is complete.
+ * Each workbook is built on its own thread; a finished workbook is written while the next one fills, with
+ * at most a fixed number in progress at once.
+ */
+@SuppressWarnings("WeakerAccess")
+public class WorkbookRollover {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WorkbookRollover.class);
+
+	public static final int DEFAULT_CONCURRENCY = 2;
+
+	protected final TraceabilityMatrix matrix;
+	protected final int workbookResults;
+	protected final int concurrency;
+
+	public WorkbookRollover(TraceabilityMatrix matrix, int workbookResults) {
+		this(matrix, workbookResults, DEFAULT_CONCURRENCY);
+	}
+
+	/**
+	 * @param workbookResults results written to each workbook before the next is started
+	 * @param concurrency     workbooks built or written at once
+	 */
+	public WorkbookRollover(TraceabilityMatrix matrix, int workbookResults, int concurrency) {
+		this.matrix = checkNotNull(matrix, "null TraceabilityMatrix");
+		checkArgument(workbookResults > 0, "workbook results must be greater than zero, found %s", workbookResults);
+		checkArgument(concurrency > 0, "concurrency must be greater than zero, found %s", concurrency);
+		this.workbookResults = workbookResults;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Results should follow the suite and feature they reference; a result read before its feature is
+	 * reported without a location when the feature arrives after its workbook has been finished.
+	 *
+	 * @param outputs opens the output for each workbook, numbered from 1; outputs are closed once written
+	 * @return the number of workbooks written
+	 */
+	public int createReports(
+		Iterator<ReportRecord> records,
+		ThrowingFunction<Integer, OutputStream> outputs
+	) throws IOException {
+		checkNotNull(records, "null Iterator");
+		checkNotNull(outputs, "null ThrowingFunction");
+
+		List<ReportRecord> shared = Lists.newArrayList();
+		Deque<Workbook> workbooks = new ArrayDeque<>();
+		int number = 0;
+		try {
+			Workbook workbook = null;
+			int results = 0;
+			while (records.hasNext()) {
+				ReportRecord record = records.next();
+				boolean result = JsonObjectType.RESULT == record.getType();
+				if (null == workbook || result && results == workbookResults) {
+					if (null != workbook) {
+						workbook.complete();
+					}
+					while (workbooks.size() >= concurrency) {
+						workbooks.removeFirst().await();
+					}
+					workbook = new Workbook(++number, outputs.apply(number));
+					workbooks.addLast(workbook);
+					shared.forEach(workbook::submit);
+					results = 0;
+				}
+
+				if (result) {
+					results++;
+				}
+				else {
+					shared.add(record);
+				}
+				workbook.submit(record);
+			}
+
+			if (null == workbook) {
+				workbook = new Workbook(++number, outputs.apply(number));
+				workbooks.addLast(workbook);
+			}
+			workbook.complete();
+			while (!workbooks.isEmpty()) {
+				workbooks.removeFirst().await();
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			for (Workbook workbook : workbooks) {
+				workbook.abandon(e);
+			}
+			throw e;
+		}
+		return number;
+	}
+
+	protected class Workbook {
+
+		protected final int number;
+		protected final OutputStream outputStream;
+		protected final SubmissionPublisher<ReportRecord> publisher;
+		protected final TraceabilityMatrixSubscriber subscriber;
+
+		protected Workbook(int number, OutputStream outputStream) {
+			this.number = number;
+			this.outputStream = checkNotNull(outputStream, "null OutputStream");
+			publisher = new SubmissionPublisher<>();
+			subscriber = new TraceabilityMatrixSubscriber(matrix, outputStream);
+			publisher.subscribe(subscriber);
+		}
+
+		protected void submit(ReportRecord record) {
+			publisher.submit(record);
+		}
+
+		protected void complete() {
+			publisher.close();
+		}
+
+		protected void await() throws IOException {
+			try {
+				subscriber.getReport().get();
+				LOGGER.info("workbook {} written", number);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while writing workbook " + number, e);
+			}
+			catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (IOException.class.isInstance(cause)) {
+					throw IOException.class.cast(cause);
+				}
+				else if (UncheckedIOException.class.isInstance(cause)) {
+					throw UncheckedIOException.class.cast(cause).getCause();
+				}
+				throw new IOException("unable to write workbook " + number, cause);
+			}
+			finally {
+				outputStream.close();
+			}
+		}
+
+		protected void abandon(Exception cause) {
+			publisher.closeExceptionally(cause);
+			try {
+				outputStream.close();
+			}
+			catch (IOException e) {
+				LOGGER.debug("unable to close workbook {}", number, e);
+			}
+		}
+	}
+}
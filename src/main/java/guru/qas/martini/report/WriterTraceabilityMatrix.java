@@ -0,0 +1,119 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import guru.qas.martini.report.column.TraceabilityColumn;
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.writer.ReportWriter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reports the configured columns through a {@link ReportWriter} rather than a workbook, writing one row per
+ * result as it is read. Only features are kept, to resolve the columns that refer to them.
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class WriterTraceabilityMatrix implements TraceabilityMatrix {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WriterTraceabilityMatrix.class);
+
+	protected final Gson gson;
+	protected final ImmutableList<TraceabilityColumn> columns;
+	protected final int deferredLimit;
+
+	protected WriterTraceabilityMatrix(Gson gson, Iterable<TraceabilityColumn> columns, int deferredLimit) {
+		checkArgument(deferredLimit > 0, "deferred limit must be greater than zero, found %s", deferredLimit);
+		this.gson = checkNotNull(gson, "null Gson");
+		this.columns = ImmutableList.copyOf(columns);
+		this.deferredLimit = deferredLimit;
+	}
+
+	protected abstract ReportWriter createWriter(OutputStream outputStream) throws IOException;
+
+	@Override
+	public void createReport(JsonReader reader, OutputStream outputStream) throws IOException {
+		checkNotNull(reader, "null JsonReader");
+		Iterator<ReportRecord> records = new RecordIterator(gson, reader);
+		try {
+			createReport(records, outputStream);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public void createReport(Iterator<ReportRecord> records, OutputStream outputStream) throws IOException {
+		checkNotNull(records, "null Iterator");
+		checkNotNull(outputStream, "null OutputStream");
+
+		ReportWriter writer = createWriter(outputStream);
+		try (DeferredRecordIterator ordered = new DeferredRecordIterator(records, gson, deferredLimit)) {
+			createReport(ordered, writer);
+		}
+		writer.finish();
+	}
+
+	protected void createReport(Iterator<ReportRecord> records, ReportWriter writer) throws IOException {
+		List<String> labels = Lists.newArrayListWithExpectedSize(columns.size());
+		columns.forEach(column -> labels.add(column.getLabel()));
+		writer.writeHeader(labels);
+
+		Map<String, FeatureRecord> features = Maps.newHashMap();
+		FeatureResolver resolver = result -> null == result.getFeature() ? null : features.get(result.getFeature());
+		List<String> values = Lists.newArrayListWithExpectedSize(columns.size());
+		while (records.hasNext()) {
+			ReportRecord record = records.next();
+			switch (record.getType()) {
+				case SUITE:
+					break;
+				case FEATURE:
+					FeatureRecord feature = FeatureRecord.class.cast(record);
+					features.put(feature.getId(), feature);
+					break;
+				case RESULT:
+					ResultRecord result = ResultRecord.class.cast(record);
+					values.clear();
+					columns.forEach(column -> values.add(column.getValue(resolver, result)));
+					writer.writeRow(values);
+					break;
+				default:
+					LOGGER.warn("skipping unrecognized record: {}", record);
+			}
+		}
+	}
+}
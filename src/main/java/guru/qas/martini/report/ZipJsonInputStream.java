@@ -0,0 +1,88 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads the .json entries of a zip archive back to back, decompressing them as they are streamed
+ * without extracting anything to disk. Other entries are skipped.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ZipJsonInputStream extends InputStream {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ZipJsonInputStream.class);
+
+	protected static final String SUFFIX = ".json";
+
+	protected final ZipInputStream zip;
+	protected boolean inEntry;
+	protected boolean exhausted;
+
+	public ZipJsonInputStream(InputStream inputStream) {
+		checkNotNull(inputStream, "null InputStream");
+		this.zip = new ZipInputStream(inputStream);
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] buffer = new byte[1];
+		int read = read(buffer, 0, 1);
+		return -1 == read ? -1 : buffer[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		int read = -1;
+		while (-1 == read && advance()) {
+			read = zip.read(buffer, offset, length);
+			inEntry = -1 != read;
+		}
+		return read;
+	}
+
+	protected boolean advance() throws IOException {
+		while (!inEntry && !exhausted) {
+			ZipEntry entry = zip.getNextEntry();
+			exhausted = null == entry;
+			inEntry = !exhausted && isJson(entry);
+			if (inEntry) {
+				LOGGER.debug("reading zip entry {}", entry.getName());
+			}
+		}
+		return inEntry;
+	}
+
+	protected boolean isJson(ZipEntry entry) {
+		String name = entry.getName().toLowerCase(Locale.ROOT);
+		return !entry.isDirectory() && name.endsWith(SUFFIX);
+	}
+
+	@Override
+	public void close() throws IOException {
+		zip.close();
+	}
+}
@@ -16,27 +16,35 @@ limitations under the License.
 
 package guru.qas.martini.report.column;
 
+import java.util.List;
+
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.StepRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class ExceptionColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Exception";
-	protected static final String KEY_STEPS = "steps";
-	protected static final String KEY_EXCEPTION = "exception";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("steps.exception");
+
+	protected final int maximumWidth;
+	protected final StringStorage stringStorage;
 
-	protected ExceptionColumn() {
+	protected ExceptionColumn(
+		@Value("${traceability.column.exception.width:100}") int maximumWidth,
+		@Value("${traceability.column.exception.strings:INLINE}") StringStorage stringStorage
+	) {
+		this.maximumWidth = maximumWidth;
+		this.stringStorage = stringStorage;
 	}
 
 	@Override
@@ -45,21 +53,34 @@ public class ExceptionColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		JsonArray array = o.getAsJsonArray(KEY_STEPS);
-		int size = array.size();
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public StringStorage getStringStorage() {
+		return stringStorage;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		String value = getValue(state, result);
+		cell.setCellValue(value);
+		state.getColumnWidths().update(cell, value, maximumWidth);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		List<StepRecord> steps = result.getSteps();
+		int size = null == steps ? 0 : steps.size();
 
 		String value = null;
 		for (int i = 0; null == value && i < size; i++) {
-			JsonElement element = array.get(i);
-			JsonObject step = element.getAsJsonObject();
-			JsonElement keyElement = step.get(KEY_EXCEPTION);
-			JsonPrimitive primitive = null != keyElement && keyElement.isJsonPrimitive() ? keyElement.getAsJsonPrimitive() : null;
-			String stackTrace = null == primitive ? null : primitive.getAsString().trim();
+			StepRecord step = steps.get(i);
+			String exception = step.getException();
+			String stackTrace = null == exception ? null : exception.trim();
 			value = null != stackTrace && !stackTrace.isEmpty() ? stackTrace: null;
 		}
-
-		RichTextString richTextString = new XSSFRichTextString(value);
-		cell.setCellValue(richTextString);
+		return value;
 	}
 }
@@ -19,18 +19,18 @@ package guru.qas.martini.report.column;
 import org.apache.poi.ss.usermodel.Cell;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class ExecutionTimeColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Execution (ms)";
-	protected static final String KEY_START = "startTimestamp";
-	protected static final String KEY_END = "endTimestamp";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("startTimestamp", "endTimestamp");
 
 	protected ExecutionTimeColumn() {
 	}
@@ -41,22 +41,32 @@ public class ExecutionTimeColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		Long start = getTimestamp(o, KEY_START);
-		Long end = null == start ? null : getTimestamp(o, KEY_END);
-		Long executionTime = null == end ? null : end - start;
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		Long executionTime = getExecutionTime(result);
 		doSomething(state, cell, executionTime);
+	}
 
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		Long executionTime = getExecutionTime(result);
+		return null == executionTime ? null : String.valueOf(executionTime);
 	}
 
-	protected Long getTimestamp(JsonObject o, String key) {
-		JsonElement element = o.get(key);
-		return null == element ? null : element.getAsLong();
+	protected Long getExecutionTime(ResultRecord result) {
+		Long start = result.getStartTimestamp();
+		Long end = null == start ? null : result.getEndTimestamp();
+		return null == end ? null : end - start;
 	}
 
 	protected void doSomething(State state, Cell cell, Long executionTime) {
 		if (null != executionTime) {
 			cell.setCellValue(executionTime);
+			state.getColumnWidths().update(cell, String.valueOf(executionTime));
 			state.setExecutionTime(cell, executionTime);
 		}
 	}
@@ -17,22 +17,21 @@ limitations under the License.
 package guru.qas.martini.report.column;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class FeatureNameColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Feature";
-	protected static final String KEY_FEATURE = "feature";
-	protected static final String KEY_NAME = "name";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("feature");
 
 	protected FeatureNameColumn() {
 	}
@@ -43,11 +42,20 @@ public class FeatureNameColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject result) {
-		JsonObject feature = state.getFeature(result);
-		JsonElement element = null == feature ? null : feature.get(KEY_NAME);
-		String name = null == element ? null : element.getAsString();
-		RichTextString richTextString = new XSSFRichTextString(name);
-		cell.setCellValue(richTextString);
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		String name = getValue(state, result);
+		cell.setCellValue(name);
+		state.getColumnWidths().update(cell, name);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		FeatureRecord feature = features.getFeature(result);
+		return null == feature ? null : feature.getName();
 	}
 }
@@ -17,22 +17,21 @@ limitations under the License.
 package guru.qas.martini.report.column;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class LocationColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Location";
-	protected static final String KEY_LINE = "line";
-	protected static final String KEY_LOCATION = "location";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("feature", "line");
 
 	protected LocationColumn() {
 	}
@@ -43,30 +42,32 @@ public class LocationColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		String line = getLine(o);
-		String relative = getResource(state, o);
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		String value = getValue(state, result);
+		cell.setCellValue(value);
+		state.getColumnWidths().update(cell, value);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		String line = result.getLine();
+		String relative = getResource(features, result);
 
 		StringBuilder builder = new StringBuilder(null == relative ? "" : relative);
 		if (null != line) {
 			int length = builder.length();
 			builder.append(length > 0 ? " line " : "line ").append(line);
 		}
-
-		String value = builder.toString();
-		RichTextString richTextString = new XSSFRichTextString(value);
-		cell.setCellValue(richTextString);
-		state.setStatus(cell, value);
-	}
-
-	protected String getLine(JsonObject o) {
-		JsonElement element = o.get(KEY_LINE);
-		return null == element ? null : element.getAsString();
+		return builder.toString();
 	}
 
-	protected String getResource(State state, JsonObject result) {
-		JsonObject feature = state.getFeature(result);
-		JsonElement element = feature.get(KEY_LOCATION);
-		return null == element ? null : element.getAsString();
+	protected String getResource(FeatureResolver features, ResultRecord result) {
+		FeatureRecord feature = features.getFeature(result);
+		return null == feature ? null : feature.getLocation();
 	}
 }
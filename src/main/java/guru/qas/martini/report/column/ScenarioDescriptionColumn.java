@@ -18,23 +18,31 @@ package guru.qas.martini.report.column;
 
 import org.apache.commons.text.WordUtils;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class ScenarioDescriptionColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Description";
-	protected static final String KEY = "description";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("description");
 
-	protected ScenarioDescriptionColumn() {
+	protected final int maximumWidth;
+	protected final StringStorage stringStorage;
+
+	protected ScenarioDescriptionColumn(
+		@Value("${traceability.column.description.width:60}") int maximumWidth,
+		@Value("${traceability.column.description.strings:INLINE}") StringStorage stringStorage
+	) {
+		this.maximumWidth = maximumWidth;
+		this.stringStorage = stringStorage;
 	}
 
 	@Override
@@ -43,12 +51,26 @@ public class ScenarioDescriptionColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		JsonElement element = o.get(KEY);
-		String description = element.isJsonPrimitive() ? element.getAsString() : null;
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public StringStorage getStringStorage() {
+		return stringStorage;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		String wrapped = getValue(state, result);
+		cell.setCellValue(wrapped);
+		state.getColumnWidths().update(cell, wrapped, maximumWidth);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		String description = result.getDescription();
 		String normalized = null == description ? null : description.trim().replaceAll("\\s+", " ");
-		String wrapped = WordUtils.wrap(normalized, 60);
-		RichTextString richTextString = new XSSFRichTextString(wrapped);
-		cell.setCellValue(richTextString);
+		return WordUtils.wrap(normalized, maximumWidth);
 	}
 }
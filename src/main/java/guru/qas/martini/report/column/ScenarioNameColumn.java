@@ -17,21 +17,20 @@ limitations under the License.
 package guru.qas.martini.report.column;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class ScenarioNameColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Scenario";
-	protected static final String KEY = "name";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("name");
 
 	protected ScenarioNameColumn() {
 	}
@@ -42,10 +41,19 @@ public class ScenarioNameColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		JsonPrimitive primitive = o.getAsJsonPrimitive("name");
-		String name = null == primitive ? null : primitive.getAsString();
-		RichTextString richTextString = new XSSFRichTextString(name);
-		cell.setCellValue(richTextString);
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		String name = getValue(state, result);
+		cell.setCellValue(name);
+		state.getColumnWidths().update(cell, name);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		return result.getName();
 	}
 }
@@ -17,21 +17,20 @@ limitations under the License.
 package guru.qas.martini.report.column;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class StatusColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Status";
-	protected static final String KEY = "status";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("status");
 
 	protected StatusColumn() {
 	}
@@ -42,12 +41,20 @@ public class StatusColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		JsonPrimitive primitive = o.getAsJsonPrimitive(KEY);
-		String status = null == primitive ? null : primitive.getAsString();
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
 
-		RichTextString richTextString = new XSSFRichTextString(status);
-		cell.setCellValue(richTextString);
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		String status = getValue(state, result);
+		cell.setCellValue(status);
+		state.getColumnWidths().update(cell, status);
 		state.setStatus(cell, status);
 	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		return result.getStatus();
+	}
 }
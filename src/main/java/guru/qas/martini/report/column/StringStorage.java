@@ -0,0 +1,35 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.column;
+
+/**
+ * Where a streamed workbook keeps a column's text.
+ */
+public enum StringStorage {
+
+	/**
+	 * Each distinct value is written once to the workbook's shared strings table and cells refer to it by index;
+	 * smallest for columns that repeat a few values, such as status, feature and themes.
+	 */
+	SHARED,
+
+	/**
+	 * Each value is written into its cell; faster and smaller for long or mostly distinct values, such as
+	 * exceptions and descriptions, and keeps them out of the shared strings held in memory until the end.
+	 */
+	INLINE
+}
@@ -17,21 +17,20 @@ limitations under the License.
 package guru.qas.martini.report.column;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class SuiteColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Suite";
-	protected static final String KEY_SUITE = "suite";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("suite");
 
 	protected SuiteColumn() {
 	}
@@ -42,10 +41,19 @@ public class SuiteColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject result) {
-		JsonElement element = result.get(KEY_SUITE);
-		String suite = null == element ? null : element.getAsString();
-		RichTextString richTextString = new XSSFRichTextString(suite);
-		cell.setCellValue(richTextString);
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		String suite = getValue(state, result);
+		cell.setCellValue(suite);
+		state.getColumnWidths().update(cell, suite);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		return result.getSuite();
 	}
 }
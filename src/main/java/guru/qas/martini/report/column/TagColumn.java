@@ -19,27 +19,22 @@ package guru.qas.martini.report.column;
 import java.util.List;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.springframework.stereotype.Component;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.TagRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class TagColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Tags";
-	protected static final String KEY_TAGS = "tags";
-	protected static final String KEY_NAME = "name";
-	protected static final String KEY_ARGUMENT = "argument";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("tags");
 
 	protected TagColumn() {
 	}
@@ -50,41 +45,43 @@ public class TagColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		JsonArray array = o.getAsJsonArray(KEY_TAGS);
-		if (null != array) {
-			addResult(cell, array);
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		List<TagRecord> tags = result.getTags();
+		if (null != tags) {
+			addResult(state, cell, tags);
 		}
 	}
 
-	protected void addResult(Cell cell, JsonArray array) {
+	protected void addResult(State state, Cell cell, List<TagRecord> tagRecords) {
+		String value = getValue(tagRecords);
+		cell.setCellValue(value);
+		state.getColumnWidths().update(cell, value);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		List<TagRecord> tags = result.getTags();
+		return null == tags ? null : getValue(tags);
+	}
 
-		int size = array.size();
-		List<String> tags = Lists.newArrayListWithExpectedSize(size);
-		for (int i = 0; i < size; i++) {
-			JsonElement element = array.get(i);
-			String tag = getTag(element);
+	protected String getValue(List<TagRecord> tagRecords) {
+		List<String> tags = Lists.newArrayListWithExpectedSize(tagRecords.size());
+		for (TagRecord tagRecord : tagRecords) {
+			String tag = getTag(tagRecord);
 			tags.add(tag);
 		}
-
-		String value = Joiner.on('\n').skipNulls().join(tags);
-		RichTextString richTextString = new XSSFRichTextString(value);
-		cell.setCellValue(richTextString);
+		return Joiner.on('\n').skipNulls().join(tags);
 	}
 
-	protected String getTag(JsonElement element) {
-		JsonObject entry = element.getAsJsonObject();
-		JsonElement nameElement = entry.get(KEY_NAME);
-		String name = null == nameElement ? null : nameElement.getAsString();
-
-		String tag = null;
-		if (null != name) {
-			JsonElement argumentElement = entry.get(KEY_ARGUMENT);
-			JsonPrimitive primitive = null != argumentElement && argumentElement.isJsonPrimitive() ?
-				argumentElement.getAsJsonPrimitive() : null;
-			String argument = null == primitive ? "" : String.format("\"%s\"", primitive.getAsString());
-			tag = String.format("@%s(%s)", name, argument);
-		}
-		return tag;
+	protected String getTag(TagRecord tag) {
+		String name = tag.getName();
+		String argument = tag.getArgument();
+		String formatted = null == argument ? "" : String.format("\"%s\"", argument);
+		return String.format("@%s(%s)", name, formatted);
 	}
 }
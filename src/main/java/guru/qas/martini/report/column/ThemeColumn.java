@@ -17,25 +17,23 @@ limitations under the License.
 package guru.qas.martini.report.column;
 
 import java.util.LinkedHashSet;
+import java.util.List;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.springframework.stereotype.Component;
 
 import com.google.common.base.Joiner;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-
+import com.google.common.collect.ImmutableSet;
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class ThemeColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Themes";
-	protected static final String KEY = "categories";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("categories");
 
 	protected ThemeColumn() {
 	}
@@ -46,28 +44,31 @@ public class ThemeColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		JsonArray categories = o.getAsJsonArray(KEY);
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
+
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		List<String> categories = result.getCategories();
 		if (null != categories) {
 			addResult(state, cell, categories);
 		}
 	}
 
-	protected void addResult(State state, Cell cell, JsonArray categories) {
-		int size = categories.size();
-
-		LinkedHashSet<String> ordered = new LinkedHashSet<>();
-
-		for (int i = 0; i < size; i++) {
-			JsonElement element = categories.get(i);
-			String category = element.getAsString();
-			ordered.add(category);
-		}
+	protected void addResult(State state, Cell cell, List<String> categories) {
+		LinkedHashSet<String> ordered = new LinkedHashSet<>(categories);
 
 		String value = Joiner.on("\n").join(ordered);
-		RichTextString richTextString = new XSSFRichTextString(value);
-		cell.setCellValue(richTextString);
+		cell.setCellValue(value);
+		state.getColumnWidths().update(cell, value);
 
 		state.setThemes(cell, ordered);
 	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		List<String> categories = result.getCategories();
+		return null == categories ? null : Joiner.on("\n").join(new LinkedHashSet<>(categories));
+	}
 }
@@ -17,22 +17,20 @@ limitations under the License.
 package guru.qas.martini.report.column;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class ThreadColumn implements TraceabilityColumn {
 
 	protected static final String LABEL = "Thread Group/Name";
-	protected static final String KEY_GROUP = "threadGroup";
-	protected static final String KEY_NAME = "thread";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("threadGroup", "thread");
 
 	protected ThreadColumn() {
 	}
@@ -43,16 +41,25 @@ public class ThreadColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		JsonPrimitive primitive = o.getAsJsonPrimitive(KEY_GROUP);
-		String group = null == primitive ? "" : primitive.getAsString();
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
+	}
 
-		primitive = o.getAsJsonPrimitive(KEY_NAME);
-		String thread = null == primitive ? "" : primitive.getAsString();
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		String value = getValue(state, result);
+		cell.setCellValue(value);
+		state.getColumnWidths().update(cell, value);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		String threadGroup = result.getThreadGroup();
+		String group = null == threadGroup ? "" : threadGroup;
 
-		String value = group.isEmpty() ? thread : String.format("%s %s", group, thread);
+		String threadName = result.getThread();
+		String thread = null == threadName ? "" : threadName;
 
-		RichTextString richTextString = new XSSFRichTextString(value);
-		cell.setCellValue(richTextString);
+		return group.isEmpty() ? thread : String.format("%s %s", group, thread);
 	}
 }
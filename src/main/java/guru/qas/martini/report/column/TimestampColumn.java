@@ -19,26 +19,26 @@ package guru.qas.martini.report.column;
 import java.util.Date;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.common.collect.ImmutableSet;
 
+import guru.qas.martini.report.FeatureResolver;
 import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
 
 @SuppressWarnings("WeakerAccess")
 @Component
 public class TimestampColumn implements TraceabilityColumn {
-	protected static final Logger LOGGER = LoggerFactory.getLogger(TimestampColumn.class);
 
 	protected static final String LABEL = "Timestamp";
-	protected static final String KEY = "startTimestamp";
+	protected static final ImmutableSet<String> PATHS = ImmutableSet.of("startTimestamp");
 
-	protected TimestampColumn() {
+	protected final StringStorage stringStorage;
+
+	protected TimestampColumn(@Value("${traceability.column.timestamp.strings:INLINE}") StringStorage stringStorage) {
+		this.stringStorage = stringStorage;
 	}
 
 	@Override
@@ -47,27 +47,37 @@ public class TimestampColumn implements TraceabilityColumn {
 	}
 
 	@Override
-	public void addResult(State state, Cell cell, JsonObject o) {
-		JsonPrimitive primitive = o.getAsJsonPrimitive(KEY);
-		if (null != primitive) {
-			addResult(cell, primitive);
-		}
+	public ImmutableSet<String> getPaths() {
+		return PATHS;
 	}
 
-	protected void addResult(Cell cell, JsonPrimitive primitive) {
-		String timestamp = primitive.getAsString();
+	@Override
+	public StringStorage getStringStorage() {
+		return stringStorage;
+	}
 
-		String value;
-		try {
-			Date date = new Date(Long.parseLong(timestamp));
-			value = String.format("%s\n(%s)", timestamp, date);
-		}
-		catch (NumberFormatException e) {
-			value = timestamp;
-			LOGGER.warn("unable to parse '{}' to a long", timestamp, e);
+	@Override
+	public void addResult(State state, Cell cell, ResultRecord result) {
+		Long timestamp = result.getStartTimestamp();
+		if (null != timestamp) {
+			addResult(state, cell, timestamp);
 		}
+	}
+
+	protected void addResult(State state, Cell cell, long timestamp) {
+		String value = getValue(timestamp);
+		cell.setCellValue(value);
+		state.getColumnWidths().update(cell, value);
+	}
+
+	@Override
+	public String getValue(FeatureResolver features, ResultRecord result) {
+		Long timestamp = result.getStartTimestamp();
+		return null == timestamp ? null : getValue(timestamp);
+	}
 
-		RichTextString richTextString = new XSSFRichTextString(value);
-		cell.setCellValue(richTextString);
+	protected String getValue(long timestamp) {
+		Date date = new Date(timestamp);
+		return String.format("%s\n(%s)", timestamp, date);
 	}
 }
@@ -16,14 +16,35 @@ limitations under the License.
 
 package guru.qas.martini.report.column;
 
-import com.google.gson.JsonObject;
+import java.util.Set;
 
-import guru.qas.martini.report.State;
 import org.apache.poi.ss.usermodel.Cell;
 
+import guru.qas.martini.report.FeatureResolver;
+import guru.qas.martini.report.State;
+import guru.qas.martini.report.record.ResultRecord;
+
 @SuppressWarnings("WeakerAccess")
 public interface TraceabilityColumn {
 	String getLabel();
 
-	void addResult(State state, Cell cell, JsonObject o);
+	/**
+	 * @return dotted JSON paths, relative to the martini result object, this column reads; anything
+	 * no configured column declares is skipped while parsing
+	 */
+	Set<String> getPaths();
+
+	void addResult(State state, Cell cell, ResultRecord result);
+
+	/**
+	 * @return the text this column reports for the result in formats other than workbooks, or null when empty
+	 */
+	String getValue(FeatureResolver features, ResultRecord result);
+
+	/**
+	 * @return where streamed workbooks keep this column's text; in-memory workbooks always share strings
+	 */
+	default StringStorage getStringStorage() {
+		return StringStorage.SHARED;
+	}
 }
@@ -0,0 +1,65 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.html;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Configurable;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import guru.qas.martini.report.column.TraceabilityColumn;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Static HTML report of the configured columns: an index page with a virtualized results table that loads
+ * the results in chunks as they scroll into view and filters them by status, theme and feature.
+ */
+@SuppressWarnings("WeakerAccess")
+@Configurable
+public class HtmlReport {
+
+	/**
+	 * Result fields read for filtering, beyond those the columns declare.
+	 */
+	public static final ImmutableSet<String> PATHS = ImmutableSet.of("feature", "status", "categories");
+
+	protected final ImmutableList<TraceabilityColumn> columns;
+	protected final int chunkSize;
+
+	@Autowired
+	protected HtmlReport(
+		Iterable<TraceabilityColumn> columns,
+		@Value("${traceability.html.chunk:1000}") int chunkSize
+	) {
+		checkArgument(chunkSize > 0, "chunk size must be greater than zero, found %s", chunkSize);
+		this.columns = ImmutableList.copyOf(columns);
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param directory receives index.html and a data directory of chunk files; created if missing
+	 */
+	public HtmlReportWriter open(Path directory) throws IOException {
+		return new HtmlReportWriter(columns, chunkSize, directory);
+	}
+}
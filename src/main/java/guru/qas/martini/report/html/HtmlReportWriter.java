@@ -0,0 +1,236 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.html;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.stream.JsonWriter;
+
+import guru.qas.martini.report.FeatureResolver;
+import guru.qas.martini.report.column.TraceabilityColumn;
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Streams results into the files behind an {@link HtmlReport}. Column values are buffered one chunk at a
+ * time and written as a script holding the chunk's distinct strings once and each value as an index into
+ * them. The status, feature and themes of every result are appended to a single facets script as they
+ * arrive, indexed into dictionaries that grow with the number of distinct values rather than results.
+ * Data files are scripts rather than JSON so the page also works when opened straight from disk.
+ */
+@SuppressWarnings("WeakerAccess")
+public class HtmlReportWriter implements Closeable, FeatureResolver {
+
+	public static final String INDEX = "index.html";
+	public static final String DATA = "data";
+	public static final String MANIFEST = "manifest.js";
+	public static final String FACETS = "facets.js";
+
+	protected static final String PAGE = "/guru/qas/martini/report/html/index.html";
+
+	protected final ImmutableList<TraceabilityColumn> columns;
+	protected final int chunkSize;
+	protected final Path directory;
+	protected final Path data;
+	protected final Map<String, FeatureRecord> features;
+	protected final Map<String, Integer> statusIds;
+	protected final Map<String, Integer> featureIds;
+	protected final Map<String, Integer> themeIds;
+	protected final Map<String, Integer> strings;
+	protected final List<Integer> values;
+	protected final List<Integer> statuses;
+	protected final Writer facetWriter;
+	protected final JsonWriter facets;
+
+	private int rows;
+	private int chunks;
+	private boolean closed;
+
+	protected HtmlReportWriter(Iterable<TraceabilityColumn> columns, int chunkSize, Path directory) throws IOException {
+		this.columns = ImmutableList.copyOf(columns);
+		checkArgument(chunkSize > 0, "chunk size must be greater than zero, found %s", chunkSize);
+		this.chunkSize = chunkSize;
+		this.directory = checkNotNull(directory, "null Path");
+		data = Files.createDirectories(directory.resolve(DATA));
+		features = Maps.newHashMap();
+		statusIds = Maps.newLinkedHashMap();
+		featureIds = Maps.newLinkedHashMap();
+		themeIds = Maps.newLinkedHashMap();
+		strings = Maps.newLinkedHashMap();
+		values = Lists.newArrayListWithCapacity(chunkSize * this.columns.size());
+		statuses = Lists.newArrayListWithCapacity(chunkSize);
+
+		facetWriter = Files.newBufferedWriter(data.resolve(FACETS), UTF_8);
+		facetWriter.write("martini.facets(");
+		facets = new JsonWriter(facetWriter);
+		facets.beginArray();
+	}
+
+	@Override
+	public FeatureRecord getFeature(ResultRecord result) {
+		String id = result.getFeature();
+		return null == id ? null : features.get(id);
+	}
+
+	public void add(ReportRecord record) throws IOException {
+		checkNotNull(record, "null ReportRecord");
+		checkState(!closed, "writer already closed");
+		switch (record.getType()) {
+			case FEATURE:
+				FeatureRecord feature = FeatureRecord.class.cast(record);
+				features.put(feature.getId(), feature);
+				break;
+			case RESULT:
+				add(ResultRecord.class.cast(record));
+				break;
+			default:
+				break;
+		}
+	}
+
+	protected void add(ResultRecord result) throws IOException {
+		for (TraceabilityColumn column : columns) {
+			String value = column.getValue(this, result);
+			values.add(null == value ? -1 : strings.computeIfAbsent(value, key -> strings.size()));
+		}
+
+		int status = getId(statusIds, result.getStatus());
+		statuses.add(status);
+		addFacets(result, status);
+
+		rows++;
+		if (statuses.size() == chunkSize) {
+			writeChunk();
+		}
+	}
+
+	/**
+	 * Appends the status, feature, theme count and themes of the result to the flat facets array.
+	 */
+	protected void addFacets(ResultRecord result, int status) throws IOException {
+		FeatureRecord feature = getFeature(result);
+		facets.value(status);
+		facets.value(getId(featureIds, null == feature ? null : feature.getName()));
+
+		List<String> categories = result.getCategories();
+		List<String> themes = null == categories ? ImmutableList.of() : categories;
+		facets.value(themes.size());
+		for (String theme : themes) {
+			facets.value(getId(themeIds, theme));
+		}
+	}
+
+	protected static int getId(Map<String, Integer> dictionary, String value) {
+		return null == value ? -1 : dictionary.computeIfAbsent(value, key -> dictionary.size());
+	}
+
+	protected void writeChunk() throws IOException {
+		Path path = data.resolve(String.format("chunk-%s.js", chunks));
+		try (Writer writer = Files.newBufferedWriter(path, UTF_8)) {
+			writer.write(String.format("martini.chunk(%s,", chunks));
+			JsonWriter json = new JsonWriter(writer);
+			json.beginObject();
+			writeArray(json.name("strings"), strings.keySet());
+			json.name("values").beginArray();
+			for (Integer value : values) {
+				json.value(value);
+			}
+			json.endArray();
+			json.name("status").beginArray();
+			for (Integer status : statuses) {
+				json.value(status);
+			}
+			json.endArray();
+			json.endObject();
+			json.flush();
+			writer.write(");\n");
+		}
+
+		chunks++;
+		strings.clear();
+		values.clear();
+		statuses.clear();
+	}
+
+	protected static void writeArray(JsonWriter json, Iterable<String> values) throws IOException {
+		json.beginArray();
+		for (String value : values) {
+			json.value(value);
+		}
+		json.endArray();
+	}
+
+	/**
+	 * Writes the last chunk, the manifest describing the columns, chunks and filter values, and the page.
+	 */
+	public void finish() throws IOException {
+		checkState(!closed, "writer already closed");
+		if (!statuses.isEmpty()) {
+			writeChunk();
+		}
+		facets.endArray();
+		facets.flush();
+		facetWriter.write(");\n");
+		facetWriter.flush();
+
+		try (Writer writer = Files.newBufferedWriter(data.resolve(MANIFEST), UTF_8)) {
+			writer.write("martini.manifest(");
+			JsonWriter json = new JsonWriter(writer);
+			json.beginObject();
+			List<String> labels = Lists.newArrayListWithCapacity(columns.size());
+			columns.forEach(column -> labels.add(column.getLabel()));
+			writeArray(json.name("columns"), labels);
+			json.name("rows").value(rows);
+			json.name("chunkSize").value(chunkSize);
+			json.name("chunks").value(chunks);
+			writeArray(json.name("statuses"), statusIds.keySet());
+			writeArray(json.name("features"), featureIds.keySet());
+			writeArray(json.name("themes"), themeIds.keySet());
+			json.endObject();
+			json.flush();
+			writer.write(");\n");
+		}
+
+		try (InputStream page = HtmlReportWriter.class.getResourceAsStream(PAGE)) {
+			checkState(null != page, "missing %s", PAGE);
+			Files.copy(page, directory.resolve(INDEX), REPLACE_EXISTING);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			facetWriter.close();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import guru.qas.martini.report.JsonObjectType;
+
+@SuppressWarnings("WeakerAccess")
+public final class FeatureRecord implements ReportRecord {
+
+	private final String id;
+	private final String name;
+	private final String description;
+	private final String location;
+
+	private FeatureRecord(Builder builder) {
+		this.id = builder.id;
+		this.name = builder.name;
+		this.description = builder.description;
+		this.location = builder.location;
+	}
+
+	@Override
+	public JsonObjectType getType() {
+		return JsonObjectType.FEATURE;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+
+		private String id;
+		private String name;
+		private String description;
+		private String location;
+
+		private Builder() {
+		}
+
+		public Builder setId(String id) {
+			this.id = id;
+			return this;
+		}
+
+		public Builder setName(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public Builder setDescription(String description) {
+			this.description = description;
+			return this;
+		}
+
+		public Builder setLocation(String location) {
+			this.location = location;
+			return this;
+		}
+
+		public FeatureRecord build() {
+			return new FeatureRecord(this);
+		}
+	}
+}
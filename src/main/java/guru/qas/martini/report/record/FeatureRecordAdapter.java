@@ -0,0 +1,78 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.IOException;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@SuppressWarnings("WeakerAccess")
+public class FeatureRecordAdapter extends RecordAdapter<FeatureRecord> {
+
+	protected static final String KEY_ID = "id";
+	protected static final String KEY_NAME = "name";
+	protected static final String KEY_DESCRIPTION = "description";
+	protected static final String KEY_LOCATION = "location";
+
+	protected final Interner<String> interner;
+
+	public FeatureRecordAdapter() {
+		this(Interners.newWeakInterner());
+	}
+
+	public FeatureRecordAdapter(Interner<String> interner) {
+		this.interner = checkNotNull(interner, "null Interner");
+	}
+
+	@Override
+	protected FeatureRecord readObject(JsonReader reader) throws IOException {
+		FeatureRecord.Builder builder = FeatureRecord.builder();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			switch (name) {
+				case KEY_ID:
+					builder.setId(readString(reader, interner));
+					break;
+				case KEY_NAME:
+					builder.setName(readString(reader));
+					break;
+				case KEY_DESCRIPTION:
+					builder.setDescription(readString(reader));
+					break;
+				case KEY_LOCATION:
+					builder.setLocation(readString(reader));
+					break;
+				default:
+					reader.skipValue();
+			}
+		}
+		return builder.build();
+	}
+
+	@Override
+	protected void writeObject(JsonWriter writer, FeatureRecord feature) throws IOException {
+		writer.name(KEY_ID).value(feature.getId());
+		writer.name(KEY_NAME).value(feature.getName());
+		writer.name(KEY_DESCRIPTION).value(feature.getDescription());
+		writer.name(KEY_LOCATION).value(feature.getLocation());
+	}
+}
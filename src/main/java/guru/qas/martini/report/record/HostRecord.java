@@ -0,0 +1,43 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+@SuppressWarnings("WeakerAccess")
+public final class HostRecord {
+
+	private final String name;
+	private final String ip;
+	private final String username;
+
+	public HostRecord(String name, String ip, String username) {
+		this.name = name;
+		this.ip = ip;
+		this.username = username;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getIp() {
+		return ip;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+}
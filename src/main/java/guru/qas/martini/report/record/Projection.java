@@ -0,0 +1,139 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Dotted JSON paths, relative to a record, that a report actually reads. Fields outside the
+ * projection are skipped at the token level. A path without nested paths selects its whole subtree.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Projection {
+
+	private static final Projection ALL = new Projection(null, ImmutableSet.of());
+	private static final Splitter SPLITTER = Splitter.on('.').trimResults().omitEmptyStrings();
+
+	private final ImmutableMap<String, Projection> children;
+	private final ImmutableSet<String> paths;
+
+	private Projection(ImmutableMap<String, Projection> children, ImmutableSet<String> paths) {
+		this.children = children;
+		this.paths = paths;
+	}
+
+	public boolean isAll() {
+		return null == children;
+	}
+
+	public boolean includes(String key) {
+		return isAll() || children.containsKey(key);
+	}
+
+	public Projection get(String key) {
+		Projection child = isAll() ? ALL : children.get(key);
+		return null == child ? new Projection(ImmutableMap.of(), ImmutableSet.of()) : child;
+	}
+
+	/**
+	 * @return the dotted paths this projection was built from, empty for {@link #all()}
+	 */
+	public ImmutableSet<String> getPaths() {
+		return paths;
+	}
+
+	/**
+	 * @return a projection also including the given paths
+	 */
+	public Projection union(Iterable<String> additional) {
+		checkNotNull(additional, "null Iterable");
+		return isAll() ? this : of(Iterables.concat(paths, additional));
+	}
+
+	@Override
+	public String toString() {
+		return isAll() ? "*" : children.toString();
+	}
+
+	public static Projection all() {
+		return ALL;
+	}
+
+	public static Projection of(String... paths) {
+		return of(Arrays.asList(paths));
+	}
+
+	public static Projection of(Iterable<String> paths) {
+		checkNotNull(paths, "null Iterable");
+		Node root = new Node();
+		for (String path : paths) {
+			checkNotNull(path, "null String");
+			List<String> keys = SPLITTER.splitToList(path);
+			root.add(keys);
+		}
+		return root.build();
+	}
+
+	private static final class Node {
+
+		private final Map<String, Node> children = Maps.newLinkedHashMap();
+		private boolean all;
+
+		private void add(List<String> keys) {
+			if (keys.isEmpty()) {
+				all = true;
+			}
+			else {
+				Node child = children.computeIfAbsent(keys.get(0), key -> new Node());
+				child.add(keys.subList(1, keys.size()));
+			}
+		}
+
+		private Projection build() {
+			Projection projection = ALL;
+			if (!all) {
+				ImmutableMap.Builder<String, Projection> builder = ImmutableMap.builder();
+				children.forEach((key, child) -> builder.put(key, child.build()));
+				projection = new Projection(builder.build(), getPaths());
+			}
+			return projection;
+		}
+
+		private ImmutableSet<String> getPaths() {
+			ImmutableSet.Builder<String> paths = ImmutableSet.builder();
+			children.forEach((key, child) -> {
+				if (child.all) {
+					paths.add(key);
+				}
+				else {
+					child.getPaths().forEach(path -> paths.add(key + '.' + path));
+				}
+			});
+			return paths.build();
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Base for adapters decoding Martini records directly from the token stream. Values of an unexpected
+ * shape are skipped rather than failing the whole report.
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class RecordAdapter<T> extends TypeAdapter<T> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RecordAdapter.class);
+
+	@Override
+	public T read(JsonReader reader) throws IOException {
+		T record = null;
+		JsonToken peek = reader.peek();
+		if (JsonToken.BEGIN_OBJECT == peek) {
+			reader.beginObject();
+			record = readObject(reader);
+			reader.endObject();
+		}
+		else {
+			reader.skipValue();
+		}
+		return record;
+	}
+
+	protected abstract T readObject(JsonReader reader) throws IOException;
+
+	@Override
+	public void write(JsonWriter writer, T record) throws IOException {
+		if (null == record) {
+			writer.nullValue();
+		}
+		else {
+			writer.beginObject();
+			writeObject(writer, record);
+			writer.endObject();
+		}
+	}
+
+	protected abstract void writeObject(JsonWriter writer, T record) throws IOException;
+
+	protected static String readString(JsonReader reader) throws IOException {
+		String value = null;
+		switch (reader.peek()) {
+			case STRING:
+			case NUMBER:
+				value = reader.nextString();
+				break;
+			case BOOLEAN:
+				value = String.valueOf(reader.nextBoolean());
+				break;
+			default:
+				reader.skipValue();
+		}
+		return value;
+	}
+
+	protected static String readString(JsonReader reader, Interner<String> interner) throws IOException {
+		String value = readString(reader);
+		return null == value ? null : interner.intern(value);
+	}
+
+	protected static Long readLong(JsonReader reader) throws IOException {
+		String value = readString(reader);
+
+		Long parsed = null;
+		if (null != value) {
+			try {
+				parsed = Long.parseLong(value.trim());
+			}
+			catch (NumberFormatException e) {
+				LOGGER.warn("unable to parse '{}' to a long", value, e);
+			}
+		}
+		return parsed;
+	}
+
+	protected static List<String> readStrings(JsonReader reader) throws IOException {
+		return readStrings(reader, null);
+	}
+
+	/**
+	 * @param interner canonicalizes each element, or null to keep the decoded values
+	 */
+	protected static List<String> readStrings(JsonReader reader, Interner<String> interner) throws IOException {
+		List<String> values = null;
+		if (JsonToken.BEGIN_ARRAY == reader.peek()) {
+			values = Lists.newArrayList();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				String value = null == interner ? readString(reader) : readString(reader, interner);
+				if (null != value) {
+					values.add(value);
+				}
+			}
+			reader.endArray();
+		}
+		else {
+			reader.skipValue();
+		}
+		return values;
+	}
+
+	protected static Map<String, String> readStringMap(JsonReader reader) throws IOException {
+		Map<String, String> values = null;
+		if (JsonToken.BEGIN_OBJECT == reader.peek()) {
+			values = Maps.newLinkedHashMap();
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				String value = readString(reader);
+				values.put(name, null == value ? "" : value);
+			}
+			reader.endObject();
+		}
+		else {
+			reader.skipValue();
+		}
+		return values;
+	}
+
+	protected static <E> List<E> readObjects(JsonReader reader, RecordAdapter<E> adapter) throws IOException {
+		List<E> values = null;
+		if (JsonToken.BEGIN_ARRAY == reader.peek()) {
+			values = Lists.newArrayList();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				E value = adapter.read(reader);
+				if (null != value) {
+					values.add(value);
+				}
+			}
+			reader.endArray();
+		}
+		else {
+			reader.skipValue();
+		}
+		return values;
+	}
+
+	protected static void writeStrings(JsonWriter writer, String name, List<String> values) throws IOException {
+		writer.name(name);
+		if (null == values) {
+			writer.nullValue();
+		}
+		else {
+			writer.beginArray();
+			for (String value : values) {
+				writer.value(value);
+			}
+			writer.endArray();
+		}
+	}
+
+	protected static <E> void writeObjects(
+		JsonWriter writer,
+		String name,
+		List<E> values,
+		RecordAdapter<E> adapter
+	) throws IOException {
+		writer.name(name);
+		if (null == values) {
+			writer.nullValue();
+		}
+		else {
+			writer.beginArray();
+			for (E value : values) {
+				adapter.write(writer, value);
+			}
+			writer.endArray();
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import guru.qas.martini.report.JsonObjectType;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static guru.qas.martini.report.record.RecordEncoder.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads records written by {@link RecordEncoder}. Repeated strings are returned as the same instance.
+ */
+@SuppressWarnings("WeakerAccess")
+public class RecordDecoder {
+
+	protected final DataInput input;
+	protected final List<String> strings;
+
+	public RecordDecoder(DataInput input) {
+		this.input = checkNotNull(input, "null DataInput");
+		strings = Lists.newArrayList();
+	}
+
+	/**
+	 * @return the next record, or null at the end of the stream
+	 */
+	public ReportRecord read() throws IOException {
+		int marker = input.readUnsignedByte();
+		ReportRecord record = null;
+		if (END != marker) {
+			JsonObjectType[] types = JsonObjectType.values();
+			if (marker > types.length) {
+				throw new IOException("unrecognized record type " + marker);
+			}
+			switch (types[marker - 1]) {
+				case SUITE:
+					record = readSuite();
+					break;
+				case FEATURE:
+					record = readFeature();
+					break;
+				case RESULT:
+					record = readResult();
+					break;
+				default:
+					throw new IOException("unrecognized record type " + marker);
+			}
+		}
+		return record;
+	}
+
+	protected SuiteRecord readSuite() throws IOException {
+		SuiteRecord.Builder builder = SuiteRecord.builder()
+			.setId(readString())
+			.setStartTimestamp(readLong())
+			.setName(readString());
+
+		if (input.readBoolean()) {
+			builder.setHost(new HostRecord(readString(), readString(), readString()));
+		}
+		builder.setProfiles(readStrings());
+
+		int size = readSize();
+		if (size >= 0) {
+			Map<String, String> environment = Maps.newLinkedHashMap();
+			for (int i = 0; i < size; i++) {
+				environment.put(readString(), readString());
+			}
+			builder.setEnvironment(environment);
+		}
+		return builder.build();
+	}
+
+	protected FeatureRecord readFeature() throws IOException {
+		return FeatureRecord.builder()
+			.setId(readString())
+			.setName(readString())
+			.setDescription(readString())
+			.setLocation(readString())
+			.build();
+	}
+
+	protected ResultRecord readResult() throws IOException {
+		ResultRecord.Builder builder = ResultRecord.builder()
+			.setSuite(readString())
+			.setFeature(readString())
+			.setId(readString())
+			.setName(readString())
+			.setDescription(readString())
+			.setLine(readString())
+			.setStatus(readString())
+			.setThreadGroup(readString())
+			.setThread(readString())
+			.setStartTimestamp(readLong())
+			.setEndTimestamp(readLong())
+			.setCategories(readStrings());
+
+		int tagCount = readSize();
+		if (tagCount >= 0) {
+			List<TagRecord> tags = Lists.newArrayListWithCapacity(tagCount);
+			for (int i = 0; i < tagCount; i++) {
+				tags.add(new TagRecord(readString(), readString()));
+			}
+			builder.setTags(tags);
+		}
+
+		int stepCount = readSize();
+		if (stepCount >= 0) {
+			List<StepRecord> steps = Lists.newArrayListWithCapacity(stepCount);
+			for (int i = 0; i < stepCount; i++) {
+				steps.add(StepRecord.builder()
+					.setStartTimestamp(readLong())
+					.setEndTimestamp(readLong())
+					.setKeyword(readString())
+					.setText(readString())
+					.setLine(readString())
+					.setStatus(readString())
+					.setException(readString())
+					.build());
+			}
+			builder.setSteps(steps);
+		}
+		return builder.build();
+	}
+
+	protected String readString() throws IOException {
+		long marker = readVarLong();
+		String value = null;
+		if (LITERAL == marker) {
+			byte[] bytes = new byte[checkedInt(readVarLong())];
+			input.readFully(bytes);
+			value = new String(bytes, UTF_8);
+			strings.add(value);
+		}
+		else if (NULL != marker) {
+			long index = marker - REFERENCE_OFFSET;
+			if (index >= strings.size()) {
+				throw new IOException("string reference " + index + " out of range");
+			}
+			value = strings.get((int) index);
+		}
+		return value;
+	}
+
+	protected List<String> readStrings() throws IOException {
+		int size = readSize();
+		List<String> values = null;
+		if (size >= 0) {
+			values = Lists.newArrayListWithCapacity(size);
+			for (int i = 0; i < size; i++) {
+				values.add(readString());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @return -1 for an absent collection
+	 */
+	protected int readSize() throws IOException {
+		return checkedInt(readVarLong()) - 1;
+	}
+
+	protected Long readLong() throws IOException {
+		long encoded = readVarLong();
+		Long value = null;
+		if (0 != encoded) {
+			long zigzag = encoded - 1;
+			value = (zigzag >>> 1) ^ -(zigzag & 1);
+		}
+		return value;
+	}
+
+	protected long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if (0 == (b & 0x80)) {
+				return value;
+			}
+		}
+		throw new IOException("malformed variable-length integer");
+	}
+
+	private static int checkedInt(long value) throws IOException {
+		if (value < 0 || value > Integer.MAX_VALUE) {
+			throw new IOException("length " + value + " out of range");
+		}
+		return (int) value;
+	}
+}
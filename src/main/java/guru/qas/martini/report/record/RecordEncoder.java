@@ -0,0 +1,195 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import guru.qas.martini.report.JsonObjectType;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes records in a compact binary form read back by {@link RecordDecoder}. Each distinct string is
+ * written once per stream and referred to by index afterwards; numbers are written as variable-length
+ * integers. The stream ends with {@link #finish()}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class RecordEncoder {
+
+	static final int END = 0;
+	static final int NULL = 0;
+	static final int LITERAL = 1;
+	static final int REFERENCE_OFFSET = 2;
+
+	protected final DataOutput output;
+	protected final Map<String, Integer> strings;
+
+	public RecordEncoder(DataOutput output) {
+		this.output = checkNotNull(output, "null DataOutput");
+		strings = Maps.newHashMap();
+	}
+
+	public void write(ReportRecord record) throws IOException {
+		checkNotNull(record, "null ReportRecord");
+		JsonObjectType type = record.getType();
+		output.writeByte(type.ordinal() + 1);
+		switch (type) {
+			case SUITE:
+				write(SuiteRecord.class.cast(record));
+				break;
+			case FEATURE:
+				write(FeatureRecord.class.cast(record));
+				break;
+			case RESULT:
+				write(ResultRecord.class.cast(record));
+				break;
+			default:
+				throw new IllegalArgumentException("unrecognized record type " + type);
+		}
+	}
+
+	public void finish() throws IOException {
+		output.writeByte(END);
+	}
+
+	protected void write(SuiteRecord suite) throws IOException {
+		writeString(suite.getId());
+		writeLong(suite.getStartTimestamp());
+		writeString(suite.getName());
+
+		HostRecord host = suite.getHost();
+		output.writeBoolean(null != host);
+		if (null != host) {
+			writeString(host.getName());
+			writeString(host.getIp());
+			writeString(host.getUsername());
+		}
+
+		writeStrings(suite.getProfiles());
+		Map<String, String> environment = suite.getEnvironment();
+		writeSize(null == environment ? -1 : environment.size());
+		if (null != environment) {
+			for (Map.Entry<String, String> entry : environment.entrySet()) {
+				writeString(entry.getKey());
+				writeString(entry.getValue());
+			}
+		}
+	}
+
+	protected void write(FeatureRecord feature) throws IOException {
+		writeString(feature.getId());
+		writeString(feature.getName());
+		writeString(feature.getDescription());
+		writeString(feature.getLocation());
+	}
+
+	protected void write(ResultRecord result) throws IOException {
+		writeString(result.getSuite());
+		writeString(result.getFeature());
+		writeString(result.getId());
+		writeString(result.getName());
+		writeString(result.getDescription());
+		writeString(result.getLine());
+		writeString(result.getStatus());
+		writeString(result.getThreadGroup());
+		writeString(result.getThread());
+		writeLong(result.getStartTimestamp());
+		writeLong(result.getEndTimestamp());
+		writeStrings(result.getCategories());
+
+		List<TagRecord> tags = result.getTags();
+		writeSize(null == tags ? -1 : tags.size());
+		if (null != tags) {
+			for (TagRecord tag : tags) {
+				writeString(tag.getName());
+				writeString(tag.getArgument());
+			}
+		}
+
+		List<StepRecord> steps = result.getSteps();
+		writeSize(null == steps ? -1 : steps.size());
+		if (null != steps) {
+			for (StepRecord step : steps) {
+				writeLong(step.getStartTimestamp());
+				writeLong(step.getEndTimestamp());
+				writeString(step.getKeyword());
+				writeString(step.getText());
+				writeString(step.getLine());
+				writeString(step.getStatus());
+				writeString(step.getException());
+			}
+		}
+	}
+
+	protected void writeString(String value) throws IOException {
+		if (null == value) {
+			writeVarLong(NULL);
+		}
+		else {
+			Integer index = strings.get(value);
+			if (null == index) {
+				strings.put(value, strings.size());
+				byte[] bytes = value.getBytes(UTF_8);
+				writeVarLong(LITERAL);
+				writeVarLong(bytes.length);
+				output.write(bytes);
+			}
+			else {
+				writeVarLong(index + REFERENCE_OFFSET);
+			}
+		}
+	}
+
+	protected void writeStrings(List<String> values) throws IOException {
+		writeSize(null == values ? -1 : values.size());
+		if (null != values) {
+			for (String value : values) {
+				writeString(value);
+			}
+		}
+	}
+
+	/**
+	 * Writes -1 for an absent collection.
+	 */
+	protected void writeSize(int size) throws IOException {
+		writeVarLong(size + 1L);
+	}
+
+	/**
+	 * Writes null as zero and every other value zigzag encoded and offset by one, so Long.MIN_VALUE reads
+	 * back as null.
+	 */
+	protected void writeLong(Long value) throws IOException {
+		writeVarLong(null == value ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+	}
+
+	protected void writeVarLong(long value) throws IOException {
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			output.writeByte((int) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+		output.writeByte((int) remaining);
+	}
+}
@@ -0,0 +1,151 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import guru.qas.martini.report.JsonObjectType;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads top-level suite, feature and martini objects, whether they appear as elements of one or more
+ * arrays or as consecutive values.
+ */
+@SuppressWarnings("WeakerAccess")
+public class RecordIterator implements Iterator<ReportRecord> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RecordIterator.class);
+
+	protected final JsonReader reader;
+	protected final TypeAdapter<SuiteRecord> suiteAdapter;
+	protected final TypeAdapter<FeatureRecord> featureAdapter;
+	protected final TypeAdapter<ResultRecord> resultAdapter;
+
+	private ReportRecord next;
+	private boolean exhausted;
+
+	public RecordIterator(Gson gson, JsonReader reader) {
+		checkNotNull(gson, "null Gson");
+		this.reader = checkNotNull(reader, "null JsonReader");
+		suiteAdapter = gson.getAdapter(SuiteRecord.class);
+		featureAdapter = gson.getAdapter(FeatureRecord.class);
+		resultAdapter = gson.getAdapter(ResultRecord.class);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (null == next && !exhausted) {
+			try {
+				next = advance();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return null != next;
+	}
+
+	@Override
+	public ReportRecord next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		ReportRecord record = next;
+		next = null;
+		return record;
+	}
+
+	protected ReportRecord advance() throws IOException {
+		ReportRecord record = null;
+		while (null == record && !exhausted) {
+			JsonToken peek = reader.peek();
+			switch (peek) {
+				case BEGIN_ARRAY:
+					reader.beginArray();
+					break;
+				case END_ARRAY:
+					reader.endArray();
+					break;
+				case BEGIN_OBJECT:
+					record = readRecord();
+					break;
+				case END_DOCUMENT:
+					exhausted = true;
+					break;
+				default:
+					String path = reader.getPath();
+					reader.skipValue();
+					LOGGER.warn("skipping unhandled {} at {}", peek, path);
+			}
+		}
+		return record;
+	}
+
+	protected ReportRecord readRecord() throws IOException {
+		String path = reader.getPath();
+
+		ReportRecord record = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			JsonObjectType type = null == record ? JsonObjectType.forKey(name) : null;
+			if (null == type) {
+				reader.skipValue();
+			}
+			else {
+				record = readRecord(type);
+			}
+		}
+		reader.endObject();
+
+		if (null == record) {
+			LOGGER.warn("skipping unrecognized object at {}", path);
+		}
+		return record;
+	}
+
+	protected ReportRecord readRecord(JsonObjectType type) throws IOException {
+		ReportRecord record;
+		switch (type) {
+			case SUITE:
+				record = suiteAdapter.read(reader);
+				break;
+			case FEATURE:
+				record = featureAdapter.read(reader);
+				break;
+			case RESULT:
+				record = resultAdapter.read(reader);
+				break;
+			default:
+				reader.skipValue();
+				record = null;
+		}
+		return record;
+	}
+}
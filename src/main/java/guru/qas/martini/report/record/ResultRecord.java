@@ -0,0 +1,219 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import guru.qas.martini.report.JsonObjectType;
+
+@SuppressWarnings("WeakerAccess")
+public final class ResultRecord implements ReportRecord {
+
+	private final String suite;
+	private final String feature;
+	private final String id;
+	private final String name;
+	private final String description;
+	private final String line;
+	private final String status;
+	private final String threadGroup;
+	private final String thread;
+	private final Long startTimestamp;
+	private final Long endTimestamp;
+	private final ImmutableList<String> categories;
+	private final ImmutableList<TagRecord> tags;
+	private final ImmutableList<StepRecord> steps;
+
+	private ResultRecord(Builder builder) {
+		this.suite = builder.suite;
+		this.feature = builder.feature;
+		this.id = builder.id;
+		this.name = builder.name;
+		this.description = builder.description;
+		this.line = builder.line;
+		this.status = builder.status;
+		this.threadGroup = builder.threadGroup;
+		this.thread = builder.thread;
+		this.startTimestamp = builder.startTimestamp;
+		this.endTimestamp = builder.endTimestamp;
+		this.categories = null == builder.categories ? null : ImmutableList.copyOf(builder.categories);
+		this.tags = null == builder.tags ? null : ImmutableList.copyOf(builder.tags);
+		this.steps = null == builder.steps ? null : ImmutableList.copyOf(builder.steps);
+	}
+
+	@Override
+	public JsonObjectType getType() {
+		return JsonObjectType.RESULT;
+	}
+
+	public String getSuite() {
+		return suite;
+	}
+
+	public String getFeature() {
+		return feature;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public String getLine() {
+		return line;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public String getThreadGroup() {
+		return threadGroup;
+	}
+
+	public String getThread() {
+		return thread;
+	}
+
+	public Long getStartTimestamp() {
+		return startTimestamp;
+	}
+
+	public Long getEndTimestamp() {
+		return endTimestamp;
+	}
+
+	public List<String> getCategories() {
+		return categories;
+	}
+
+	public List<TagRecord> getTags() {
+		return tags;
+	}
+
+	public List<StepRecord> getSteps() {
+		return steps;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+
+		private String suite;
+		private String feature;
+		private String id;
+		private String name;
+		private String description;
+		private String line;
+		private String status;
+		private String threadGroup;
+		private String thread;
+		private Long startTimestamp;
+		private Long endTimestamp;
+		private List<String> categories;
+		private List<TagRecord> tags;
+		private List<StepRecord> steps;
+
+		private Builder() {
+		}
+
+		public Builder setSuite(String suite) {
+			this.suite = suite;
+			return this;
+		}
+
+		public Builder setFeature(String feature) {
+			this.feature = feature;
+			return this;
+		}
+
+		public Builder setId(String id) {
+			this.id = id;
+			return this;
+		}
+
+		public Builder setName(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public Builder setDescription(String description) {
+			this.description = description;
+			return this;
+		}
+
+		public Builder setLine(String line) {
+			this.line = line;
+			return this;
+		}
+
+		public Builder setStatus(String status) {
+			this.status = status;
+			return this;
+		}
+
+		public Builder setThreadGroup(String threadGroup) {
+			this.threadGroup = threadGroup;
+			return this;
+		}
+
+		public Builder setThread(String thread) {
+			this.thread = thread;
+			return this;
+		}
+
+		public Builder setStartTimestamp(Long startTimestamp) {
+			this.startTimestamp = startTimestamp;
+			return this;
+		}
+
+		public Builder setEndTimestamp(Long endTimestamp) {
+			this.endTimestamp = endTimestamp;
+			return this;
+		}
+
+		public Builder setCategories(List<String> categories) {
+			this.categories = categories;
+			return this;
+		}
+
+		public Builder setTags(List<TagRecord> tags) {
+			this.tags = tags;
+			return this;
+		}
+
+		public Builder setSteps(List<StepRecord> steps) {
+			this.steps = steps;
+			return this;
+		}
+
+		public ResultRecord build() {
+			return new ResultRecord(this);
+		}
+	}
+}
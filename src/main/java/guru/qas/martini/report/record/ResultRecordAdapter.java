@@ -0,0 +1,147 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.IOException;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@SuppressWarnings("WeakerAccess")
+public class ResultRecordAdapter extends RecordAdapter<ResultRecord> {
+
+	protected static final String KEY_SUITE = "suite";
+	protected static final String KEY_FEATURE = "feature";
+	protected static final String KEY_ID = "id";
+	protected static final String KEY_NAME = "name";
+	protected static final String KEY_DESCRIPTION = "description";
+	protected static final String KEY_LINE = "line";
+	protected static final String KEY_STATUS = "status";
+	protected static final String KEY_THREAD_GROUP = "threadGroup";
+	protected static final String KEY_THREAD = "thread";
+	protected static final String KEY_START = "startTimestamp";
+	protected static final String KEY_END = "endTimestamp";
+	protected static final String KEY_CATEGORIES = "categories";
+	protected static final String KEY_TAGS = "tags";
+	protected static final String KEY_STEPS = "steps";
+
+	protected final Projection projection;
+	protected final Interner<String> interner;
+	protected final TagRecordAdapter tagAdapter;
+	protected final StepRecordAdapter stepAdapter;
+
+	public ResultRecordAdapter() {
+		this(Projection.all());
+	}
+
+	public ResultRecordAdapter(Projection projection) {
+		this(projection, Interners.newWeakInterner());
+	}
+
+	public ResultRecordAdapter(Projection projection, Interner<String> interner) {
+		this.projection = checkNotNull(projection, "null Projection");
+		this.interner = checkNotNull(interner, "null Interner");
+		tagAdapter = new TagRecordAdapter(interner);
+		stepAdapter = new StepRecordAdapter(projection.get(KEY_STEPS), interner);
+	}
+
+	@Override
+	protected ResultRecord readObject(JsonReader reader) throws IOException {
+		ResultRecord.Builder builder = ResultRecord.builder();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (projection.includes(name)) {
+				readField(reader, builder, name);
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		return builder.build();
+	}
+
+	protected void readField(JsonReader reader, ResultRecord.Builder builder, String name) throws IOException {
+		switch (name) {
+			case KEY_SUITE:
+				builder.setSuite(readString(reader, interner));
+				break;
+			case KEY_FEATURE:
+				builder.setFeature(readString(reader, interner));
+				break;
+			case KEY_ID:
+				builder.setId(readString(reader));
+				break;
+			case KEY_NAME:
+				builder.setName(readString(reader));
+				break;
+			case KEY_DESCRIPTION:
+				builder.setDescription(readString(reader));
+				break;
+			case KEY_LINE:
+				builder.setLine(readString(reader));
+				break;
+			case KEY_STATUS:
+				builder.setStatus(readString(reader, interner));
+				break;
+			case KEY_THREAD_GROUP:
+				builder.setThreadGroup(readString(reader, interner));
+				break;
+			case KEY_THREAD:
+				builder.setThread(readString(reader, interner));
+				break;
+			case KEY_START:
+				builder.setStartTimestamp(readLong(reader));
+				break;
+			case KEY_END:
+				builder.setEndTimestamp(readLong(reader));
+				break;
+			case KEY_CATEGORIES:
+				builder.setCategories(readStrings(reader, interner));
+				break;
+			case KEY_TAGS:
+				builder.setTags(readObjects(reader, tagAdapter));
+				break;
+			case KEY_STEPS:
+				builder.setSteps(readObjects(reader, stepAdapter));
+				break;
+			default:
+				reader.skipValue();
+		}
+	}
+
+	@Override
+	protected void writeObject(JsonWriter writer, ResultRecord result) throws IOException {
+		writer.name(KEY_SUITE).value(result.getSuite());
+		writer.name(KEY_FEATURE).value(result.getFeature());
+		writer.name(KEY_ID).value(result.getId());
+		writer.name(KEY_NAME).value(result.getName());
+		writer.name(KEY_DESCRIPTION).value(result.getDescription());
+		writer.name(KEY_LINE).value(result.getLine());
+		writer.name(KEY_STATUS).value(result.getStatus());
+		writer.name(KEY_THREAD_GROUP).value(result.getThreadGroup());
+		writer.name(KEY_THREAD).value(result.getThread());
+		writer.name(KEY_START).value(result.getStartTimestamp());
+		writer.name(KEY_END).value(result.getEndTimestamp());
+		writeStrings(writer, KEY_CATEGORIES, result.getCategories());
+		writeObjects(writer, KEY_TAGS, result.getTags(), tagAdapter);
+		writeObjects(writer, KEY_STEPS, result.getSteps(), stepAdapter);
+	}
+}
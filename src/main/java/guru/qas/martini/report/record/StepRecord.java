@@ -0,0 +1,124 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+@SuppressWarnings("WeakerAccess")
+public final class StepRecord {
+
+	private final Long startTimestamp;
+	private final Long endTimestamp;
+	private final String keyword;
+	private final String text;
+	private final String line;
+	private final String status;
+	private final String exception;
+
+	private StepRecord(Builder builder) {
+		this.startTimestamp = builder.startTimestamp;
+		this.endTimestamp = builder.endTimestamp;
+		this.keyword = builder.keyword;
+		this.text = builder.text;
+		this.line = builder.line;
+		this.status = builder.status;
+		this.exception = builder.exception;
+	}
+
+	public Long getStartTimestamp() {
+		return startTimestamp;
+	}
+
+	public Long getEndTimestamp() {
+		return endTimestamp;
+	}
+
+	public String getKeyword() {
+		return keyword;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public String getLine() {
+		return line;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public String getException() {
+		return exception;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+
+		private Long startTimestamp;
+		private Long endTimestamp;
+		private String keyword;
+		private String text;
+		private String line;
+		private String status;
+		private String exception;
+
+		private Builder() {
+		}
+
+		public Builder setStartTimestamp(Long startTimestamp) {
+			this.startTimestamp = startTimestamp;
+			return this;
+		}
+
+		public Builder setEndTimestamp(Long endTimestamp) {
+			this.endTimestamp = endTimestamp;
+			return this;
+		}
+
+		public Builder setKeyword(String keyword) {
+			this.keyword = keyword;
+			return this;
+		}
+
+		public Builder setText(String text) {
+			this.text = text;
+			return this;
+		}
+
+		public Builder setLine(String line) {
+			this.line = line;
+			return this;
+		}
+
+		public Builder setStatus(String status) {
+			this.status = status;
+			return this;
+		}
+
+		public Builder setException(String exception) {
+			this.exception = exception;
+			return this;
+		}
+
+		public StepRecord build() {
+			return new StepRecord(this);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.IOException;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@SuppressWarnings("WeakerAccess")
+public class StepRecordAdapter extends RecordAdapter<StepRecord> {
+
+	protected static final String KEY_START = "startTimestamp";
+	protected static final String KEY_END = "endTimestamp";
+	protected static final String KEY_KEYWORD = "keyword";
+	protected static final String KEY_TEXT = "text";
+	protected static final String KEY_LINE = "line";
+	protected static final String KEY_STATUS = "status";
+	protected static final String KEY_EXCEPTION = "exception";
+
+	protected final Projection projection;
+	protected final Interner<String> interner;
+
+	public StepRecordAdapter() {
+		this(Projection.all());
+	}
+
+	public StepRecordAdapter(Projection projection) {
+		this(projection, Interners.newWeakInterner());
+	}
+
+	public StepRecordAdapter(Projection projection, Interner<String> interner) {
+		this.projection = checkNotNull(projection, "null Projection");
+		this.interner = checkNotNull(interner, "null Interner");
+	}
+
+	@Override
+	protected StepRecord readObject(JsonReader reader) throws IOException {
+		StepRecord.Builder builder = StepRecord.builder();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (projection.includes(name)) {
+				readField(reader, builder, name);
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		return builder.build();
+	}
+
+	protected void readField(JsonReader reader, StepRecord.Builder builder, String name) throws IOException {
+		switch (name) {
+			case KEY_START:
+				builder.setStartTimestamp(readLong(reader));
+				break;
+			case KEY_END:
+				builder.setEndTimestamp(readLong(reader));
+				break;
+			case KEY_KEYWORD:
+				builder.setKeyword(readString(reader, interner));
+				break;
+			case KEY_TEXT:
+				builder.setText(readString(reader));
+				break;
+			case KEY_LINE:
+				builder.setLine(readString(reader));
+				break;
+			case KEY_STATUS:
+				builder.setStatus(readString(reader, interner));
+				break;
+			case KEY_EXCEPTION:
+				builder.setException(readString(reader));
+				break;
+			default:
+				reader.skipValue();
+		}
+	}
+
+	@Override
+	protected void writeObject(JsonWriter writer, StepRecord step) throws IOException {
+		writer.name(KEY_START).value(step.getStartTimestamp());
+		writer.name(KEY_END).value(step.getEndTimestamp());
+		writer.name(KEY_KEYWORD).value(step.getKeyword());
+		writer.name(KEY_TEXT).value(step.getText());
+		writer.name(KEY_LINE).value(step.getLine());
+		writer.name(KEY_STATUS).value(step.getStatus());
+		writer.name(KEY_EXCEPTION).value(step.getException());
+	}
+}
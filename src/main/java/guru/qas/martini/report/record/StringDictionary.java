@@ -0,0 +1,104 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Assigns dense int ids, in first-seen order, to values that repeat across many results, such as suite and
+ * feature identifiers, thread names, statuses and themes. Each distinct value is held once for the life of the
+ * dictionary, so each report creates its own. Safe for concurrent use.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StringDictionary {
+
+	protected final ConcurrentMap<String, Entry> entries;
+	protected final List<String> values;
+
+	public StringDictionary() {
+		entries = new ConcurrentHashMap<>();
+		values = Lists.newArrayList();
+	}
+
+	/**
+	 * @return the canonical instance equal to value, or null if value is null
+	 */
+	public String intern(String value) {
+		return null == value ? null : getEntry(value).value;
+	}
+
+	/**
+	 * @return the id of value, assigning the next one if it has not been seen
+	 */
+	public int getId(String value) {
+		checkNotNull(value, "null String");
+		return getEntry(value).id;
+	}
+
+	protected Entry getEntry(String value) {
+		Entry entry = entries.get(value);
+		return null == entry ? entries.computeIfAbsent(value, this::add) : entry;
+	}
+
+	private Entry add(String value) {
+		synchronized (values) {
+			values.add(value);
+			return new Entry(values.size() - 1, value);
+		}
+	}
+
+	public String get(int id) {
+		synchronized (values) {
+			checkElementIndex(id, values.size(), "id");
+			return values.get(id);
+		}
+	}
+
+	public int size() {
+		synchronized (values) {
+			return values.size();
+		}
+	}
+
+	/**
+	 * @return a snapshot of the distinct values, indexed by id
+	 */
+	public List<String> getValues() {
+		synchronized (values) {
+			return ImmutableList.copyOf(values);
+		}
+	}
+
+	protected static final class Entry {
+
+		protected final int id;
+		protected final String value;
+
+		protected Entry(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+}
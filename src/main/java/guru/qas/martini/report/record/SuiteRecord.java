@@ -0,0 +1,125 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import guru.qas.martini.report.JsonObjectType;
+
+@SuppressWarnings("WeakerAccess")
+public final class SuiteRecord implements ReportRecord {
+
+	private final String id;
+	private final Long startTimestamp;
+	private final String name;
+	private final HostRecord host;
+	private final ImmutableList<String> profiles;
+	private final ImmutableMap<String, String> environment;
+
+	private SuiteRecord(Builder builder) {
+		this.id = builder.id;
+		this.startTimestamp = builder.startTimestamp;
+		this.name = builder.name;
+		this.host = builder.host;
+		this.profiles = null == builder.profiles ? null : ImmutableList.copyOf(builder.profiles);
+		this.environment = null == builder.environment ? null : ImmutableMap.copyOf(builder.environment);
+	}
+
+	@Override
+	public JsonObjectType getType() {
+		return JsonObjectType.SUITE;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public Long getStartTimestamp() {
+		return startTimestamp;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public HostRecord getHost() {
+		return host;
+	}
+
+	public List<String> getProfiles() {
+		return profiles;
+	}
+
+	public Map<String, String> getEnvironment() {
+		return environment;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+
+		private String id;
+		private Long startTimestamp;
+		private String name;
+		private HostRecord host;
+		private List<String> profiles;
+		private Map<String, String> environment;
+
+		private Builder() {
+		}
+
+		public Builder setId(String id) {
+			this.id = id;
+			return this;
+		}
+
+		public Builder setStartTimestamp(Long startTimestamp) {
+			this.startTimestamp = startTimestamp;
+			return this;
+		}
+
+		public Builder setName(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public Builder setHost(HostRecord host) {
+			this.host = host;
+			return this;
+		}
+
+		public Builder setProfiles(List<String> profiles) {
+			this.profiles = profiles;
+			return this;
+		}
+
+		public Builder setEnvironment(Map<String, String> environment) {
+			this.environment = environment;
+			return this;
+		}
+
+		public SuiteRecord build() {
+			return new SuiteRecord(this);
+		}
+	}
+}
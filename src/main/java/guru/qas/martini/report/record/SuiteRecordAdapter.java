@@ -0,0 +1,123 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@SuppressWarnings("WeakerAccess")
+public class SuiteRecordAdapter extends RecordAdapter<SuiteRecord> {
+
+	protected static final String KEY_ID = "id";
+	protected static final String KEY_START = "startTimestamp";
+	protected static final String KEY_NAME = "name";
+	protected static final String KEY_HOST = "host";
+	protected static final String KEY_HOST_NAME = "name";
+	protected static final String KEY_HOST_IP = "ip";
+	protected static final String KEY_HOST_USERNAME = "username";
+	protected static final String KEY_PROFILES = "profiles";
+	protected static final String KEY_ENVIRONMENT = "environment";
+
+	protected final Interner<String> interner;
+
+	public SuiteRecordAdapter() {
+		this(Interners.newWeakInterner());
+	}
+
+	public SuiteRecordAdapter(Interner<String> interner) {
+		this.interner = checkNotNull(interner, "null Interner");
+	}
+
+	@Override
+	protected SuiteRecord readObject(JsonReader reader) throws IOException {
+		SuiteRecord.Builder builder = SuiteRecord.builder();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			switch (name) {
+				case KEY_ID:
+					builder.setId(readString(reader, interner));
+					break;
+				case KEY_START:
+					builder.setStartTimestamp(readLong(reader));
+					break;
+				case KEY_NAME:
+					builder.setName(readString(reader));
+					break;
+				case KEY_HOST:
+					Map<String, String> host = readStringMap(reader);
+					if (null != host) {
+						String hostname = host.get(KEY_HOST_NAME);
+						String ip = host.get(KEY_HOST_IP);
+						String username = host.get(KEY_HOST_USERNAME);
+						builder.setHost(new HostRecord(hostname, ip, username));
+					}
+					break;
+				case KEY_PROFILES:
+					builder.setProfiles(readStrings(reader));
+					break;
+				case KEY_ENVIRONMENT:
+					builder.setEnvironment(readStringMap(reader));
+					break;
+				default:
+					reader.skipValue();
+			}
+		}
+		return builder.build();
+	}
+
+	@Override
+	protected void writeObject(JsonWriter writer, SuiteRecord suite) throws IOException {
+		writer.name(KEY_ID).value(suite.getId());
+		writer.name(KEY_START).value(suite.getStartTimestamp());
+		writer.name(KEY_NAME).value(suite.getName());
+
+		HostRecord host = suite.getHost();
+		writer.name(KEY_HOST);
+		if (null == host) {
+			writer.nullValue();
+		}
+		else {
+			writer.beginObject();
+			writer.name(KEY_HOST_NAME).value(host.getName());
+			writer.name(KEY_HOST_IP).value(host.getIp());
+			writer.name(KEY_HOST_USERNAME).value(host.getUsername());
+			writer.endObject();
+		}
+
+		writeStrings(writer, KEY_PROFILES, suite.getProfiles());
+
+		Map<String, String> environment = suite.getEnvironment();
+		writer.name(KEY_ENVIRONMENT);
+		if (null == environment) {
+			writer.nullValue();
+		}
+		else {
+			writer.beginObject();
+			for (Map.Entry<String, String> entry : environment.entrySet()) {
+				writer.name(entry.getKey()).value(entry.getValue());
+			}
+			writer.endObject();
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@SuppressWarnings("WeakerAccess")
+public final class TagRecord {
+
+	private final String name;
+	private final String argument;
+
+	public TagRecord(String name, String argument) {
+		this.name = checkNotNull(name, "null String");
+		this.argument = argument;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getArgument() {
+		return argument;
+	}
+}
@@ -0,0 +1,69 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.IOException;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@SuppressWarnings("WeakerAccess")
+public class TagRecordAdapter extends RecordAdapter<TagRecord> {
+
+	protected static final String KEY_NAME = "name";
+	protected static final String KEY_ARGUMENT = "argument";
+
+	protected final Interner<String> interner;
+
+	public TagRecordAdapter() {
+		this(Interners.newWeakInterner());
+	}
+
+	public TagRecordAdapter(Interner<String> interner) {
+		this.interner = checkNotNull(interner, "null Interner");
+	}
+
+	@Override
+	protected TagRecord readObject(JsonReader reader) throws IOException {
+		String tagName = null;
+		String argument = null;
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			switch (name) {
+				case KEY_NAME:
+					tagName = readString(reader, interner);
+					break;
+				case KEY_ARGUMENT:
+					argument = readString(reader, interner);
+					break;
+				default:
+					reader.skipValue();
+			}
+		}
+		return null == tagName ? null : new TagRecord(tagName, argument);
+	}
+
+	@Override
+	protected void writeObject(JsonWriter writer, TagRecord tag) throws IOException {
+		writer.name(KEY_NAME).value(tag.getName());
+		writer.name(KEY_ARGUMENT).value(tag.getArgument());
+	}
+}
@@ -0,0 +1,150 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.common.collect.Maps;
+
+import static com.google.common.base.Preconditions.*;
+import static guru.qas.martini.report.store.StoreFiles.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Read-only view of a columnar result store, every column memory-mapped.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ColumnarStore implements Closeable {
+
+	protected final Path directory;
+	protected final int rows;
+	protected final int strings;
+	protected final int suites;
+	protected final Map<String, MappedByteBuffer> columns;
+
+	protected ColumnarStore(Path directory, Properties properties) {
+		this.directory = directory;
+		int version = Integer.parseInt(properties.getProperty(PROPERTY_VERSION, "0"));
+		checkState(VERSION == version, "unsupported store version %s in %s", version, directory);
+		rows = Integer.parseInt(properties.getProperty(PROPERTY_ROWS));
+		strings = Integer.parseInt(properties.getProperty(PROPERTY_STRINGS));
+		suites = Integer.parseInt(properties.getProperty(PROPERTY_SUITES));
+		columns = Maps.newHashMap();
+	}
+
+	public static ColumnarStore open(Path directory) throws IOException {
+		checkNotNull(directory, "null Path");
+		Properties properties = new Properties();
+		try (InputStream inputStream = Files.newInputStream(directory.resolve(PROPERTIES))) {
+			properties.load(inputStream);
+		}
+		return new ColumnarStore(directory, properties);
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getSuiteCount() {
+		return suites;
+	}
+
+	public int getInt(String column, int index) throws IOException {
+		return getColumn(column).getInt(index * Integer.BYTES);
+	}
+
+	public long getLong(String column, int index) throws IOException {
+		return getColumn(column).getLong(index * Long.BYTES);
+	}
+
+	/**
+	 * @return dictionary ids held by a list column for the given row
+	 */
+	public int[] getInts(String offsetsColumn, String valuesColumn, int row) throws IOException {
+		int start = getInt(offsetsColumn, row);
+		int end = getInt(offsetsColumn, row + 1);
+		int[] values = new int[end - start];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getInt(valuesColumn, start + i);
+		}
+		return values;
+	}
+
+	public String getString(int id) throws IOException {
+		String value = null;
+		if (NULL_ID != id) {
+			checkElementIndex(id, strings);
+			long start = getLong(STRING_OFFSETS, id);
+			long end = getLong(STRING_OFFSETS, id + 1);
+			ByteBuffer bytes = getColumn(STRING_BYTES).duplicate();
+			bytes.position((int) start).limit((int) end);
+			value = UTF_8.decode(bytes).toString();
+		}
+		return value;
+	}
+
+	/**
+	 * Scans the dictionary comparing encoded bytes, so no other string is decoded.
+	 *
+	 * @return dictionary id of the value, or {@link StoreFiles#NULL_ID} if the store does not contain it
+	 */
+	public int getId(String value) throws IOException {
+		int id = NULL_ID;
+		if (null != value) {
+			ByteBuffer encoded = ByteBuffer.wrap(value.getBytes(UTF_8));
+			ByteBuffer bytes = getColumn(STRING_BYTES).duplicate();
+			long start = 0 == strings ? 0 : getLong(STRING_OFFSETS, 0);
+			for (int i = 0; NULL_ID == id && i < strings; i++) {
+				long end = getLong(STRING_OFFSETS, i + 1);
+				if (end - start == encoded.remaining()) {
+					bytes.limit((int) end).position((int) start);
+					id = encoded.equals(bytes) ? i : NULL_ID;
+				}
+				start = end;
+			}
+		}
+		return id;
+	}
+
+	protected MappedByteBuffer getColumn(String column) throws IOException {
+		MappedByteBuffer buffer = columns.get(column);
+		if (null == buffer) {
+			try (FileChannel channel = FileChannel.open(directory.resolve(column), READ)) {
+				long size = channel.size();
+				checkState(size <= Integer.MAX_VALUE, "column %s too large to map", column);
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			columns.put(column, buffer);
+		}
+		return buffer;
+	}
+
+	@Override
+	public void close() {
+		columns.clear();
+	}
+}
@@ -0,0 +1,254 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.store;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.StepRecord;
+import guru.qas.martini.report.record.StringDictionary;
+import guru.qas.martini.report.record.SuiteRecord;
+import guru.qas.martini.report.record.TagRecord;
+
+import static com.google.common.base.Preconditions.*;
+import static guru.qas.martini.report.store.StoreFiles.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streams results into a directory of column files as they are read. Only the string dictionary and the
+ * suite and feature lookups are held in memory until the store is closed.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ColumnarStoreWriter implements Closeable {
+
+	/**
+	 * Result fields the store reads, in addition to whatever the report columns declare.
+	 */
+	public static final ImmutableSet<String> PATHS = ImmutableSet.of(
+		"suite", "feature", "name", "status", "threadGroup", "thread", "startTimestamp", "endTimestamp",
+		"tags", "categories", "steps.keyword", "steps.text", "steps.status", "steps.exception");
+
+	protected static final int BUFFER_SIZE = 64 * 1024;
+
+	protected final Path directory;
+	protected final StringDictionary dictionary;
+	protected final Map<String, Long> suiteStarts;
+	protected final Map<String, String> featureNames;
+	protected final Map<String, DataOutputStream> outputs;
+
+	private int rows;
+	private int tags;
+	private int themes;
+	private int steps;
+	private boolean closed;
+
+	public ColumnarStoreWriter(Path directory) throws IOException {
+		this.directory = checkNotNull(directory, "null Path");
+		Files.createDirectories(directory);
+		dictionary = new StringDictionary();
+		suiteStarts = Maps.newLinkedHashMap();
+		featureNames = Maps.newHashMap();
+		outputs = Maps.newHashMap();
+
+		for (String name : new String[]{TAG_OFFSETS, THEME_OFFSETS, STEP_OFFSETS}) {
+			getOutput(name).writeInt(0);
+		}
+	}
+
+	public void add(ReportRecord record) throws IOException {
+		checkNotNull(record, "null ReportRecord");
+		checkState(!closed, "store already closed");
+		switch (record.getType()) {
+			case SUITE:
+				SuiteRecord suite = SuiteRecord.class.cast(record);
+				suiteStarts.put(suite.getId(), suite.getStartTimestamp());
+				break;
+			case FEATURE:
+				FeatureRecord feature = FeatureRecord.class.cast(record);
+				featureNames.put(feature.getId(), feature.getName());
+				break;
+			case RESULT:
+				add(ResultRecord.class.cast(record));
+				break;
+			default:
+				break;
+		}
+	}
+
+	protected void add(ResultRecord result) throws IOException {
+		String suite = result.getSuite();
+		if (null != suite && !suiteStarts.containsKey(suite)) {
+			suiteStarts.put(suite, null);
+		}
+
+		writeString(SUITE, suite);
+		writeString(FEATURE, null == result.getFeature() ? null : featureNames.get(result.getFeature()));
+		writeString(SCENARIO, result.getName());
+		writeString(STATUS, result.getStatus());
+		writeString(THREAD_GROUP, result.getThreadGroup());
+		writeString(THREAD, result.getThread());
+
+		Long start = result.getStartTimestamp();
+		Long end = result.getEndTimestamp();
+		writeLong(START, start);
+		writeLong(END, end);
+		writeLong(DURATION, null == start || null == end ? null : end - start);
+
+		List<TagRecord> tagRecords = result.getTags();
+		if (null != tagRecords) {
+			for (TagRecord tag : tagRecords) {
+				writeString(TAGS, tag.getName());
+				tags++;
+			}
+		}
+		getOutput(TAG_OFFSETS).writeInt(tags);
+
+		List<String> categories = result.getCategories();
+		if (null != categories) {
+			for (String category : categories) {
+				writeString(THEMES, category);
+				themes++;
+			}
+		}
+		getOutput(THEME_OFFSETS).writeInt(themes);
+
+		List<StepRecord> stepRecords = result.getSteps();
+		if (null != stepRecords) {
+			for (StepRecord step : stepRecords) {
+				String keyword = step.getKeyword();
+				String text = step.getText();
+				writeString(STEP_TEXT, null == keyword ? text : null == text ? keyword : keyword + ' ' + text);
+				writeString(STEP_STATUS, step.getStatus());
+				String exception = step.getException();
+				writeString(STEP_EXCEPTION, null == exception || exception.trim().isEmpty() ? null : exception);
+				steps++;
+			}
+		}
+		getOutput(STEP_OFFSETS).writeInt(steps);
+		rows++;
+	}
+
+	protected void writeString(String file, String value) throws IOException {
+		getOutput(file).writeInt(getId(value));
+	}
+
+	protected void writeLong(String file, Long value) throws IOException {
+		getOutput(file).writeLong(null == value ? NULL_LONG : value);
+	}
+
+	protected int getId(String value) {
+		return null == value ? NULL_ID : dictionary.getId(value);
+	}
+
+	protected DataOutputStream getOutput(String file) throws IOException {
+		DataOutputStream output = outputs.get(file);
+		if (null == output) {
+			OutputStream stream = Files.newOutputStream(directory.resolve(file));
+			output = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+			outputs.put(file, output);
+		}
+		return output;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			try {
+				writeSuites();
+				writeStrings();
+				writeProperties();
+			}
+			finally {
+				closeOutputs();
+			}
+		}
+	}
+
+	protected void writeSuites() throws IOException {
+		for (Map.Entry<String, Long> entry : suiteStarts.entrySet()) {
+			writeString(SUITE_IDS, entry.getKey());
+			writeLong(SUITE_STARTS, entry.getValue());
+		}
+	}
+
+	protected void writeStrings() throws IOException {
+		DataOutputStream offsets = getOutput(STRING_OFFSETS);
+		DataOutputStream bytes = getOutput(STRING_BYTES);
+		long offset = 0;
+		offsets.writeLong(offset);
+		for (String string : dictionary.getValues()) {
+			byte[] encoded = string.getBytes(UTF_8);
+			bytes.write(encoded);
+			offset += encoded.length;
+			offsets.writeLong(offset);
+		}
+	}
+
+	protected void writeProperties() throws IOException {
+		// Every column file exists even when empty, so the reader can map all of them.
+		for (String file : new String[]{
+			SUITE, FEATURE, SCENARIO, STATUS, THREAD_GROUP, THREAD, START, END, DURATION,
+			TAGS, THEMES, STEP_TEXT, STEP_STATUS, STEP_EXCEPTION, SUITE_IDS, SUITE_STARTS}) {
+			getOutput(file);
+		}
+
+		Properties properties = new Properties();
+		properties.setProperty(PROPERTY_VERSION, String.valueOf(VERSION));
+		properties.setProperty(PROPERTY_ROWS, String.valueOf(rows));
+		properties.setProperty(PROPERTY_STRINGS, String.valueOf(dictionary.size()));
+		properties.setProperty(PROPERTY_SUITES, String.valueOf(suiteStarts.size()));
+		try (OutputStream outputStream = Files.newOutputStream(directory.resolve(PROPERTIES))) {
+			properties.store(outputStream, "martini columnar result store");
+		}
+	}
+
+	protected void closeOutputs() throws IOException {
+		IOException failure = null;
+		for (DataOutputStream output : outputs.values()) {
+			try {
+				output.close();
+			}
+			catch (IOException e) {
+				if (null == failure) {
+					failure = e;
+				}
+				else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		outputs.clear();
+		if (null != failure) {
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.store;
+
+/**
+ * Files of a columnar result store. Integer columns hold string dictionary ids, -1 standing for null;
+ * long columns hold {@link #NULL_LONG} for missing values. List columns are addressed through an
+ * offsets file holding rows + 1 ints.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class StoreFiles {
+
+	public static final int VERSION = 1;
+	public static final int NULL_ID = -1;
+	public static final long NULL_LONG = Long.MIN_VALUE;
+
+	public static final String PROPERTIES = "store.properties";
+	public static final String PROPERTY_VERSION = "version";
+	public static final String PROPERTY_ROWS = "rows";
+	public static final String PROPERTY_STRINGS = "strings";
+	public static final String PROPERTY_SUITES = "suites";
+
+	public static final String STRING_OFFSETS = "strings.offsets";
+	public static final String STRING_BYTES = "strings.bytes";
+
+	public static final String SUITE = "suite.i32";
+	public static final String FEATURE = "feature.i32";
+	public static final String SCENARIO = "scenario.i32";
+	public static final String STATUS = "status.i32";
+	public static final String THREAD_GROUP = "threadGroup.i32";
+	public static final String THREAD = "thread.i32";
+	public static final String START = "start.i64";
+	public static final String END = "end.i64";
+	public static final String DURATION = "duration.i64";
+
+	public static final String TAG_OFFSETS = "tags.offsets";
+	public static final String TAGS = "tags.i32";
+	public static final String THEME_OFFSETS = "themes.offsets";
+	public static final String THEMES = "themes.i32";
+	public static final String STEP_OFFSETS = "steps.offsets";
+	public static final String STEP_TEXT = "step.text.i32";
+	public static final String STEP_STATUS = "step.status.i32";
+	public static final String STEP_EXCEPTION = "step.exception.i32";
+
+	public static final String SUITE_IDS = "suites.id.i32";
+	public static final String SUITE_STARTS = "suites.start.i64";
+
+	private StoreFiles() {
+	}
+}
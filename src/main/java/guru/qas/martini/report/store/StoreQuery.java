@@ -0,0 +1,307 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.store;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
+
+import static com.google.common.base.Preconditions.*;
+import static guru.qas.martini.report.store.StoreFiles.*;
+
+/**
+ * Filters and aggregates the results of a columnar store. Filters compare dictionary ids, so strings are
+ * decoded only for the rows printed.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StoreQuery {
+
+	public enum GroupBy {
+		STATUS, FEATURE, SCENARIO, SUITE, THREAD, TAG, THEME
+	}
+
+	protected static final String NONE = "(none)";
+
+	protected final String status;
+	protected final String tag;
+	protected final String theme;
+	protected final String feature;
+	protected final String exception;
+	protected final int lastSuites;
+	protected final GroupBy groupBy;
+	protected final boolean countOnly;
+	protected final int limit;
+
+	protected StoreQuery(Builder builder) {
+		status = builder.status;
+		tag = null == builder.tag ? null : builder.tag.startsWith("@") ? builder.tag.substring(1) : builder.tag;
+		theme = builder.theme;
+		feature = builder.feature;
+		exception = builder.exception;
+		lastSuites = builder.lastSuites;
+		groupBy = builder.groupBy;
+		countOnly = builder.countOnly;
+		limit = builder.limit;
+	}
+
+	/**
+	 * @return number of matching results
+	 */
+	public int execute(ColumnarStore store, PrintStream out) throws IOException {
+		checkNotNull(store, "null ColumnarStore");
+		checkNotNull(out, "null PrintStream");
+
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		List<Integer> matches = getMatches(store);
+
+		if (null != groupBy) {
+			printGroups(store, out, matches);
+		}
+		else if (!countOnly) {
+			printRows(store, out, matches);
+		}
+		out.printf("# %d results in %d ms%n", matches.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		return matches.size();
+	}
+
+	protected List<Integer> getMatches(ColumnarStore store) throws IOException {
+		int statusId = getId(store, status);
+		int tagId = getId(store, tag);
+		int themeId = getId(store, theme);
+		int featureId = getId(store, feature);
+		Set<Integer> suiteIds = getLastSuites(store);
+		Set<Integer> exceptionIds = getExceptionIds(store);
+
+		List<Integer> matches = Lists.newArrayList();
+		int rows = store.getRowCount();
+		for (int row = 0; row < rows; row++) {
+			boolean match = (null == status || statusId == store.getInt(STATUS, row)) &&
+				(null == feature || featureId == store.getInt(FEATURE, row)) &&
+				(null == suiteIds || suiteIds.contains(store.getInt(SUITE, row))) &&
+				(null == tag || Ints.contains(store.getInts(TAG_OFFSETS, TAGS, row), tagId)) &&
+				(null == theme || Ints.contains(store.getInts(THEME_OFFSETS, THEMES, row), themeId)) &&
+				(null == exceptionIds || containsAny(store.getInts(STEP_OFFSETS, STEP_EXCEPTION, row), exceptionIds));
+			if (match) {
+				matches.add(row);
+			}
+		}
+		return matches;
+	}
+
+	private static int getId(ColumnarStore store, String value) throws IOException {
+		// Unknown values map to an id no row holds.
+		int id = null == value ? NULL_ID : store.getId(value);
+		return null != value && NULL_ID == id ? Integer.MIN_VALUE : id;
+	}
+
+	private static boolean containsAny(int[] ids, Set<Integer> candidates) {
+		boolean found = false;
+		for (int i = 0; !found && i < ids.length; i++) {
+			found = candidates.contains(ids[i]);
+		}
+		return found;
+	}
+
+	protected Set<Integer> getLastSuites(ColumnarStore store) throws IOException {
+		Set<Integer> ids = null;
+		if (lastSuites > 0) {
+			int count = store.getSuiteCount();
+			long[] starts = new long[count];
+			for (int i = 0; i < count; i++) {
+				starts[i] = store.getLong(SUITE_STARTS, i);
+			}
+			Comparator<Integer> latestFirst = Comparator.comparingLong(i -> starts[i]);
+			List<Integer> indexes = IntStream.range(0, count).boxed()
+				.sorted(latestFirst.reversed())
+				.limit(lastSuites)
+				.collect(Collectors.toList());
+
+			ids = Sets.newHashSetWithExpectedSize(indexes.size());
+			for (Integer index : indexes) {
+				ids.add(store.getInt(SUITE_IDS, index));
+			}
+		}
+		return ids;
+	}
+
+	protected Set<Integer> getExceptionIds(ColumnarStore store) throws IOException {
+		Set<Integer> ids = null;
+		if (null != exception) {
+			ids = Sets.newHashSet();
+			int steps = store.getInt(STEP_OFFSETS, store.getRowCount());
+			for (int i = 0; i < steps; i++) {
+				int id = store.getInt(STEP_EXCEPTION, i);
+				if (NULL_ID != id && !ids.contains(id) && store.getString(id).contains(exception)) {
+					ids.add(id);
+				}
+			}
+		}
+		return ids;
+	}
+
+	protected void printRows(ColumnarStore store, PrintStream out, List<Integer> matches) throws IOException {
+		int printed = 0;
+		for (int i = 0; i < matches.size() && (limit <= 0 || printed < limit); i++, printed++) {
+			int row = matches.get(i);
+			long start = store.getLong(START, row);
+			long duration = store.getLong(DURATION, row);
+			out.printf("%s\t%s\t%s\t%s\t%s\t%s%n",
+				getString(store, store.getInt(SUITE, row), ""),
+				getString(store, store.getInt(FEATURE, row), ""),
+				getString(store, store.getInt(SCENARIO, row), ""),
+				getString(store, store.getInt(STATUS, row), ""),
+				NULL_LONG == start ? "" : new Date(start),
+				NULL_LONG == duration ? "" : duration + " ms");
+		}
+	}
+
+	protected void printGroups(ColumnarStore store, PrintStream out, List<Integer> matches) throws IOException {
+		Map<Integer, Integer> counts = Maps.newHashMap();
+		for (Integer row : matches) {
+			for (int id : getGroupIds(store, row)) {
+				counts.merge(id, 1, Integer::sum);
+			}
+		}
+
+		List<Map.Entry<Integer, Integer>> entries = counts.entrySet().stream()
+			.sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+			.collect(Collectors.toList());
+		for (Map.Entry<Integer, Integer> entry : entries) {
+			out.printf("%d\t%s%n", entry.getValue(), getString(store, entry.getKey(), NONE));
+		}
+	}
+
+	private static String getString(ColumnarStore store, int id, String missing) throws IOException {
+		String value = store.getString(id);
+		return null == value ? missing : value;
+	}
+
+	protected int[] getGroupIds(ColumnarStore store, int row) throws IOException {
+		int[] ids;
+		switch (groupBy) {
+			case STATUS:
+				ids = new int[]{store.getInt(STATUS, row)};
+				break;
+			case FEATURE:
+				ids = new int[]{store.getInt(FEATURE, row)};
+				break;
+			case SCENARIO:
+				ids = new int[]{store.getInt(SCENARIO, row)};
+				break;
+			case SUITE:
+				ids = new int[]{store.getInt(SUITE, row)};
+				break;
+			case THREAD:
+				ids = new int[]{store.getInt(THREAD, row)};
+				break;
+			case TAG:
+				ids = store.getInts(TAG_OFFSETS, TAGS, row);
+				break;
+			case THEME:
+				ids = store.getInts(THEME_OFFSETS, THEMES, row);
+				break;
+			default:
+				throw new IllegalStateException("unhandled grouping " + groupBy);
+		}
+		return ids;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@SuppressWarnings("UnusedReturnValue")
+	public static final class Builder {
+
+		private String status;
+		private String tag;
+		private String theme;
+		private String feature;
+		private String exception;
+		private int lastSuites;
+		private GroupBy groupBy;
+		private boolean countOnly;
+		private int limit;
+
+		private Builder() {
+		}
+
+		public Builder setStatus(String status) {
+			this.status = null == status ? null : status.toUpperCase(Locale.ROOT);
+			return this;
+		}
+
+		public Builder setTag(String tag) {
+			this.tag = tag;
+			return this;
+		}
+
+		public Builder setTheme(String theme) {
+			this.theme = theme;
+			return this;
+		}
+
+		public Builder setFeature(String feature) {
+			this.feature = feature;
+			return this;
+		}
+
+		public Builder setException(String exception) {
+			this.exception = exception;
+			return this;
+		}
+
+		public Builder setLastSuites(int lastSuites) {
+			checkArgument(lastSuites >= 0, "suite count must not be negative");
+			this.lastSuites = lastSuites;
+			return this;
+		}
+
+		public Builder setGroupBy(GroupBy groupBy) {
+			this.groupBy = groupBy;
+			return this;
+		}
+
+		public Builder setCountOnly(boolean countOnly) {
+			this.countOnly = countOnly;
+			return this;
+		}
+
+		public Builder setLimit(int limit) {
+			this.limit = limit;
+			return this;
+		}
+
+		public StoreQuery build() {
+			return new StoreQuery(this);
+		}
+	}
+}
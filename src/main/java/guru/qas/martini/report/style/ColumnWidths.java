@@ -0,0 +1,97 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.style;
+
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * Estimates column widths from the longest line written to each column, avoiding the cell rescans
+ * and font metrics of {@link Sheet#autoSizeColumn(int)}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ColumnWidths {
+
+	protected static final int PADDING = 2;
+	protected static final int MAXIMUM_WIDTH = 255;
+	protected static final int UNITS_PER_CHARACTER = 256;
+
+	private int[] widths;
+
+	public ColumnWidths() {
+		widths = new int[0];
+	}
+
+	public void update(Cell cell, String value) {
+		update(cell, value, MAXIMUM_WIDTH);
+	}
+
+	public void update(Cell cell, String value, int maximum) {
+		checkNotNull(cell, "null Cell");
+		update(cell.getColumnIndex(), value, maximum);
+	}
+
+	public void update(int column, String value, int maximum) {
+		checkArgument(column >= 0, "column index must not be negative, found %s", column);
+		if (null != value) {
+			int length = Math.min(getLongestLine(value), maximum);
+			update(column, length);
+		}
+	}
+
+	public void update(int column, int length) {
+		if (column >= widths.length) {
+			widths = Arrays.copyOf(widths, Math.max(column + 1, widths.length * 2));
+		}
+		widths[column] = Math.max(widths[column], length);
+	}
+
+	public int getWidth(int column) {
+		return column < widths.length ? widths[column] : 0;
+	}
+
+	public void apply(Sheet sheet) {
+		checkNotNull(sheet, "null Sheet");
+		for (int i = 0; i < widths.length; i++) {
+			int width = widths[i];
+			if (width > 0) {
+				int characters = Math.min(width + PADDING, MAXIMUM_WIDTH);
+				sheet.setColumnWidth(i, characters * UNITS_PER_CHARACTER);
+			}
+		}
+	}
+
+	protected static int getLongestLine(String value) {
+		int longest = 0;
+		int current = 0;
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char c = value.charAt(i);
+			if ('\n' == c) {
+				longest = Math.max(longest, current);
+				current = 0;
+			}
+			else if ('\r' != c) {
+				current++;
+			}
+		}
+		return Math.max(longest, current);
+	}
+}
@@ -0,0 +1,194 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.style;
+
+import java.util.Objects;
+
+import org.apache.poi.ss.usermodel.Font;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@SuppressWarnings("WeakerAccess")
+public final class FontKey {
+
+	private final boolean bold;
+	private final short color;
+	private final short height;
+	private final String name;
+	private final boolean italic;
+	private final boolean strikeout;
+	private final short typeOffset;
+	private final byte underline;
+
+	private FontKey(Builder builder) {
+		this.bold = builder.bold;
+		this.color = builder.color;
+		this.height = builder.height;
+		this.name = checkNotNull(builder.name, "null font name");
+		this.italic = builder.italic;
+		this.strikeout = builder.strikeout;
+		this.typeOffset = builder.typeOffset;
+		this.underline = builder.underline;
+	}
+
+	public boolean isBold() {
+		return bold;
+	}
+
+	public short getColor() {
+		return color;
+	}
+
+	public short getHeight() {
+		return height;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isItalic() {
+		return italic;
+	}
+
+	public boolean isStrikeout() {
+		return strikeout;
+	}
+
+	public short getTypeOffset() {
+		return typeOffset;
+	}
+
+	public byte getUnderline() {
+		return underline;
+	}
+
+	public Builder toBuilder() {
+		return new Builder()
+			.setBold(bold)
+			.setColor(color)
+			.setHeight(height)
+			.setName(name)
+			.setItalic(italic)
+			.setStrikeout(strikeout)
+			.setTypeOffset(typeOffset)
+			.setUnderline(underline);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof FontKey)) {
+			return false;
+		}
+		FontKey other = (FontKey) o;
+		return bold == other.bold &&
+			color == other.color &&
+			height == other.height &&
+			italic == other.italic &&
+			strikeout == other.strikeout &&
+			typeOffset == other.typeOffset &&
+			underline == other.underline &&
+			name.equals(other.name);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(bold, color, height, name, italic, strikeout, typeOffset, underline);
+	}
+
+	public static FontKey of(Font font) {
+		checkNotNull(font, "null Font");
+		return new Builder()
+			.setBold(font.getBold())
+			.setColor(font.getColor())
+			.setHeight(font.getFontHeight())
+			.setName(font.getFontName())
+			.setItalic(font.getItalic())
+			.setStrikeout(font.getStrikeout())
+			.setTypeOffset(font.getTypeOffset())
+			.setUnderline(font.getUnderline())
+			.build();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+
+		private boolean bold;
+		private short color;
+		private short height;
+		private String name;
+		private boolean italic;
+		private boolean strikeout;
+		private short typeOffset;
+		private byte underline;
+
+		private Builder() {
+			typeOffset = Font.SS_NONE;
+			underline = Font.U_NONE;
+		}
+
+		public Builder setBold(boolean bold) {
+			this.bold = bold;
+			return this;
+		}
+
+		public Builder setColor(short color) {
+			this.color = color;
+			return this;
+		}
+
+		public Builder setHeight(short height) {
+			this.height = height;
+			return this;
+		}
+
+		public Builder setName(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public Builder setItalic(boolean italic) {
+			this.italic = italic;
+			return this;
+		}
+
+		public Builder setStrikeout(boolean strikeout) {
+			this.strikeout = strikeout;
+			return this;
+		}
+
+		public Builder setTypeOffset(short typeOffset) {
+			this.typeOffset = typeOffset;
+			return this;
+		}
+
+		public Builder setUnderline(byte underline) {
+			this.underline = underline;
+			return this;
+		}
+
+		public FontKey build() {
+			return new FontKey(this);
+		}
+	}
+}
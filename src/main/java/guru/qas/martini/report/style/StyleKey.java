@@ -0,0 +1,339 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.style;
+
+import java.util.Objects;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@SuppressWarnings("WeakerAccess")
+public final class StyleKey {
+
+	private final FontKey font;
+	private final short dataFormat;
+	private final short fillForegroundColor;
+	private final short fillBackgroundColor;
+	private final FillPatternType fillPattern;
+	private final BorderStyle borderLeft;
+	private final BorderStyle borderRight;
+	private final BorderStyle borderTop;
+	private final BorderStyle borderBottom;
+	private final short leftBorderColor;
+	private final short rightBorderColor;
+	private final short topBorderColor;
+	private final short bottomBorderColor;
+	private final HorizontalAlignment alignment;
+	private final VerticalAlignment verticalAlignment;
+	private final boolean wrapText;
+
+	private StyleKey(Builder builder) {
+		this.font = checkNotNull(builder.font, "null FontKey");
+		this.dataFormat = builder.dataFormat;
+		this.fillForegroundColor = builder.fillForegroundColor;
+		this.fillBackgroundColor = builder.fillBackgroundColor;
+		this.fillPattern = builder.fillPattern;
+		this.borderLeft = builder.borderLeft;
+		this.borderRight = builder.borderRight;
+		this.borderTop = builder.borderTop;
+		this.borderBottom = builder.borderBottom;
+		this.leftBorderColor = builder.leftBorderColor;
+		this.rightBorderColor = builder.rightBorderColor;
+		this.topBorderColor = builder.topBorderColor;
+		this.bottomBorderColor = builder.bottomBorderColor;
+		this.alignment = builder.alignment;
+		this.verticalAlignment = builder.verticalAlignment;
+		this.wrapText = builder.wrapText;
+	}
+
+	public FontKey getFont() {
+		return font;
+	}
+
+	public short getDataFormat() {
+		return dataFormat;
+	}
+
+	public short getFillForegroundColor() {
+		return fillForegroundColor;
+	}
+
+	public short getFillBackgroundColor() {
+		return fillBackgroundColor;
+	}
+
+	public FillPatternType getFillPattern() {
+		return fillPattern;
+	}
+
+	public BorderStyle getBorderLeft() {
+		return borderLeft;
+	}
+
+	public BorderStyle getBorderRight() {
+		return borderRight;
+	}
+
+	public BorderStyle getBorderTop() {
+		return borderTop;
+	}
+
+	public BorderStyle getBorderBottom() {
+		return borderBottom;
+	}
+
+	public short getLeftBorderColor() {
+		return leftBorderColor;
+	}
+
+	public short getRightBorderColor() {
+		return rightBorderColor;
+	}
+
+	public short getTopBorderColor() {
+		return topBorderColor;
+	}
+
+	public short getBottomBorderColor() {
+		return bottomBorderColor;
+	}
+
+	public HorizontalAlignment getAlignment() {
+		return alignment;
+	}
+
+	public VerticalAlignment getVerticalAlignment() {
+		return verticalAlignment;
+	}
+
+	public boolean isWrapText() {
+		return wrapText;
+	}
+
+	public Builder toBuilder() {
+		return new Builder()
+			.setFont(font)
+			.setDataFormat(dataFormat)
+			.setFillForegroundColor(fillForegroundColor)
+			.setFillBackgroundColor(fillBackgroundColor)
+			.setFillPattern(fillPattern)
+			.setBorderLeft(borderLeft)
+			.setBorderRight(borderRight)
+			.setBorderTop(borderTop)
+			.setBorderBottom(borderBottom)
+			.setLeftBorderColor(leftBorderColor)
+			.setRightBorderColor(rightBorderColor)
+			.setTopBorderColor(topBorderColor)
+			.setBottomBorderColor(bottomBorderColor)
+			.setAlignment(alignment)
+			.setVerticalAlignment(verticalAlignment)
+			.setWrapText(wrapText);
+	}
+
+	void applyTo(CellStyle style) {
+		style.setDataFormat(dataFormat);
+		style.setFillForegroundColor(fillForegroundColor);
+		style.setFillBackgroundColor(fillBackgroundColor);
+		style.setFillPattern(fillPattern);
+		style.setBorderLeft(borderLeft);
+		style.setBorderRight(borderRight);
+		style.setBorderTop(borderTop);
+		style.setBorderBottom(borderBottom);
+		style.setLeftBorderColor(leftBorderColor);
+		style.setRightBorderColor(rightBorderColor);
+		style.setTopBorderColor(topBorderColor);
+		style.setBottomBorderColor(bottomBorderColor);
+		style.setAlignment(alignment);
+		style.setVerticalAlignment(verticalAlignment);
+		style.setWrapText(wrapText);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof StyleKey)) {
+			return false;
+		}
+		StyleKey other = (StyleKey) o;
+		return dataFormat == other.dataFormat &&
+			fillForegroundColor == other.fillForegroundColor &&
+			fillBackgroundColor == other.fillBackgroundColor &&
+			leftBorderColor == other.leftBorderColor &&
+			rightBorderColor == other.rightBorderColor &&
+			topBorderColor == other.topBorderColor &&
+			bottomBorderColor == other.bottomBorderColor &&
+			wrapText == other.wrapText &&
+			font.equals(other.font) &&
+			fillPattern == other.fillPattern &&
+			borderLeft == other.borderLeft &&
+			borderRight == other.borderRight &&
+			borderTop == other.borderTop &&
+			borderBottom == other.borderBottom &&
+			alignment == other.alignment &&
+			verticalAlignment == other.verticalAlignment;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(font, dataFormat, fillForegroundColor, fillBackgroundColor, fillPattern,
+			borderLeft, borderRight, borderTop, borderBottom,
+			leftBorderColor, rightBorderColor, topBorderColor, bottomBorderColor,
+			alignment, verticalAlignment, wrapText);
+	}
+
+	static StyleKey of(CellStyle style, FontKey font) {
+		return new Builder()
+			.setFont(font)
+			.setDataFormat(style.getDataFormat())
+			.setFillForegroundColor(style.getFillForegroundColor())
+			.setFillBackgroundColor(style.getFillBackgroundColor())
+			.setFillPattern(style.getFillPattern())
+			.setBorderLeft(style.getBorderLeft())
+			.setBorderRight(style.getBorderRight())
+			.setBorderTop(style.getBorderTop())
+			.setBorderBottom(style.getBorderBottom())
+			.setLeftBorderColor(style.getLeftBorderColor())
+			.setRightBorderColor(style.getRightBorderColor())
+			.setTopBorderColor(style.getTopBorderColor())
+			.setBottomBorderColor(style.getBottomBorderColor())
+			.setAlignment(style.getAlignment())
+			.setVerticalAlignment(style.getVerticalAlignment())
+			.setWrapText(style.getWrapText())
+			.build();
+	}
+
+	public static final class Builder {
+
+		private FontKey font;
+		private short dataFormat;
+		private short fillForegroundColor;
+		private short fillBackgroundColor;
+		private FillPatternType fillPattern;
+		private BorderStyle borderLeft;
+		private BorderStyle borderRight;
+		private BorderStyle borderTop;
+		private BorderStyle borderBottom;
+		private short leftBorderColor;
+		private short rightBorderColor;
+		private short topBorderColor;
+		private short bottomBorderColor;
+		private HorizontalAlignment alignment;
+		private VerticalAlignment verticalAlignment;
+		private boolean wrapText;
+
+		private Builder() {
+			fillPattern = FillPatternType.NO_FILL;
+			borderLeft = BorderStyle.NONE;
+			borderRight = BorderStyle.NONE;
+			borderTop = BorderStyle.NONE;
+			borderBottom = BorderStyle.NONE;
+			alignment = HorizontalAlignment.GENERAL;
+			verticalAlignment = VerticalAlignment.BOTTOM;
+		}
+
+		public Builder setFont(FontKey font) {
+			this.font = font;
+			return this;
+		}
+
+		public Builder setDataFormat(short dataFormat) {
+			this.dataFormat = dataFormat;
+			return this;
+		}
+
+		public Builder setFillForegroundColor(short fillForegroundColor) {
+			this.fillForegroundColor = fillForegroundColor;
+			return this;
+		}
+
+		public Builder setFillBackgroundColor(short fillBackgroundColor) {
+			this.fillBackgroundColor = fillBackgroundColor;
+			return this;
+		}
+
+		public Builder setFillPattern(FillPatternType fillPattern) {
+			this.fillPattern = checkNotNull(fillPattern, "null FillPatternType");
+			return this;
+		}
+
+		public Builder setBorderLeft(BorderStyle borderLeft) {
+			this.borderLeft = checkNotNull(borderLeft, "null BorderStyle");
+			return this;
+		}
+
+		public Builder setBorderRight(BorderStyle borderRight) {
+			this.borderRight = checkNotNull(borderRight, "null BorderStyle");
+			return this;
+		}
+
+		public Builder setBorderTop(BorderStyle borderTop) {
+			this.borderTop = checkNotNull(borderTop, "null BorderStyle");
+			return this;
+		}
+
+		public Builder setBorderBottom(BorderStyle borderBottom) {
+			this.borderBottom = checkNotNull(borderBottom, "null BorderStyle");
+			return this;
+		}
+
+		public Builder setLeftBorderColor(short leftBorderColor) {
+			this.leftBorderColor = leftBorderColor;
+			return this;
+		}
+
+		public Builder setRightBorderColor(short rightBorderColor) {
+			this.rightBorderColor = rightBorderColor;
+			return this;
+		}
+
+		public Builder setTopBorderColor(short topBorderColor) {
+			this.topBorderColor = topBorderColor;
+			return this;
+		}
+
+		public Builder setBottomBorderColor(short bottomBorderColor) {
+			this.bottomBorderColor = bottomBorderColor;
+			return this;
+		}
+
+		public Builder setAlignment(HorizontalAlignment alignment) {
+			this.alignment = checkNotNull(alignment, "null HorizontalAlignment");
+			return this;
+		}
+
+		public Builder setVerticalAlignment(VerticalAlignment verticalAlignment) {
+			this.verticalAlignment = checkNotNull(verticalAlignment, "null VerticalAlignment");
+			return this;
+		}
+
+		public Builder setWrapText(boolean wrapText) {
+			this.wrapText = wrapText;
+			return this;
+		}
+
+		public StyleKey build() {
+			return new StyleKey(this);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.style;
+
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import com.google.common.collect.Maps;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Creates each distinct cell style and font exactly once per workbook.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StyleRegistry {
+
+	private final Workbook workbook;
+	private final Map<FontKey, Font> fonts;
+	private final Map<StyleKey, CellStyle> styles;
+	private final Map<Short, StyleKey> keys;
+
+	public StyleRegistry(Workbook workbook) {
+		this.workbook = checkNotNull(workbook, "null Workbook");
+		fonts = Maps.newHashMap();
+		styles = Maps.newHashMap();
+		keys = Maps.newHashMap();
+	}
+
+	public Workbook getWorkbook() {
+		return workbook;
+	}
+
+	public StyleKey getDefaultKey() {
+		CellStyle style = workbook.getCellStyleAt(0);
+		return getKey(style);
+	}
+
+	public StyleKey getKey(CellStyle style) {
+		checkNotNull(style, "null CellStyle");
+		return keys.computeIfAbsent(style.getIndex(), index -> {
+			Font font = workbook.getFontAt(style.getFontIndexAsInt());
+			StyleKey key = StyleKey.of(style, FontKey.of(font));
+			styles.putIfAbsent(key, style);
+			return key;
+		});
+	}
+
+	public CellStyle getStyle(StyleKey key) {
+		checkNotNull(key, "null StyleKey");
+		CellStyle style = styles.get(key);
+		if (null == style) {
+			style = workbook.createCellStyle();
+			key.applyTo(style);
+			Font font = getFont(key.getFont());
+			style.setFont(font);
+			styles.put(key, style);
+			keys.put(style.getIndex(), key);
+		}
+		return style;
+	}
+
+	public Font getFont(FontKey key) {
+		checkNotNull(key, "null FontKey");
+		return fonts.computeIfAbsent(key, k -> {
+			Font font = workbook.findFont(
+				k.isBold(),
+				k.getColor(),
+				k.getHeight(),
+				k.getName(),
+				k.isItalic(),
+				k.isStrikeout(),
+				k.getTypeOffset(),
+				k.getUnderline());
+
+			if (null == font) {
+				font = workbook.createFont();
+				font.setBold(k.isBold());
+				font.setColor(k.getColor());
+				font.setFontHeight(k.getHeight());
+				font.setFontName(k.getName());
+				font.setItalic(k.isItalic());
+				font.setStrikeout(k.isStrikeout());
+				font.setTypeOffset(k.getTypeOffset());
+				font.setUnderline(k.getUnderline());
+			}
+			return font;
+		});
+	}
+
+	public short getDataFormat(String format) {
+		checkNotNull(format, "null String");
+		return workbook.createDataFormat().getFormat(format);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.writer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import com.google.common.base.CharMatcher;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Writes rows as RFC 4180 delimited text. Values holding the delimiter, a quote or a line break are quoted,
+ * with embedded quotes doubled; null values are written as empty fields. Each row is written as soon as it
+ * is received, so memory use does not depend on the number of rows.
+ */
+@SuppressWarnings("WeakerAccess")
+public class DelimitedReportWriter implements ReportWriter {
+
+	protected static final String LINE_SEPARATOR = "\r\n";
+
+	protected final Writer writer;
+	protected final char delimiter;
+	protected final CharMatcher quoted;
+
+	public DelimitedReportWriter(Writer writer, Delimiter delimiter) {
+		this.writer = checkNotNull(writer, "null Writer");
+		this.delimiter = checkNotNull(delimiter, "null Delimiter").getCharacter();
+		quoted = CharMatcher.anyOf("\"\r\n").or(CharMatcher.is(this.delimiter));
+	}
+
+	@Override
+	public void writeHeader(List<String> labels) throws IOException {
+		writeRow(labels);
+	}
+
+	@Override
+	public void writeRow(List<String> values) throws IOException {
+		checkNotNull(values, "null List");
+		for (int i = 0; i < values.size(); i++) {
+			if (i > 0) {
+				writer.write(delimiter);
+			}
+			write(values.get(i));
+		}
+		writer.write(LINE_SEPARATOR);
+	}
+
+	protected void write(String value) throws IOException {
+		if (null != value) {
+			if (quoted.matchesAnyOf(value)) {
+				writer.write('"');
+				writer.write(value.replace("\"", "\"\""));
+				writer.write('"');
+			}
+			else {
+				writer.write(value);
+			}
+		}
+	}
+
+	@Override
+	public void finish() throws IOException {
+		writer.flush();
+	}
+}
@@ -0,0 +1,47 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.writer;
+
+public enum Delimiter {
+	COMMA(','),
+	TAB('\t');
+
+	private final char character;
+
+	Delimiter(char character) {
+		this.character = character;
+	}
+
+	public char getCharacter() {
+		return character;
+	}
+
+	/**
+	 * @return the delimiter conventional for a .csv or .tsv file name, or null for any other name
+	 */
+	public static Delimiter forFileName(String name) {
+		String lowerCase = null == name ? "" : name.toLowerCase();
+		Delimiter delimiter = null;
+		if (lowerCase.endsWith(".csv")) {
+			delimiter = COMMA;
+		}
+		else if (lowerCase.endsWith(".tsv")) {
+			delimiter = TAB;
+		}
+		return delimiter;
+	}
+}
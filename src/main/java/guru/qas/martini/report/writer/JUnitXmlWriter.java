@@ -0,0 +1,329 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+
+import guru.qas.martini.report.FeatureResolver;
+import guru.qas.martini.report.column.TraceabilityColumn;
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.SuiteRecord;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Writes results as JUnit XML, one testsuite per suite and one testcase per result, from the same records
+ * the report is built from. Test cases are streamed to a temporary file as they arrive, remembering only
+ * where each one starts; the document is assembled suite by suite once {@link #finish()} is called, since
+ * a testsuite declares its totals before its test cases.
+ */
+@SuppressWarnings("WeakerAccess")
+public class JUnitXmlWriter implements Closeable, FeatureResolver {
+
+	public static final ImmutableSet<String> PATHS = ImmutableSet.of(
+		"suite", "feature", "name", "status", "startTimestamp", "endTimestamp");
+
+	protected static final int BUFFER_SIZE = 64 * 1024;
+	protected static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+	protected final TraceabilityColumn failureColumn;
+	protected final OutputStream outputStream;
+	protected final XMLOutputFactory factory;
+	protected final Path testCases;
+	protected final OutputStream testCaseStream;
+	protected final ByteArrayOutputStream testCase;
+	protected final XMLStreamWriter testCaseWriter;
+	protected final Map<String, FeatureRecord> features;
+	protected final Map<String, Suite> suites;
+
+	private long position;
+	private boolean closed;
+
+	/**
+	 * @param failureColumn supplies the failure text of failed results, e.g. the exception column
+	 * @param outputStream  receives the document and is closed with this writer
+	 */
+	public JUnitXmlWriter(TraceabilityColumn failureColumn, OutputStream outputStream) throws IOException {
+		this.failureColumn = checkNotNull(failureColumn, "null TraceabilityColumn");
+		this.outputStream = checkNotNull(outputStream, "null OutputStream");
+		factory = XMLOutputFactory.newFactory();
+		testCases = Files.createTempFile("martini-junit", ".xml");
+		testCaseStream = new BufferedOutputStream(Files.newOutputStream(testCases), BUFFER_SIZE);
+		testCase = new ByteArrayOutputStream();
+		testCaseWriter = createWriter(testCase);
+		features = Maps.newHashMap();
+		suites = Maps.newLinkedHashMap();
+	}
+
+	protected XMLStreamWriter createWriter(OutputStream outputStream) throws IOException {
+		try {
+			return factory.createXMLStreamWriter(outputStream, UTF_8.name());
+		}
+		catch (XMLStreamException e) {
+			throw new IOException("unable to create XML writer", e);
+		}
+	}
+
+	@Override
+	public FeatureRecord getFeature(ResultRecord result) {
+		String id = result.getFeature();
+		return null == id ? null : features.get(id);
+	}
+
+	public void add(ReportRecord record) throws IOException {
+		checkNotNull(record, "null ReportRecord");
+		checkState(!closed, "writer already closed");
+		switch (record.getType()) {
+			case SUITE:
+				SuiteRecord suite = SuiteRecord.class.cast(record);
+				getSuite(suite.getId()).record = suite;
+				break;
+			case FEATURE:
+				FeatureRecord feature = FeatureRecord.class.cast(record);
+				features.put(feature.getId(), feature);
+				break;
+			case RESULT:
+				add(ResultRecord.class.cast(record));
+				break;
+			default:
+				break;
+		}
+	}
+
+	protected Suite getSuite(String id) {
+		return suites.computeIfAbsent(String.valueOf(id), Suite::new);
+	}
+
+	protected void add(ResultRecord result) throws IOException {
+		Suite suite = getSuite(result.getSuite());
+		Long start = result.getStartTimestamp();
+		Long end = null == start ? null : result.getEndTimestamp();
+		long milliseconds = null == end ? 0 : Math.max(0, end - start);
+		String status = result.getStatus();
+
+		testCase.reset();
+		try {
+			testCaseWriter.writeStartElement("testcase");
+			writeAttribute(testCaseWriter, "name", result.getName());
+			writeAttribute(testCaseWriter, "classname", getClassName(result));
+			testCaseWriter.writeAttribute("time", getSeconds(milliseconds));
+			if ("FAILED".equals(status)) {
+				suite.failures++;
+				writeFailure(result);
+			}
+			else if (!"PASSED".equals(status)) {
+				suite.skipped++;
+				testCaseWriter.writeStartElement("skipped");
+				writeAttribute(testCaseWriter, "message", status);
+				testCaseWriter.writeEndElement();
+			}
+			testCaseWriter.writeEndElement();
+			testCaseWriter.writeCharacters("\n");
+			testCaseWriter.flush();
+		}
+		catch (XMLStreamException e) {
+			throw new IOException("unable to write test case " + result.getName(), e);
+		}
+
+		testCase.writeTo(testCaseStream);
+		suite.add(position, testCase.size(), milliseconds);
+		position += testCase.size();
+	}
+
+	protected String getClassName(ResultRecord result) {
+		FeatureRecord feature = getFeature(result);
+		String name = null == feature ? null : feature.getName();
+		return null == name ? result.getFeature() : name;
+	}
+
+	protected void writeFailure(ResultRecord result) throws XMLStreamException {
+		String text = failureColumn.getValue(this, result);
+		testCaseWriter.writeStartElement("failure");
+		if (null != text) {
+			String message = Iterables.getFirst(Splitter.on('\n').split(text), text).trim();
+			int separator = message.indexOf(':');
+			String type = -1 == separator ? message : message.substring(0, separator);
+			if (!type.isEmpty() && !type.contains(" ")) {
+				testCaseWriter.writeAttribute("type", type);
+			}
+			testCaseWriter.writeAttribute("message", message);
+			testCaseWriter.writeCharacters(text);
+		}
+		testCaseWriter.writeEndElement();
+	}
+
+	protected static void writeAttribute(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+		if (null != value) {
+			writer.writeAttribute(name, value);
+		}
+	}
+
+	protected static String getSeconds(long milliseconds) {
+		return String.format(Locale.ROOT, "%.3f", milliseconds / 1000d);
+	}
+
+	/**
+	 * Writes the document; the output is closed with this writer.
+	 */
+	public void finish() throws IOException {
+		checkState(!closed, "writer already closed");
+		testCaseStream.close();
+
+		BufferedOutputStream buffered = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+		XMLStreamWriter writer = createWriter(buffered);
+		try (FileChannel channel = FileChannel.open(testCases, READ)) {
+			WritableByteChannel target = Channels.newChannel(buffered);
+			writer.writeStartDocument(UTF_8.name(), "1.0");
+			writer.writeCharacters("\n");
+			Suite total = new Suite(null);
+			for (Suite suite : suites.values()) {
+				total.tests += suite.tests;
+				total.failures += suite.failures;
+				total.skipped += suite.skipped;
+				total.milliseconds += suite.milliseconds;
+			}
+			writer.writeStartElement("testsuites");
+			writer.writeAttribute("tests", String.valueOf(total.tests));
+			writer.writeAttribute("failures", String.valueOf(total.failures));
+			writer.writeAttribute("skipped", String.valueOf(total.skipped));
+			writer.writeAttribute("time", getSeconds(total.milliseconds));
+			writer.writeCharacters("\n");
+
+			for (Suite suite : suites.values()) {
+				if (suite.tests > 0) {
+					writeSuite(writer, suite);
+					writer.writeCharacters("\n");
+					writer.flush();
+					for (int i = 0; i < suite.tests; i++) {
+						transfer(channel, suite.offsets[i], suite.lengths[i], target);
+					}
+					writer.writeEndElement();
+					writer.writeCharacters("\n");
+				}
+			}
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.flush();
+			buffered.flush();
+		}
+		catch (XMLStreamException e) {
+			throw new IOException("unable to write JUnit XML", e);
+		}
+	}
+
+	protected void transfer(FileChannel channel, long offset, int length, WritableByteChannel target)
+		throws IOException {
+		long transferred = 0;
+		while (transferred < length) {
+			transferred += channel.transferTo(offset + transferred, length - transferred, target);
+		}
+	}
+
+	protected void writeSuite(XMLStreamWriter writer, Suite suite) throws XMLStreamException {
+		SuiteRecord record = suite.record;
+		String name = null == record ? null : record.getName();
+		writer.writeStartElement("testsuite");
+		writer.writeAttribute("name", null == name ? suite.id : name);
+		writer.writeAttribute("id", suite.id);
+		writer.writeAttribute("tests", String.valueOf(suite.tests));
+		writer.writeAttribute("failures", String.valueOf(suite.failures));
+		writer.writeAttribute("errors", "0");
+		writer.writeAttribute("skipped", String.valueOf(suite.skipped));
+		writer.writeAttribute("time", getSeconds(suite.milliseconds));
+
+		Long timestamp = null == record ? null : record.getStartTimestamp();
+		if (null != timestamp) {
+			LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+			writer.writeAttribute("timestamp", TIMESTAMP.format(start.truncatedTo(ChronoUnit.SECONDS)));
+		}
+		String hostname = null == record || null == record.getHost() ? null : record.getHost().getName();
+		writeAttribute(writer, "hostname", hostname);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			try {
+				testCaseStream.close();
+				outputStream.close();
+			}
+			finally {
+				Files.deleteIfExists(testCases);
+			}
+		}
+	}
+
+	protected static class Suite {
+
+		protected final String id;
+		protected SuiteRecord record;
+		protected int tests;
+		protected int failures;
+		protected int skipped;
+		protected long milliseconds;
+		protected long[] offsets;
+		protected int[] lengths;
+
+		protected Suite(String id) {
+			this.id = id;
+			offsets = new long[16];
+			lengths = new int[16];
+		}
+
+		protected void add(long offset, int length, long testMilliseconds) {
+			if (tests == offsets.length) {
+				offsets = Arrays.copyOf(offsets, tests * 2);
+				lengths = Arrays.copyOf(lengths, tests * 2);
+			}
+			offsets[tests] = offset;
+			lengths[tests] = length;
+			tests++;
+			milliseconds += testMilliseconds;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.writer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the column values of a report row by row and renders them in an output format. Values are the
+ * text produced by each column, null where a column has nothing to report for a result.
+ */
+public interface ReportWriter {
+
+	void writeHeader(List<String> labels) throws IOException;
+
+	void writeRow(List<String> values) throws IOException;
+
+	/**
+	 * Writes anything still buffered; the underlying output is left open.
+	 */
+	void finish() throws IOException;
+}
@@ -0,0 +1,117 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.ResultRecordAdapter;
+import guru.qas.martini.report.record.SuiteRecord;
+
+public class DeferredRecordIteratorTest {
+
+	@Test
+	public void testResultsFollowReferences() throws IOException {
+		List<ReportRecord> input = ImmutableList.of(
+			result("one", "f1"),
+			result("two", "f2"),
+			result("three", "f1"),
+			result("orphan", "missing"),
+			SuiteRecord.builder().setId("s1").build(),
+			FeatureRecord.builder().setId("f1").build(),
+			result("four", "f1"),
+			FeatureRecord.builder().setId("f2").build());
+
+		Gson gson = new GsonBuilder()
+			.registerTypeAdapter(ResultRecord.class, new ResultRecordAdapter())
+			.create();
+
+		List<String> names = Lists.newArrayList();
+		Set<String> seen = Sets.newHashSet();
+		try (DeferredRecordIterator iterator = new DeferredRecordIterator(input.iterator(), gson, 1)) {
+			while (iterator.hasNext()) {
+				ReportRecord record = iterator.next();
+				switch (record.getType()) {
+					case SUITE:
+						seen.add(SuiteRecord.class.cast(record).getId());
+						break;
+					case FEATURE:
+						seen.add(FeatureRecord.class.cast(record).getId());
+						break;
+					case RESULT:
+						ResultRecord result = ResultRecord.class.cast(record);
+						names.add(result.getName());
+						Assert.assertEquals(result.getStatus(), "PASSED", "spilled result should round-trip");
+						if (!"orphan".equals(result.getName())) {
+							Assert.assertTrue(seen.contains(result.getSuite()), "suite should precede " + names);
+							Assert.assertTrue(seen.contains(result.getFeature()), "feature should precede " + names);
+						}
+						break;
+					default:
+						Assert.fail("unexpected record " + record);
+				}
+			}
+		}
+
+		Assert.assertEquals(names.size(), 5, "all results should be emitted: " + names);
+		Assert.assertEquals(Sets.newHashSet(names), Sets.newHashSet("one", "two", "three", "four", "orphan"));
+		Assert.assertEquals(names.get(names.size() - 1), "orphan", "unresolved result should be emitted last");
+	}
+
+	@Test
+	public void testReleasedInReadOrder() throws IOException {
+		List<ReportRecord> input = ImmutableList.of(
+			SuiteRecord.builder().setId("s1").build(),
+			result("one", "f1"),
+			result("two", "f1"),
+			result("three", "f1"),
+			result("four", "f1"),
+			FeatureRecord.builder().setId("f1").build());
+
+		Gson gson = new GsonBuilder()
+			.registerTypeAdapter(ResultRecord.class, new ResultRecordAdapter())
+			.create();
+
+		List<String> names = Lists.newArrayList();
+		try (DeferredRecordIterator iterator = new DeferredRecordIterator(input.iterator(), gson, 2)) {
+			iterator.forEachRemaining(record -> {
+				if (record instanceof ResultRecord) {
+					names.add(ResultRecord.class.cast(record).getName());
+				}
+			});
+		}
+		Assert.assertEquals(names, ImmutableList.of("one", "two", "three", "four"),
+			"spilled and parked results should be released in the order they were read");
+	}
+
+	private static ResultRecord result(String name, String feature) {
+		return ResultRecord.builder().setName(name).setSuite("s1").setFeature(feature).setStatus("PASSED").build();
+	}
+}
@@ -0,0 +1,50 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.io.CharStreams;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class FileChannelReaderTest {
+
+	@Test
+	public void testMultiByteCharactersAcrossBuffers() throws IOException {
+		String expected = Strings.repeat("{\"name\": \"Grâce à Martini — 🍸\"}\n", 100);
+		Path path = Files.createTempFile("martini", ".json");
+		try {
+			Files.write(path, expected.getBytes(UTF_8));
+			for (int bufferSize : new int[]{FileChannelReader.MINIMUM_BUFFER_SIZE, 9, 1024}) {
+				try (Reader reader = new FileChannelReader(path, bufferSize)) {
+					Assert.assertEquals(CharStreams.toString(reader), expected, "buffer size " + bufferSize);
+				}
+			}
+		}
+		finally {
+			Files.delete(path);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.core.io.Resource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+public class FileDiscoveryTest {
+
+	@Test
+	public void testPathOrderAndLinkCycles() throws IOException {
+		Path root = Files.createTempDirectory("martini-discovery");
+		try {
+			String[] files = {"c.json", "b/x.json", "a/z.json", "a/y.json", "a/nested/w.json", "b/x.txt"};
+			for (String file : files) {
+				Path path = root.resolve(file);
+				Files.createDirectories(path.getParent());
+				Files.write(path, new byte[0]);
+			}
+			Files.createSymbolicLink(root.resolve("a/loop"), root);
+
+			for (int threads : new int[]{1, 4}) {
+				List<String> found = Lists.newArrayList();
+				try (FileDiscovery discovery = new FileDiscovery(root, "**/*.json", ResourceFilter.all(), threads)) {
+					while (discovery.hasNext()) {
+						Resource resource = discovery.next();
+						found.add(root.relativize(resource.getFile().toPath()).toString().replace('\\', '/'));
+					}
+				}
+				List<String> expected = ImmutableList.of("a/nested/w.json", "a/y.json", "a/z.json", "b/x.json", "c.json");
+				Assert.assertEquals(found, expected, "files should be returned once each, in path order");
+			}
+		}
+		finally {
+			MoreFiles.deleteRecursively(root, RecursiveDeleteOption.ALLOW_INSECURE);
+		}
+	}
+}
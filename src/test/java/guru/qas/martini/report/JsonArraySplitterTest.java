@@ -0,0 +1,174 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.FeatureRecordAdapter;
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.ResultRecordAdapter;
+import guru.qas.martini.report.record.SuiteRecord;
+import guru.qas.martini.report.record.SuiteRecordAdapter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonArraySplitterTest {
+
+	private static final String TRICKY = "{\"martini\": {\"id\": \"tricky\", \"name\": \"a ] } , \\\" [ { \\\\\", " +
+		"\"description\": \"ünïcödé, 🍸\"}}";
+
+	private Gson gson;
+	private Path path;
+	private String json;
+
+	@BeforeClass
+	public void setUpClass() throws IOException {
+		gson = new GsonBuilder()
+			.setLenient()
+			.serializeNulls()
+			.registerTypeAdapter(SuiteRecord.class, new SuiteRecordAdapter())
+			.registerTypeAdapter(FeatureRecord.class, new FeatureRecordAdapter())
+			.registerTypeAdapter(ResultRecord.class, new ResultRecordAdapter())
+			.create();
+
+		String sample;
+		try (InputStream inputStream = JsonArraySplitterTest.class.getClassLoader().getResourceAsStream("sample.json")) {
+			sample = new String(ByteStreams.toByteArray(inputStream), UTF_8).trim();
+		}
+		String elements = sample.substring(1, sample.length() - 1);
+		json = "\uFEFF [" + elements + ",\n" + TRICKY + "," + elements + "]\n[" + TRICKY + "]";
+		path = Files.createTempFile("martini", ".json");
+		Files.write(path, json.getBytes(UTF_8));
+	}
+
+	@Test
+	public void testChunksHoldWholeElements() throws IOException {
+		List<String> expected = getExpected();
+
+		List<String> actual = Lists.newArrayList();
+		try (JsonArraySplitter splitter = new JsonArraySplitter(path, 1)) {
+			Assert.assertTrue(splitter.isSplittable());
+			int chunks = 0;
+			while (splitter.hasNext()) {
+				JsonArraySplitter.Chunk chunk = splitter.next();
+				Assert.assertTrue(chunk.isWrapped());
+				try (Reader reader = new FileChannelReader(path, chunk.getStart(), chunk.getEnd(), 1024)) {
+					String text = "[" + CharStreams.toString(reader) + "]";
+					actual.addAll(serialize(new StringReader(text)));
+				}
+				chunks++;
+			}
+			Assert.assertTrue(chunks > 2, "file should have been split between elements");
+		}
+		Assert.assertEquals(actual, expected);
+	}
+
+	@Test
+	public void testParallelRecordOrder() throws IOException {
+		List<String> expected = getExpected();
+
+		List<Resource> resources = Collections.singletonList(new FileSystemResource(path));
+		List<String> actual = Lists.newArrayList();
+		try (ParallelRecordIterator iterator = new ParallelRecordIterator(
+			gson, resources, r -> new InputStreamReader(r.getInputStream(), UTF_8), 4, 1)) {
+			iterator.forEachRemaining(record -> actual.add(gson.toJson(record)));
+		}
+		Assert.assertEquals(actual, expected, "records should be returned in file order");
+	}
+
+	@Test
+	public void testChunksAcrossBlocks() throws IOException {
+		StringBuilder builder = new StringBuilder("[");
+		while (builder.length() < 3 * JsonArraySplitter.BLOCK_SIZE) {
+			builder.append(1 == builder.length() ? "" : ",").append(TRICKY);
+		}
+		String large = builder.append("]").toString();
+		Path file = Files.createTempFile("martini", ".json");
+		try {
+			Files.write(file, large.getBytes(UTF_8));
+			List<String> actual = Lists.newArrayList();
+			try (JsonArraySplitter splitter = new JsonArraySplitter(file, 64 * 1024)) {
+				while (splitter.hasNext()) {
+					JsonArraySplitter.Chunk chunk = splitter.next();
+					try (Reader reader = new FileChannelReader(file, chunk.getStart(), chunk.getEnd(), 1024)) {
+						actual.addAll(serialize(new StringReader("[" + CharStreams.toString(reader) + "]")));
+					}
+				}
+			}
+			Assert.assertEquals(actual, serialize(new StringReader(large)));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testNotSplittable() throws IOException {
+		Path object = Files.createTempFile("martini", ".json");
+		try {
+			Files.write(object, TRICKY.getBytes(UTF_8));
+			try (JsonArraySplitter splitter = new JsonArraySplitter(object, 1)) {
+				Assert.assertFalse(splitter.isSplittable());
+			}
+		}
+		finally {
+			Files.delete(object);
+		}
+	}
+
+	private List<String> getExpected() throws IOException {
+		return serialize(new StringReader(json.substring(1)));
+	}
+
+	private List<String> serialize(Reader reader) throws IOException {
+		List<String> serialized = Lists.newArrayList();
+		try (JsonReader jsonReader = gson.newJsonReader(reader)) {
+			new RecordIterator(gson, jsonReader).forEachRemaining(record -> serialized.add(gson.toJson(record)));
+		}
+		return serialized;
+	}
+
+	@AfterClass
+	public void tearDownClass() throws IOException {
+		Files.deleteIfExists(path);
+	}
+}
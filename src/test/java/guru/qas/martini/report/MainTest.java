@@ -16,15 +16,47 @@ limitations under the License.
 
 package guru.qas.martini.report;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
 import java.net.URL;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -39,11 +71,32 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import org.testng.reporters.Files;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.ObjectArrays;
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+
+import guru.qas.martini.report.store.ColumnarStore;
+import guru.qas.martini.report.store.StoreFiles;
 
 import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class MainTest {
 
+	private static final int SAMPLE_RESULTS = 10;
+
 	private Logger logger;
 	private URL jsonResource;
 	private File tmpDir;
@@ -140,6 +193,773 @@ public class MainTest {
 			"worksheet 'Suite' should contain two rows but contains %s", physicalNumberOfRows);
 	}
 
+	@Test
+	public void testStreamingReport() throws Exception {
+		String inputResource = getInputFile().toURI().toURL().toExternalForm();
+		File outputFile = getOutputFile();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+
+		System.setProperty("traceability.matrix.impl", StreamingTraceabilityMatrix.class.getName());
+		System.setProperty("traceability.matrix.window", "2");
+		try {
+			String[] args = new String[]{"-i", inputResource, "-o", outputResource};
+			Main.main(args);
+		}
+		finally {
+			System.clearProperty("traceability.matrix.impl");
+			System.clearProperty("traceability.matrix.window");
+		}
+		checkState(outputFile.exists(), "output file does not exist");
+
+		Workbook workbook = getWorkbook(outputFile);
+		assertReportContents(workbook);
+		Sheet sheet = workbook.getSheetAt(0);
+		int formattings = sheet.getSheetConditionalFormatting().getNumConditionalFormattings();
+		checkState(formattings > 0, "streaming report should highlight longest execution");
+		CellStyle style = sheet.getRow(3).getCell(0).getCellStyle();
+		Assert.assertEquals(style.getFillPattern(), FillPatternType.SOLID_FOREGROUND, "row not colored by status");
+	}
+
+	@Test
+	public void testStreamingStringStorage() throws Exception {
+		String inputResource = getInputFile().toURI().toURL().toExternalForm();
+		File outputFile = getOutputFile();
+
+		System.setProperty("traceability.matrix.impl", StreamingTraceabilityMatrix.class.getName());
+		try {
+			Main.main(new String[]{"-i", inputResource, "-o", outputFile.toURI().toURL().toExternalForm()});
+		}
+		finally {
+			System.clearProperty("traceability.matrix.impl");
+		}
+
+		Workbook workbook = getWorkbook(outputFile);
+		assertReportContents(workbook);
+		Row header = workbook.getSheetAt(0).getRow(0);
+		String exception = null;
+		String status = null;
+		for (Row row : workbook.getSheetAt(0)) {
+			for (Cell cell : row) {
+				String label = header.getCell(cell.getColumnIndex()).getStringCellValue();
+				if (row.getRowNum() > 0 && "Exception".equals(label) && null == exception) {
+					String value = cell.getStringCellValue();
+					exception = value.isEmpty() ? null : value.split("\n")[0].trim();
+				}
+				else if (row.getRowNum() > 0 && "Status".equals(label)) {
+					status = cell.getStringCellValue();
+				}
+			}
+		}
+		checkState(null != exception && null != status, "sample should report an exception and a status");
+
+		try (ZipFile zip = new ZipFile(outputFile)) {
+			String sharedStrings = read(zip, "xl/sharedStrings.xml");
+			String results = read(zip, "xl/worksheets/sheet1.xml");
+			checkState(sharedStrings.contains(">" + status + "<"), "status should be a shared string");
+			checkState(!sharedStrings.contains(exception), "exception should not be a shared string");
+			checkState(results.contains("t=\"inlineStr\""), "exception should be written inline");
+		}
+	}
+
+	private static String read(ZipFile zip, String name) throws IOException {
+		try (InputStream in = zip.getInputStream(zip.getEntry(name))) {
+			return new String(ByteStreams.toByteArray(in), UTF_8);
+		}
+	}
+
+	@Test
+	public void testSheetRollover() throws Exception {
+		String inputResource = getInputFile().toURI().toURL().toExternalForm();
+		File outputFile = getOutputFile();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+
+		System.setProperty("traceability.matrix.impl", StreamingTraceabilityMatrix.class.getName());
+		System.setProperty("traceability.matrix.sheet.rows", "4");
+		try {
+			Main.main(new String[]{"-i", inputResource, "-o", outputResource});
+		}
+		finally {
+			System.clearProperty("traceability.matrix.impl");
+			System.clearProperty("traceability.matrix.sheet.rows");
+		}
+
+		Workbook workbook = getWorkbook(outputFile);
+		Assert.assertEquals(workbook.getNumberOfSheets(), 4, "results should continue on two more sheets");
+		int[] rows = {4, 4, 2};
+		for (int i = 0; i < rows.length; i++) {
+			Sheet sheet = workbook.getSheetAt(i);
+			Assert.assertEquals(sheet.getSheetName(), 0 == i ? "Results" : String.format("Results (%s)", i + 1));
+			Assert.assertEquals(sheet.getLastRowNum(), rows[i]);
+			Assert.assertEquals(sheet.getRow(0).getCell(0).getStringCellValue(),
+				workbook.getSheetAt(0).getRow(0).getCell(0).getStringCellValue(), "header should be repeated");
+			Assert.assertNotNull(sheet.getPaneInformation(), "freeze pane should be repeated");
+			checkState(sheet.getSheetConditionalFormatting().getNumConditionalFormattings() > 0,
+				"every results sheet should highlight longest execution");
+		}
+		Assert.assertEquals(workbook.getSheetAt(3).getSheetName(), "Suites");
+	}
+
+	@Test
+	public void testWorkbookRollover() throws Exception {
+		String inputResource = getInputFile().toURI().toURL().toExternalForm();
+		File outputFile = new File(tmpDir, UUID.randomUUID() + ".xlsx");
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+		Main.main(new String[]{"-i", inputResource, "-o", outputResource, "-workbookRows", "4"});
+
+		String base = outputFile.getName().replace(".xlsx", "");
+		int[] rows = {4, 4, 2};
+		for (int i = 0; i < rows.length; i++) {
+			File numbered = new File(tmpDir, String.format("%s-%s.xlsx", base, i + 1));
+			checkState(numbered.exists(), "workbook %s was not written", numbered);
+			Workbook workbook = getWorkbook(numbered);
+			Sheet sheet = workbook.getSheetAt(0);
+			Assert.assertEquals(sheet.getLastRowNum(), rows[i]);
+			Assert.assertFalse(sheet.getRow(1).getCell(8).getStringCellValue().isEmpty(),
+				"features should be repeated in every workbook");
+			Assert.assertEquals(workbook.getSheet("Suites").getLastRowNum(), 1, "suites should be repeated in every workbook");
+		}
+		Assert.assertFalse(new File(tmpDir, base + "-4.xlsx").exists(), "no empty workbook should be written");
+	}
+
+	@Test
+	public void testDelimitedOutput() throws Exception {
+		String inputResource = getInputFile().toURI().toURL().toExternalForm();
+		long timestamp = 1512752459298L;
+		String expected = String.format("\"%s\n(%s)\"", timestamp, new Date(timestamp));
+		for (String extension : new String[]{".csv", ".tsv"}) {
+			File outputFile = new File(tmpDir, UUID.randomUUID() + extension);
+			String outputResource = outputFile.toURI().toURL().toExternalForm();
+			Main.main(new String[]{"-i", inputResource, "-o", outputResource});
+
+			String contents = new String(java.nio.file.Files.readAllBytes(outputFile.toPath()), UTF_8);
+			String separator = ".csv".equals(extension) ? "," : "\t";
+			Assert.assertTrue(contents.startsWith(String.format("Themes%sFeature%sScenario", separator, separator)),
+				"header should list the configured columns");
+			Assert.assertTrue(contents.contains(expected),
+				"multi-line values should be quoted");
+			Assert.assertEquals(getRecordCount(contents), SAMPLE_RESULTS + 1, "one row per result should follow the header");
+		}
+	}
+
+	private static int getRecordCount(String contents) {
+		int records = 0;
+		boolean quoted = false;
+		for (int i = 0; i < contents.length(); i++) {
+			char c = contents.charAt(i);
+			if ('"' == c) {
+				quoted = !quoted;
+			}
+			else if ('\n' == c && !quoted) {
+				records++;
+			}
+		}
+		return records;
+	}
+
+	@Test
+	public void testConditionalFormatting() throws Exception {
+		String inputResource = getInputFile().toURI().toURL().toExternalForm();
+		File outputFile = getOutputFile();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+
+		System.setProperty("traceability.matrix.formatting", ResultFormatting.CONDITIONAL.name());
+		try {
+			String[] args = new String[]{"-i", inputResource, "-o", outputResource};
+			Main.main(args);
+		}
+		finally {
+			System.clearProperty("traceability.matrix.formatting");
+		}
+		checkState(outputFile.exists(), "output file does not exist");
+
+		Workbook workbook = getWorkbook(outputFile);
+		assertReportContents(workbook);
+		Sheet sheet = workbook.getSheetAt(0);
+		CellStyle style = sheet.getRow(3).getCell(0).getCellStyle();
+		Assert.assertEquals(style.getFillPattern(), FillPatternType.NO_FILL, "cells should not be styled by status");
+		int formattings = sheet.getSheetConditionalFormatting().getNumConditionalFormattings();
+		checkState(formattings > 1, "report should color rows by status with conditional formatting");
+	}
+
+	@Test
+	public void testColumnWidths() throws Exception {
+		String inputResource = getInputFile().toURI().toURL().toExternalForm();
+		File outputFile = getOutputFile();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+
+		System.setProperty("traceability.column.exception.width", "20");
+		try {
+			String[] args = new String[]{"-i", inputResource, "-o", outputResource};
+			Main.main(args);
+		}
+		finally {
+			System.clearProperty("traceability.column.exception.width");
+		}
+
+		Workbook workbook = getWorkbook(outputFile);
+		Sheet sheet = workbook.getSheetAt(0);
+		Assert.assertEquals(sheet.getColumnWidth(4), 22 * 256, "exception column should be capped");
+		checkState(sheet.getColumnWidth(5) > sheet.getDefaultColumnWidth() * 256,
+			"timestamp column should be widened to fit its contents");
+	}
+
+	@Test
+	public void testSharedCellStyles() throws Exception {
+		Path singleDir = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+		getInputFile(singleDir.toFile());
+		Workbook single = getWorkbook(singleDir, getOutputFile());
+
+		Path multipleDir = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+		for (int i = 0; i < 3; i++) {
+			getInputFile(multipleDir.toFile());
+		}
+		Workbook multiple = getWorkbook(multipleDir, getOutputFile());
+
+		Assert.assertEquals(multiple.getNumCellStyles(), single.getNumCellStyles(),
+			"cell styles should not grow with the number of results");
+		Assert.assertEquals(multiple.getNumberOfFontsAsInt(), single.getNumberOfFontsAsInt(),
+			"fonts should not grow with the number of results");
+	}
+
+	@Test
+	public void testParallelInput() throws Exception {
+		Path inputDir = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+		for (int i = 0; i < 3; i++) {
+			getInputFile(inputDir.toFile());
+		}
+
+		Workbook sequential = getWorkbook(inputDir, getOutputFile());
+		Workbook parallel = getWorkbook(inputDir, getOutputFile(), "-t", "4");
+		assertReportContents(parallel);
+
+		int sequentialRows = sequential.getSheetAt(0).getLastRowNum();
+		int parallelRows = parallel.getSheetAt(0).getLastRowNum();
+		Assert.assertEquals(parallelRows, sequentialRows, "parallel parsing should produce the same results");
+		Assert.assertEquals(parallelRows, 3 * SAMPLE_RESULTS, "report should contain results from every input file");
+	}
+
+	@Test
+	public void testCompressedInput() throws Exception {
+		Path inputDir = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+		try (InputStream in = jsonResource.openStream();
+			 OutputStream out = new GZIPOutputStream(new FileOutputStream(inputDir.resolve("a.json.gz").toFile()))) {
+			ByteStreams.copy(in, out);
+		}
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(inputDir.resolve("b.zip").toFile()))) {
+			for (String name : new String[]{"node1/results.json", "README.txt", "node2/results.json"}) {
+				out.putNextEntry(new ZipEntry(name));
+				try (InputStream in = jsonResource.openStream()) {
+					ByteStreams.copy(in, out);
+				}
+				out.closeEntry();
+			}
+		}
+
+		String inputResource = inputDir.toUri().resolve("*").toURL().toExternalForm();
+		for (String threads : new String[]{"1", "2"}) {
+			File outputFile = getOutputFile();
+			String outputResource = outputFile.toURI().toURL().toExternalForm();
+			Main.main(new String[]{"-i", inputResource, "-o", outputResource, "-t", threads});
+			checkState(outputFile.exists(), "output file does not exist");
+
+			Workbook workbook = getWorkbook(outputFile);
+			assertReportContents(workbook);
+			Assert.assertEquals(workbook.getSheetAt(0).getLastRowNum(), 3 * SAMPLE_RESULTS,
+				"report should contain results from the gzip file and both zip entries");
+		}
+	}
+
+	@Test
+	public void testDiscoveryFilters() throws Exception {
+		Path inputDir = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+		Path nested = java.nio.file.Files.createDirectories(inputDir.resolve("a/b"));
+		getInputFile(nested.toFile());
+		File old = getInputFile(inputDir.toFile());
+		Assert.assertTrue(old.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)));
+		java.nio.file.Files.write(inputDir.resolve("a/notes.txt"), "not json".getBytes(UTF_8));
+
+		String inputResource = inputDir.toUri().resolve("**/*.json").toURL().toExternalForm();
+		for (String threads : new String[]{"1", "2"}) {
+			File outputFile = getOutputFile();
+			String outputResource = outputFile.toURI().toURL().toExternalForm();
+			Main.main(new String[]{"-i", inputResource, "-o", outputResource, "-t", threads,
+				"-since", "24h", "-maxSize", "10m", "-discoveryThreads", "2"});
+
+			Workbook workbook = getWorkbook(outputFile);
+			assertReportContents(workbook);
+			Assert.assertEquals(workbook.getSheetAt(0).getLastRowNum(), SAMPLE_RESULTS,
+				"report should contain results from the recently modified nested file only");
+		}
+	}
+
+	@Test
+	public void testRecordCache() throws Exception {
+		Path inputDir = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+		getInputFile(inputDir.toFile());
+		getInputFile(inputDir.toFile());
+		Path cacheDir = tmpDir.toPath().resolve(UUID.randomUUID().toString());
+		String cacheResource = cacheDir.toUri().toURL().toExternalForm();
+
+		Workbook first = getWorkbook(inputDir, getOutputFile(), "-cache", cacheResource);
+		try (Stream<Path> entries = java.nio.file.Files.list(cacheDir)) {
+			Assert.assertEquals(entries.count(), 2, "each input file should have a cache entry");
+		}
+
+		getInputFile(inputDir.toFile());
+		Workbook second = getWorkbook(inputDir, getOutputFile(), "-cache", cacheResource, "-t", "2");
+		assertReportContents(second);
+		Assert.assertEquals(first.getSheetAt(0).getLastRowNum(), 2 * SAMPLE_RESULTS);
+		Assert.assertEquals(second.getSheetAt(0).getLastRowNum(), 3 * SAMPLE_RESULTS,
+			"cached and newly parsed files should both be reported");
+	}
+
+	@Test
+	public void testRecordCacheMalformedInput() throws Exception {
+		List<String> records = getNewlineDelimitedRecords();
+		List<String> elements = Lists.newArrayList();
+		for (int length = 0; length < 3 * 1024 * 1024; ) {
+			elements.addAll(records);
+			length += Joiner.on(',').join(records).length();
+		}
+		elements.add("{\"martini\": {\"name\": }}");
+		Path inputDir = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+		String json = '[' + Joiner.on(',').join(elements) + ']';
+		java.nio.file.Files.write(inputDir.resolve("malformed.json"), json.getBytes(UTF_8));
+		Path cacheDir = tmpDir.toPath().resolve(UUID.randomUUID().toString());
+		String cacheResource = cacheDir.toUri().toURL().toExternalForm();
+
+		boolean failed = false;
+		try {
+			getWorkbook(inputDir, getOutputFile(), "-cache", cacheResource, "-t", "2", "-splitSize", "1");
+		}
+		catch (Exception e) {
+			failed = true;
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(inputDir);
+		}
+		Assert.assertTrue(failed, "malformed input should fail the report");
+		try (Stream<Path> entries = java.nio.file.Files.list(cacheDir)) {
+			Assert.assertEquals(entries.count(), 0, "a failed parse should not leave a cache entry behind");
+		}
+	}
+
+	@Test
+	public void testRemoteInput() throws Exception {
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			byte[] body;
+			try (InputStream inputStream = jsonResource.openStream()) {
+				body = ByteStreams.toByteArray(inputStream);
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(body);
+			}
+		});
+		server.start();
+		try {
+			String base = "http://127.0.0.1:" + server.getAddress().getPort();
+			String inputResource = base + "/node1/results.json," + base + "/node2/results.json";
+			File outputFile = getOutputFile();
+			String outputResource = outputFile.toURI().toURL().toExternalForm();
+			Main.main(new String[]{"-i", inputResource, "-o", outputResource, "-prefetch", "2"});
+
+			Workbook workbook = getWorkbook(outputFile);
+			assertReportContents(workbook);
+			Assert.assertEquals(workbook.getSheetAt(0).getLastRowNum(), 2 * SAMPLE_RESULTS,
+				"report should contain results from both remote resources");
+		}
+		finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	public void testNewlineDelimitedInput() throws Exception {
+		List<String> lines = getNewlineDelimitedRecords();
+		File input = new File(tmpDir, UUID.randomUUID() + ".ndjson");
+		java.nio.file.Files.write(input.toPath(), lines, UTF_8);
+
+		File outputFile = getOutputFile();
+		String inputResource = input.toURI().toURL().toExternalForm();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+		Main.main(new String[]{"-i", inputResource, "-o", outputResource});
+
+		Workbook workbook = getWorkbook(outputFile);
+		assertReportContents(workbook);
+		Assert.assertEquals(workbook.getSheetAt(0).getLastRowNum(), SAMPLE_RESULTS);
+	}
+
+	@Test
+	public void testFollow() throws Exception {
+		List<String> lines = getNewlineDelimitedRecords();
+		int half = lines.size() / 2;
+		String partial = lines.get(half);
+
+		Path input = new File(tmpDir, UUID.randomUUID() + ".ndjson").toPath();
+		String head = Joiner.on('\n').join(lines.subList(0, half)) + '\n' + partial.substring(0, partial.length() / 2);
+		java.nio.file.Files.write(input, head.getBytes(UTF_8));
+
+		File outputFile = getOutputFile();
+		String inputResource = input.toUri().toURL().toExternalForm();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+		String[] args = {"-i", inputResource, "-o", outputResource, "-follow", "-followSeconds", "1", "-followIdle", "3"};
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> future = executor.submit(() -> {
+				Main.main(args);
+				return null;
+			});
+
+			Thread.sleep(1500);
+			String tail = partial.substring(partial.length() / 2) + '\n' + Joiner.on('\n').join(lines.subList(half + 1, lines.size()));
+			java.nio.file.Files.write(input, tail.getBytes(UTF_8), StandardOpenOption.APPEND);
+
+			future.get(60, TimeUnit.SECONDS);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		Workbook workbook = getWorkbook(outputFile);
+		assertReportContents(workbook);
+		Assert.assertEquals(workbook.getSheetAt(0).getLastRowNum(), SAMPLE_RESULTS,
+			"followed report should contain the records appended while following");
+	}
+
+	@Test
+	public void testFollowTruncated() throws Exception {
+		String content = Joiner.on('\n').join(getNewlineDelimitedRecords()) + '\n';
+		Path input = new File(tmpDir, UUID.randomUUID() + ".ndjson").toPath();
+		java.nio.file.Files.write(input, (content + Strings.repeat(" ", 4096)).getBytes(UTF_8));
+
+		File outputFile = getOutputFile();
+		String[] args = {
+			"-i", input.toUri().toURL().toExternalForm(),
+			"-o", outputFile.toURI().toURL().toExternalForm(),
+			"-follow", "-followSeconds", "1", "-followIdle", "3"};
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> future = executor.submit(() -> {
+				Main.main(args);
+				return null;
+			});
+
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			while (!outputFile.exists() && stopwatch.elapsed(TimeUnit.SECONDS) < 30) {
+				Thread.sleep(100);
+			}
+			checkState(outputFile.exists(), "report should be written before the file is truncated");
+			java.nio.file.Files.write(input, content.getBytes(UTF_8));
+			future.get(60, TimeUnit.SECONDS);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		Workbook workbook = getWorkbook(outputFile);
+		Assert.assertEquals(workbook.getSheetAt(0).getLastRowNum(), SAMPLE_RESULTS,
+			"records read before the file was truncated should be replaced, not repeated");
+	}
+
+	@Test
+	public void testListenStandardInput() throws Exception {
+		List<String> lines = getNewlineDelimitedRecords();
+		byte[] input = Joiner.on('\n').join(lines).getBytes(UTF_8);
+
+		File outputFile = getOutputFile();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+		InputStream stdin = System.in;
+		System.setIn(new ByteArrayInputStream(input));
+		try {
+			Main.main(new String[]{"-listen", "-", "-o", outputResource});
+		}
+		finally {
+			System.setIn(stdin);
+		}
+
+		Workbook workbook = getWorkbook(outputFile);
+		assertReportContents(workbook);
+		Assert.assertEquals(workbook.getSheetAt(0).getLastRowNum(), SAMPLE_RESULTS);
+	}
+
+	@Test
+	public void testJUnitXml() throws Exception {
+		List<String> lines = Lists.newArrayList();
+		int failed = 0;
+		Long suiteStart = null;
+		for (String line : getNewlineDelimitedRecords()) {
+			JsonObject record = new JsonParser().parse(line).getAsJsonObject();
+			if (record.has("suite")) {
+				suiteStart = record.getAsJsonObject("suite").get("startTimestamp").getAsLong();
+			}
+			JsonObject result = record.getAsJsonObject("martini");
+			if (null != result && failed < 3) {
+				result.addProperty("status", "FAILED");
+				failed++;
+			}
+			lines.add(record.toString());
+		}
+		Collections.reverse(lines);
+		File input = new File(tmpDir, UUID.randomUUID() + ".ndjson");
+		java.nio.file.Files.write(input.toPath(), lines, UTF_8);
+
+		File outputFile = getOutputFile();
+		File junitFile = new File(tmpDir, UUID.randomUUID() + ".xml");
+		Main.main(new String[]{
+			"-i", input.toURI().toURL().toExternalForm(),
+			"-o", outputFile.toURI().toURL().toExternalForm(),
+			"-junit", junitFile.toURI().toURL().toExternalForm()});
+		checkState(outputFile.exists(), "report should be written alongside JUnit XML");
+
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(junitFile);
+		Element root = document.getDocumentElement();
+		Assert.assertEquals(root.getTagName(), "testsuites");
+		Assert.assertEquals(root.getAttribute("tests"), String.valueOf(SAMPLE_RESULTS));
+		Assert.assertEquals(root.getAttribute("failures"), "3");
+		Assert.assertEquals(root.getAttribute("skipped"), String.valueOf(SAMPLE_RESULTS - 3));
+
+		NodeList suites = document.getElementsByTagName("testsuite");
+		Assert.assertEquals(suites.getLength(), 1, "one testsuite per suite");
+		Element suite = Element.class.cast(suites.item(0));
+		Assert.assertEquals(suite.getAttribute("id"), "4cfe399a-fc60-408c-a106-60b095dab736");
+		checkState(null != suiteStart, "sample suite has no start timestamp");
+		LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochMilli(suiteStart), ZoneId.systemDefault());
+		Assert.assertEquals(suite.getAttribute("timestamp"),
+			DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(start.truncatedTo(ChronoUnit.SECONDS)));
+
+		NodeList testCases = suite.getElementsByTagName("testcase");
+		Assert.assertEquals(testCases.getLength(), SAMPLE_RESULTS);
+		for (int i = 0; i < testCases.getLength(); i++) {
+			Element testCase = Element.class.cast(testCases.item(i));
+			Assert.assertEquals(testCase.getAttribute("classname"), "Multithreaded Martini Execution",
+				"results read before their feature should still be named after it");
+		}
+		Element testCase = Element.class.cast(testCases.item(0));
+		Assert.assertEquals(testCase.getAttribute("time"), "0.001");
+
+		NodeList failures = suite.getElementsByTagName("failure");
+		Assert.assertEquals(failures.getLength(), 3);
+		Element failure = Element.class.cast(failures.item(0));
+		checkState(failure.getTextContent().contains("guru.qas.martini"), "failure should hold the step exception");
+		checkState(!failure.getAttribute("message").contains("\n"), "failure message should be its first line");
+	}
+
+	@Test
+	public void testHtmlReport() throws Exception {
+		String inputResource = getInputFile().toURI().toURL().toExternalForm();
+		Path directory = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+
+		System.setProperty("traceability.html.chunk", "4");
+		try {
+			Main.main(new String[]{"-i", inputResource, "-html", directory.toUri().toURL().toExternalForm()});
+		}
+		finally {
+			System.clearProperty("traceability.html.chunk");
+		}
+
+		checkState(java.nio.file.Files.exists(directory.resolve("index.html")), "index page should be written");
+		Path data = directory.resolve("data");
+		JsonObject manifest = getScriptArgument(data.resolve("manifest.js"), "martini.manifest(").getAsJsonObject();
+		Assert.assertEquals(manifest.get("rows").getAsInt(), SAMPLE_RESULTS);
+		Assert.assertEquals(manifest.get("chunks").getAsInt(), 3);
+		Assert.assertEquals(manifest.getAsJsonArray("features").get(0).getAsString(),
+			"Multithreaded Martini Execution");
+		int columns = manifest.getAsJsonArray("columns").size();
+
+		JsonObject chunk = getScriptArgument(data.resolve("chunk-2.js"), "martini.chunk(2,").getAsJsonObject();
+		Assert.assertEquals(chunk.getAsJsonArray("values").size(), 2 * columns, "last chunk should hold two results");
+		Assert.assertEquals(chunk.getAsJsonArray("status").size(), 2);
+		checkState(chunk.getAsJsonArray("strings").size() < 2 * columns, "repeated values should be stored once");
+
+		JsonArray facets = getScriptArgument(data.resolve("facets.js"), "martini.facets(").getAsJsonArray();
+		int results = 0;
+		for (int i = 0; i < facets.size(); i += 3 + facets.get(i + 2).getAsInt()) {
+			Assert.assertEquals(facets.get(i + 1).getAsInt(), 0, "every result should belong to the one feature");
+			results++;
+		}
+		Assert.assertEquals(results, SAMPLE_RESULTS);
+	}
+
+	private static JsonElement getScriptArgument(Path script, String prefix) throws IOException {
+		String content = new String(java.nio.file.Files.readAllBytes(script), UTF_8).trim();
+		checkState(content.startsWith(prefix) && content.endsWith(");"), "unexpected script %s", script);
+		return new JsonParser().parse(content.substring(prefix.length(), content.length() - 2));
+	}
+
+	@Test
+	public void testWatch() throws Exception {
+		Path inputDir = java.nio.file.Files.createTempDirectory(tmpDir.toPath(), null);
+		getInputFile(inputDir.toFile());
+
+		File outputFile = getOutputFile();
+		String inputResource = inputDir.toUri().resolve("*.json").toURL().toExternalForm();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+		String[] args = {"-i", inputResource, "-o", outputResource, "-watch", "-watchDebounce", "200", "-watchIdle", "3"};
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> future = executor.submit(() -> {
+				Main.main(args);
+				return null;
+			});
+
+			Thread.sleep(1000);
+			checkState(outputFile.exists(), "watch mode should report on existing files at once");
+			getInputFile(inputDir.toFile());
+			java.nio.file.Files.write(inputDir.resolve("ignored.txt"), "ignored".getBytes(UTF_8));
+
+			future.get(60, TimeUnit.SECONDS);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		Workbook workbook = getWorkbook(outputFile);
+		assertReportContents(workbook);
+		Assert.assertEquals(workbook.getSheetAt(0).getLastRowNum(), 2 * SAMPLE_RESULTS,
+			"watched report should contain results from the file that arrived later");
+	}
+
+	@Test
+	public void testColumnarStore() throws Exception {
+		List<String> lines = Lists.newArrayList();
+		int failed = 0;
+		for (String line : getNewlineDelimitedRecords()) {
+			JsonObject record = new JsonParser().parse(line).getAsJsonObject();
+			JsonObject result = record.getAsJsonObject("martini");
+			if (null != result && failed < 3) {
+				result.addProperty("status", "FAILED");
+				JsonObject tag = new JsonObject();
+				tag.addProperty("name", "Smoke");
+				JsonArray tags = new JsonArray();
+				tags.add(tag);
+				result.add("tags", tags);
+				failed++;
+			}
+			lines.add(record.toString());
+		}
+		File input = new File(tmpDir, UUID.randomUUID() + ".ndjson");
+		java.nio.file.Files.write(input.toPath(), lines, UTF_8);
+
+		File store = new File(tmpDir, UUID.randomUUID().toString());
+		String inputResource = input.toURI().toURL().toExternalForm();
+		String storeResource = store.toURI().toURL().toExternalForm();
+		Main.main(new String[]{"-i", inputResource, "-store", storeResource});
+		checkState(new File(store, StoreFiles.PROPERTIES).exists(), "store was not written");
+
+		Assert.assertEquals(query(storeResource, "-status", "failed", "-tag", "@Smoke", "-suites", "30"), 3);
+		Assert.assertEquals(query(storeResource, "-status", "SKIPPED"), SAMPLE_RESULTS - 3);
+		Assert.assertEquals(query(storeResource, "-tag", "Unknown"), 0);
+		Assert.assertEquals(query(storeResource, "-exception", "guru.qas.martini"), SAMPLE_RESULTS);
+
+		String output = getStandardOutput("query", "-store", storeResource, "-groupBy", "STATUS");
+		checkState(output.contains(String.format("%d\tSKIPPED", SAMPLE_RESULTS - 3)), "unexpected output %s", output);
+		checkState(output.contains("3\tFAILED"), "unexpected output %s", output);
+	}
+
+	@Test
+	public void testColumnarStoreMissingFeature() throws Exception {
+		List<String> lines = Lists.newArrayList();
+		for (String line : getNewlineDelimitedRecords()) {
+			if (!new JsonParser().parse(line).getAsJsonObject().has("feature")) {
+				lines.add(line);
+			}
+		}
+		File input = new File(tmpDir, UUID.randomUUID() + ".ndjson");
+		java.nio.file.Files.write(input.toPath(), lines, UTF_8);
+
+		String storeResource = new File(tmpDir, UUID.randomUUID().toString()).toURI().toURL().toExternalForm();
+		Main.main(new String[]{"-i", input.toURI().toURL().toExternalForm(), "-store", storeResource});
+
+		String groups = getStandardOutput("query", "-store", storeResource, "-groupBy", "FEATURE");
+		checkState(groups.contains(String.format("%d\t(none)", SAMPLE_RESULTS)), "unexpected output %s", groups);
+
+		String rows = getStandardOutput("query", "-store", storeResource);
+		checkState(!rows.contains("null"), "missing values should print empty: %s", rows);
+	}
+
+	@Test
+	public void testColumnarStoreOutOfOrder() throws Exception {
+		List<String> lines = getNewlineDelimitedRecords();
+		Collections.reverse(lines);
+		File input = new File(tmpDir, UUID.randomUUID() + ".ndjson");
+		java.nio.file.Files.write(input.toPath(), lines, UTF_8);
+
+		String storeResource = new File(tmpDir, UUID.randomUUID().toString()).toURI().toURL().toExternalForm();
+		Main.main(new String[]{"-i", input.toURI().toURL().toExternalForm(), "-store", storeResource});
+
+		String output = getStandardOutput("query", "-store", storeResource, "-groupBy", "FEATURE");
+		checkState(output.contains(String.format("%d\tMultithreaded Martini Execution", SAMPLE_RESULTS)),
+			"results read before their feature should be stored with its name: %s", output);
+	}
+
+	@Test
+	public void testColumnarStoreSpilled() throws Exception {
+		List<String> lines = getNewlineDelimitedRecords();
+		Collections.reverse(lines);
+		File input = new File(tmpDir, UUID.randomUUID() + ".ndjson");
+		java.nio.file.Files.write(input.toPath(), lines, UTF_8);
+
+		File storeDirectory = new File(tmpDir, UUID.randomUUID().toString());
+		System.setProperty("traceability.matrix.deferred.limit", "1");
+		try {
+			String storeResource = storeDirectory.toURI().toURL().toExternalForm();
+			Main.main(new String[]{"-i", input.toURI().toURL().toExternalForm(), "-store", storeResource});
+		}
+		finally {
+			System.clearProperty("traceability.matrix.deferred.limit");
+		}
+
+		try (ColumnarStore store = ColumnarStore.open(storeDirectory.toPath())) {
+			int[] steps = store.getInts(StoreFiles.STEP_OFFSETS, StoreFiles.STEP_TEXT, 0);
+			checkState(steps.length > 0, "stored result has no steps");
+			checkState(null != store.getString(steps[0]), "spilled results should keep step text");
+		}
+	}
+
+	private int query(String storeResource, String... options) throws Exception {
+		String[] argv = ObjectArrays.concat(new String[]{"query", "-store", storeResource, "-count"}, options, String.class);
+		String output = getStandardOutput(argv);
+		Matcher matcher = Pattern.compile("^# (\\d+) results", Pattern.MULTILINE).matcher(output);
+		checkState(matcher.find(), "query printed no result count: %s", output);
+		return Integer.parseInt(matcher.group(1));
+	}
+
+	private String getStandardOutput(String... argv) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream stdout = System.out;
+		System.setOut(new PrintStream(bytes, true, UTF_8.name()));
+		try {
+			Main.main(argv);
+		}
+		finally {
+			System.setOut(stdout);
+		}
+		return bytes.toString(UTF_8.name());
+	}
+
+	private List<String> getNewlineDelimitedRecords() throws IOException {
+		try (Reader reader = new InputStreamReader(jsonResource.openStream(), UTF_8)) {
+			JsonArray array = new JsonParser().parse(reader).getAsJsonArray();
+			List<String> lines = Lists.newArrayList();
+			array.forEach(element -> lines.add(element.toString()));
+			return lines;
+		}
+	}
+
+	private Workbook getWorkbook(Path inputDir, File outputFile, String... options) throws Exception {
+		String inputResource = inputDir.toUri().resolve("*.json").toURL().toExternalForm();
+		String outputResource = outputFile.toURI().toURL().toExternalForm();
+		String[] args = ObjectArrays.concat(new String[]{"-i", inputResource, "-o", outputResource}, options, String.class);
+		Main.main(args);
+		checkState(outputFile.exists(), "output file does not exist");
+		return getWorkbook(outputFile);
+	}
+
 	private Workbook getWorkbook(File output) throws IOException {
 		try (FileInputStream inputStream = new FileInputStream(output)) {
 			return new XSSFWorkbook(inputStream);
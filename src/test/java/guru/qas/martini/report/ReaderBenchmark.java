@@ -0,0 +1,109 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Compares the throughput of the former InputStreamReader ingestion path with FileChannelReader.
+ * Not run by the build; execute with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=guru.qas.martini.report.ReaderBenchmark -Dexec.classpathScope=test -Dexec.args=512}
+ * where the argument is the size of the generated input in megabytes.
+ */
+public class ReaderBenchmark {
+
+	private static final int ITERATIONS = 5;
+
+	public static void main(String[] argv) throws IOException {
+		int megabytes = argv.length > 0 ? Integer.parseInt(argv[0]) : 256;
+		Path path = createInput(megabytes);
+		try {
+			long size = Files.size(path);
+			for (int i = 0; i < ITERATIONS; i++) {
+				decode("InputStreamReader", size, () -> new InputStreamReader(new FileInputStream(path.toFile())));
+				decode("FileChannelReader", size, () -> new FileChannelReader(path));
+				parse("InputStreamReader", size, () -> new InputStreamReader(new FileInputStream(path.toFile())));
+				parse("FileChannelReader", size, () -> new FileChannelReader(path));
+			}
+		}
+		finally {
+			Files.delete(path);
+		}
+	}
+
+	private static Path createInput(int megabytes) throws IOException {
+		Path path = Files.createTempFile("martini-benchmark", ".json");
+		byte[] sample;
+		try (InputStream inputStream = ReaderBenchmark.class.getClassLoader().getResourceAsStream("sample.json")) {
+			sample = ByteStreams.toByteArray(inputStream);
+		}
+
+		long target = megabytes * 1024L * 1024L;
+		try (OutputStream outputStream = Files.newOutputStream(path)) {
+			for (long written = 0; written < target; written += sample.length) {
+				outputStream.write(sample);
+			}
+		}
+		return path;
+	}
+
+	private static void decode(String label, long size, ReaderSupplier supplier) throws IOException {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		char[] buffer = new char[8192];
+		try (Reader reader = supplier.get()) {
+			while (-1 != reader.read(buffer)) {
+				// drain
+			}
+		}
+		report("decode", label, size, stopwatch);
+	}
+
+	private static void parse(String label, long size, ReaderSupplier supplier) throws IOException {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		try (Reader reader = supplier.get(); JsonReader jsonReader = new JsonReader(reader)) {
+			jsonReader.setLenient(true);
+			while (JsonToken.END_DOCUMENT != jsonReader.peek()) {
+				jsonReader.skipValue();
+			}
+		}
+		report("parse", label, size, stopwatch);
+	}
+
+	private static void report(String phase, String label, long size, Stopwatch stopwatch) {
+		long millis = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		double throughput = (size / 1024d / 1024d) / (millis / 1000d);
+		System.out.printf("%-6s %-18s %,8d ms %,10.1f MB/s%n", phase, label, millis, throughput);
+	}
+
+	@FunctionalInterface
+	private interface ReaderSupplier {
+		Reader get() throws IOException;
+	}
+}
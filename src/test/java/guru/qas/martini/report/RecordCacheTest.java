@@ -0,0 +1,113 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.FeatureRecordAdapter;
+import guru.qas.martini.report.record.Projection;
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.ResultRecordAdapter;
+import guru.qas.martini.report.record.SuiteRecord;
+import guru.qas.martini.report.record.SuiteRecordAdapter;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+public class RecordCacheTest {
+
+	private Gson gson;
+	private byte[] sample;
+
+	@BeforeClass
+	public void setUpClass() throws IOException {
+		gson = new GsonBuilder()
+			.setLenient()
+			.serializeNulls()
+			.registerTypeAdapter(SuiteRecord.class, new SuiteRecordAdapter())
+			.registerTypeAdapter(FeatureRecord.class, new FeatureRecordAdapter())
+			.registerTypeAdapter(ResultRecord.class, new ResultRecordAdapter())
+			.create();
+		try (InputStream inputStream = RecordCacheTest.class.getClassLoader().getResourceAsStream("sample.json")) {
+			sample = ByteStreams.toByteArray(inputStream);
+		}
+	}
+
+	@Test
+	public void testEntryValidation() throws IOException {
+		Path directory = Files.createTempDirectory("martini-cache");
+		Path input = Files.createTempFile(directory, "input", ".json");
+		Files.write(input, sample);
+		List<ReportRecord> parsed = parse(input);
+
+		RecordCache cache = new RecordCache(directory.resolve("cache"), Projection.all());
+		Assert.assertNull(cache.get(input), "nothing should be cached yet");
+		try (RecordCache.Writer writer = cache.newWriter(input)) {
+			writer.write(parsed);
+			writer.commit();
+		}
+		Assert.assertEquals(toJson(cache.get(input)), toJson(parsed), "cached records should round-trip");
+
+		Files.setLastModifiedTime(input, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+		Assert.assertTrue(cache.contains(input), "a touched file with the same content should remain cached");
+
+		RecordCache narrowed = new RecordCache(directory.resolve("cache"), Projection.of("name", "status"));
+		Assert.assertNull(narrowed.get(input), "a different column configuration should not reuse the entry");
+
+		byte[] changed = sample.clone();
+		int index = new String(changed, ISO_8859_1).indexOf("SKIPPED");
+		changed[index] = 'X';
+		Files.write(input, changed);
+		Assert.assertFalse(cache.contains(input), "a file with the same size but new content should not be cached");
+	}
+
+	private List<ReportRecord> parse(Path input) throws IOException {
+		try (Reader reader = Files.newBufferedReader(input);
+			 JsonReader jsonReader = gson.newJsonReader(reader)) {
+			List<ReportRecord> records = Lists.newArrayList();
+			new RecordIterator(gson, jsonReader).forEachRemaining(records::add);
+			return records;
+		}
+	}
+
+	private String toJson(List<ReportRecord> records) {
+		Assert.assertNotNull(records);
+		StringBuilder builder = new StringBuilder();
+		for (ReportRecord record : records) {
+			builder.append(gson.toJson(record, record.getClass())).append('\n');
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,110 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+
+import guru.qas.martini.report.record.FeatureRecord;
+import guru.qas.martini.report.record.FeatureRecordAdapter;
+import guru.qas.martini.report.record.ResultRecord;
+import guru.qas.martini.report.record.ResultRecordAdapter;
+import guru.qas.martini.report.record.SuiteRecord;
+import guru.qas.martini.report.record.SuiteRecordAdapter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class RecordListenerTest {
+
+	private Gson gson;
+	private List<String> records;
+
+	@BeforeClass
+	public void setUpClass() throws IOException {
+		gson = new GsonBuilder()
+			.registerTypeAdapter(SuiteRecord.class, new SuiteRecordAdapter())
+			.registerTypeAdapter(FeatureRecord.class, new FeatureRecordAdapter())
+			.registerTypeAdapter(ResultRecord.class, new ResultRecordAdapter())
+			.create();
+		try (InputStream inputStream = RecordListenerTest.class.getClassLoader().getResourceAsStream("sample.json");
+			 Reader reader = new InputStreamReader(inputStream, UTF_8)) {
+			JsonArray array = new JsonParser().parse(reader).getAsJsonArray();
+			records = Lists.newArrayList();
+			array.forEach(element -> records.add(element.toString()));
+		}
+	}
+
+	@Test
+	public void testConcurrentConnections() throws Exception {
+		int half = records.size() / 2;
+		String newlineDelimited = Joiner.on('\n').join(records.subList(0, half));
+		String array = '[' + Joiner.on(',').join(records.subList(half, records.size())) + ']';
+		String malformed = "{\"martini\": {\"name\": ";
+
+		ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try (RecordListener listener = RecordListener.listen(gson, server, 3, 0)) {
+			List<Future<?>> senders = Lists.newArrayList();
+			for (String content : new String[]{newlineDelimited, malformed, array}) {
+				senders.add(executor.submit(() -> {
+					send(server.getLocalPort(), content);
+					return null;
+				}));
+			}
+
+			int received = Iterators.size(listener);
+			for (Future<?> sender : senders) {
+				sender.get(30, TimeUnit.SECONDS);
+			}
+			Assert.assertEquals(received, records.size(),
+				"records from every well-formed connection should be received despite the malformed one");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void send(int port, String content) throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			 OutputStream outputStream = socket.getOutputStream()) {
+			outputStream.write(content.getBytes(UTF_8));
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+
+public class ResourcePrefetcherTest {
+
+	private static final int RESOURCES = 6;
+	private static final long LATENCY_MILLISECONDS = 250;
+
+	private HttpServer server;
+	private byte[] sample;
+	private byte[] large;
+	private byte[] huge;
+
+	@BeforeClass
+	public void setUpClass() throws IOException {
+		try (InputStream inputStream = ResourcePrefetcherTest.class.getClassLoader().getResourceAsStream("sample.json")) {
+			sample = ByteStreams.toByteArray(inputStream);
+		}
+		large = new byte[5 * ResourcePrefetcher.CHUNK_SIZE + 17];
+		Arrays.fill(large, (byte) 'x');
+		huge = new byte[32 * ResourcePrefetcher.CHUNK_SIZE];
+		Arrays.fill(huge, (byte) 'y');
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/", exchange -> {
+			try {
+				Thread.sleep(LATENCY_MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			String path = exchange.getRequestURI().getPath();
+			byte[] body = path.startsWith("/large") ? large : path.startsWith("/huge") ? huge : sample;
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(body);
+			}
+		});
+		server.start();
+	}
+
+	@Test
+	public void testLatencyHidden() throws IOException {
+		List<Resource> resources = getResources("sample", RESOURCES);
+
+		Stopwatch serial = Stopwatch.createStarted();
+		for (Resource resource : resources) {
+			Assert.assertEquals(read(resource), sample);
+		}
+		serial.stop();
+
+		Stopwatch prefetched = Stopwatch.createStarted();
+		try (ResourcePrefetcher prefetcher = new ResourcePrefetcher(resources.iterator(), RESOURCES, 1 << 20)) {
+			int count = 0;
+			while (prefetcher.hasNext()) {
+				Assert.assertEquals(read(prefetcher.next()), sample);
+				count++;
+			}
+			Assert.assertEquals(count, RESOURCES);
+		}
+		prefetched.stop();
+
+		long serialMillis = serial.elapsed(TimeUnit.MILLISECONDS);
+		long prefetchedMillis = prefetched.elapsed(TimeUnit.MILLISECONDS);
+		Assert.assertTrue(serialMillis >= RESOURCES * LATENCY_MILLISECONDS, "serial reads took " + serialMillis);
+		Assert.assertTrue(prefetchedMillis < serialMillis / 2,
+			String.format("prefetched reads took %s ms against %s ms serially", prefetchedMillis, serialMillis));
+	}
+
+	@Test
+	public void testMemoryCap() throws IOException {
+		List<Resource> resources = getResources("large", 3);
+		try (ResourcePrefetcher prefetcher =
+				 new ResourcePrefetcher(resources.iterator(), 3, ResourcePrefetcher.CHUNK_SIZE)) {
+			while (prefetcher.hasNext()) {
+				Assert.assertEquals(read(prefetcher.next()), large, "resources larger than the cap should stream through");
+			}
+		}
+	}
+
+	@Test
+	public void testClaimedResourceBounded() throws Exception {
+		List<Resource> resources = getResources("huge", 1);
+		try (ResourcePrefetcher prefetcher =
+				 new ResourcePrefetcher(resources.iterator(), 1, ResourcePrefetcher.CHUNK_SIZE)) {
+			try (InputStream inputStream = prefetcher.next().getInputStream()) {
+				Assert.assertNotEquals(inputStream.read(), -1);
+				Thread.sleep(1000);
+
+				long limit = (ResourcePrefetcher.CLAIMED_CHUNKS + 2L) * ResourcePrefetcher.CHUNK_SIZE;
+				long buffered = prefetcher.getBuffered();
+				Assert.assertTrue(buffered <= limit,
+					String.format("a slow reader should hold back fetching, %s bytes buffered", buffered));
+				Assert.assertEquals(ByteStreams.toByteArray(inputStream).length, huge.length - 1);
+			}
+		}
+	}
+
+	private List<Resource> getResources(String prefix, int count) throws IOException {
+		List<Resource> resources = Lists.newArrayList();
+		for (int i = 0; i < count; i++) {
+			resources.add(new UrlResource(new URL("http", "127.0.0.1", server.getAddress().getPort(), "/" + prefix + i)));
+		}
+		return resources;
+	}
+
+	private static byte[] read(Resource resource) throws IOException {
+		try (InputStream inputStream = resource.getInputStream()) {
+			return ByteStreams.toByteArray(inputStream);
+		}
+	}
+
+	@AfterClass
+	public void tearDownClass() {
+		server.stop(0);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import guru.qas.martini.report.record.RecordIterator;
+import guru.qas.martini.report.record.ReportRecord;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class TraceabilityMatrixSubscriberTest {
+
+	private static final int SAMPLE_RESULTS = 10;
+
+	private ClassPathXmlApplicationContext context;
+	private List<ReportRecord> records;
+
+	@BeforeClass
+	public void setUpClass() throws IOException {
+		context = new ClassPathXmlApplicationContext("classpath*:/martiniContext.xml");
+		Gson gson = context.getBean(Gson.class);
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("sample.json");
+			 Reader reader = new InputStreamReader(inputStream, UTF_8);
+			 JsonReader jsonReader = gson.newJsonReader(reader)) {
+			records = Lists.newArrayList(new RecordIterator(gson, jsonReader));
+		}
+	}
+
+	@Test
+	public void testPublishedRecords() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		TraceabilityMatrixSubscriber subscriber = TraceabilityMatrixSubscriber.create(context, outputStream);
+
+		List<ReportRecord> reversed = Lists.newArrayList(records);
+		Collections.reverse(reversed);
+		try (SubmissionPublisher<ReportRecord> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(subscriber);
+			reversed.forEach(publisher::submit);
+		}
+		subscriber.getReport().get(30, TimeUnit.SECONDS);
+
+		try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+			Sheet sheet = workbook.getSheetAt(0);
+			Assert.assertEquals(sheet.getLastRowNum(), SAMPLE_RESULTS, "every published result should be reported");
+			Assert.assertFalse(sheet.getRow(1).getCell(8).getStringCellValue().isEmpty(),
+				"results published ahead of their feature should still be located");
+		}
+	}
+
+	@Test
+	public void testPublisherFailure() throws Exception {
+		TraceabilityMatrixSubscriber subscriber =
+			new TraceabilityMatrixSubscriber(context.getBean(TraceabilityMatrix.class), new ByteArrayOutputStream(), 1);
+		try (SubmissionPublisher<ReportRecord> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(subscriber);
+			records.forEach(publisher::submit);
+			publisher.closeExceptionally(new IllegalStateException("harness crashed"));
+		}
+		try {
+			subscriber.getReport().get(30, TimeUnit.SECONDS);
+			Assert.fail("report should fail with the publisher");
+		}
+		catch (ExecutionException e) {
+			Assert.assertEquals(e.getCause().getCause().getMessage(), "harness crashed");
+		}
+	}
+
+	@Test
+	public void testPublisherExceedsDemand() throws Exception {
+		TraceabilityMatrixSubscriber subscriber =
+			new TraceabilityMatrixSubscriber(context.getBean(TraceabilityMatrix.class), new ByteArrayOutputStream(), 1);
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+		for (int i = 0; i < 100; i++) {
+			records.forEach(subscriber::onNext);
+		}
+
+		try {
+			subscriber.getReport().get(30, TimeUnit.SECONDS);
+			Assert.fail("report should fail once the publisher exceeds demand");
+		}
+		catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause().getCause().getMessage().contains("exceeded the requested demand"));
+		}
+	}
+
+	@AfterClass
+	public void tearDownClass() {
+		context.close();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.record;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.stream.JsonReader;
+
+public class ResultRecordAdapterTest {
+
+	private static final String JSON = "{" +
+		"\"name\": \"Scenario\"," +
+		"\"status\": \"FAILED\"," +
+		"\"steps\": [" +
+		"{\"keyword\": \"Given\", \"embedded\": [\"aGVsbG8=\"], \"exception\": \"boom\"}" +
+		"]}";
+
+	@Test
+	public void testUndeclaredSubtreeSkipped() throws IOException {
+		ResultRecord record = read(Projection.of("name", "status"));
+		Assert.assertEquals(record.getName(), "Scenario");
+		Assert.assertEquals(record.getStatus(), "FAILED");
+		Assert.assertNull(record.getSteps(), "steps should not have been decoded");
+	}
+
+	@Test
+	public void testNestedPath() throws IOException {
+		ResultRecord record = read(Projection.of("steps.exception"));
+		Assert.assertNull(record.getName());
+
+		List<StepRecord> steps = record.getSteps();
+		Assert.assertNotNull(steps);
+		Assert.assertEquals(steps.size(), 1);
+		Assert.assertEquals(steps.get(0).getException(), "boom");
+		Assert.assertNull(steps.get(0).getKeyword(), "undeclared step field should not have been decoded");
+	}
+
+	@Test
+	public void testAll() throws IOException {
+		ResultRecord record = read(Projection.all());
+		Assert.assertEquals(record.getName(), "Scenario");
+		Assert.assertEquals(record.getSteps().get(0).getKeyword(), "Given");
+	}
+
+	@Test
+	public void testRepeatedValuesShared() throws IOException {
+		Interner<String> interner = Interners.newStrongInterner();
+		ResultRecordAdapter adapter = new ResultRecordAdapter(Projection.all(), interner);
+		ResultRecord first = read(adapter);
+		ResultRecord second = read(adapter);
+
+		Assert.assertSame(first.getStatus(), second.getStatus(), "status should be interned");
+		Assert.assertSame(first.getSteps().get(0).getKeyword(), second.getSteps().get(0).getKeyword());
+		Assert.assertNotSame(first.getName(), second.getName(), "scenario name should not be interned");
+		Assert.assertSame(interner.intern(new String("FAILED")), first.getStatus());
+	}
+
+	private static ResultRecord read(Projection projection) throws IOException {
+		return read(new ResultRecordAdapter(projection));
+	}
+
+	private static ResultRecord read(ResultRecordAdapter adapter) throws IOException {
+		try (JsonReader reader = new JsonReader(new StringReader(JSON))) {
+			return adapter.read(reader);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*
+Copyright 2017 Penny Rohr Curich
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package guru.qas.martini.report.writer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DelimitedReportWriterTest {
+
+	@Test
+	public void testQuoting() throws IOException {
+		StringWriter csv = new StringWriter();
+		DelimitedReportWriter writer = new DelimitedReportWriter(csv, Delimiter.COMMA);
+		writer.writeHeader(Arrays.asList("Name", "Tags"));
+		writer.writeRow(Arrays.asList("plain", "@Smoke()\n@Tag(\"a,b\")"));
+		writer.writeRow(Arrays.asList(null, "tab\there"));
+		writer.finish();
+		Assert.assertEquals(csv.toString(),
+			"Name,Tags\r\nplain,\"@Smoke()\n@Tag(\"\"a,b\"\")\"\r\n,tab\there\r\n");
+
+		StringWriter tsv = new StringWriter();
+		writer = new DelimitedReportWriter(tsv, Delimiter.TAB);
+		writer.writeRow(Arrays.asList("a,b", "tab\there"));
+		writer.finish();
+		Assert.assertEquals(tsv.toString(), "a,b\t\"tab\there\"\r\n");
+	}
+
+	@Test
+	public void testFileNames() {
+		Assert.assertEquals(Delimiter.forFileName("file:///tmp/report.CSV"), Delimiter.COMMA);
+		Assert.assertEquals(Delimiter.forFileName("report.tsv"), Delimiter.TAB);
+		Assert.assertNull(Delimiter.forFileName("report.xlsx"));
+	}
+}